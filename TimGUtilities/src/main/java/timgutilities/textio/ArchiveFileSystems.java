@@ -0,0 +1,169 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.ProviderNotFoundException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps archives (zip, jar and anything else there is a FileSystemProvider for)
+ * open as file systems so the choosers can browse inside them without
+ * extracting anything. Opening a zip file system reads the archive's central
+ * directory, so keeping it open means that is only done once however many times
+ * the archive is browsed, and the paths inside it that are handed out stay
+ * usable (e.g. for Files.newInputStream) until the archive is closed.
+ * 
+ * If the archive file changes (its size or modification time is different) the
+ * next request closes the old file system and opens the archive again.
+ */
+final class ArchiveFileSystems {
+	private static final ArchiveFileSystems INSTANCE = new ArchiveFileSystems();
+	// the zip file system setting for opening read only
+	private static final Map<String, String> READ_ONLY = Map.of("accessMode", "readOnly");
+
+	// keyed by the real path of the archive so different ways of getting to it
+	// share the file system
+	private final Map<Path, OpenArchive> openArchives = new HashMap<>();
+
+	private ArchiveFileSystems() {
+	}
+
+	static ArchiveFileSystems getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * get the root directory inside the archive, opening it if needed
+	 * 
+	 * @param archive the archive file
+	 * @return the root of the archive's file system
+	 * @throws IOException if the archive can't be read or there is no provider
+	 *                     that can open it
+	 */
+	synchronized Path getRoot(Path archive) throws IOException {
+		Path archivePath = archive.toRealPath();
+		BasicFileAttributes attributes = Files.readAttributes(archivePath, BasicFileAttributes.class);
+		if (!attributes.isRegularFile()) {
+			throw new IOException("Archive " + archive + " is not a file");
+		}
+		OpenArchive openArchive = openArchives.get(archivePath);
+		if (openArchive != null) {
+			if (openArchive.fileSystem.isOpen() && (openArchive.size == attributes.size())
+					&& openArchive.lastModified == attributes.lastModifiedTime().toMillis()) {
+				return openArchive.root;
+			}
+			// it's been changed (or closed by someone else) so start again
+			closeQuietly(openArchive);
+			openArchives.remove(archivePath);
+		}
+		FileSystem fileSystem;
+		try {
+			// browsing never changes the archive, so don't let anything else change it
+			// either (providers that don't know the setting ignore it)
+			fileSystem = FileSystems.newFileSystem(archivePath, READ_ONLY);
+		} catch (UnsupportedOperationException | ProviderNotFoundException e) {
+			throw new IOException("Archive " + archive + " is not a type that can be browsed", e);
+		}
+		// archives only have the one root
+		Path root = fileSystem.getRootDirectories().iterator().next();
+		openArchives.put(archivePath, new OpenArchive(fileSystem, root, attributes.size(),
+				attributes.lastModifiedTime().toMillis()));
+		return root;
+	}
+
+	/**
+	 * close the archive if it's open, any paths inside it can no longer be used
+	 * 
+	 * @param archive the archive file
+	 * @return true if it was open
+	 */
+	synchronized boolean close(Path archive) {
+		Path archivePath;
+		try {
+			archivePath = archive.toRealPath();
+		} catch (IOException e) {
+			// it's gone, the file system may still be open though
+			archivePath = archive.toAbsolutePath().normalize();
+		}
+		OpenArchive openArchive = openArchives.remove(archivePath);
+		if (openArchive == null) {
+			return false;
+		}
+		closeQuietly(openArchive);
+		return true;
+	}
+
+	/**
+	 * close all of the open archives
+	 */
+	synchronized void closeAll() {
+		List<OpenArchive> toClose = new ArrayList<>(openArchives.values());
+		openArchives.clear();
+		toClose.forEach(ArchiveFileSystems::closeQuietly);
+	}
+
+	private static void closeQuietly(OpenArchive openArchive) {
+		try {
+			openArchive.fileSystem.close();
+		} catch (IOException e) {
+			System.err.println("Problem closing archive " + openArchive.fileSystem + ", " + e);
+		}
+	}
+
+	private static final class OpenArchive {
+		private final FileSystem fileSystem;
+		private final Path root;
+		private final long size;
+		private final long lastModified;
+
+		private OpenArchive(FileSystem fileSystem, Path root, long size, long lastModified) {
+			this.fileSystem = fileSystem;
+			this.root = root;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+	}
+}
@@ -478,13 +478,25 @@ public class ChoiceDescriptionData<P> implements Cloneable {
 		if (doSort) {
 			Collections.sort(choiceDescriptions);
 		}
+		processed = true;
+		updateDefaultOptionNumber();
+	}
+
+	/**
+	 * the number of the default is only worked out once the choices have been
+	 * processed (they may be sorted), after that it needs to track the default if
+	 * that is changed
+	 */
+	private void updateDefaultOptionNumber() {
+		if (!processed) {
+			return;
+		}
 		// if there is a choice description set it
 		if (defaultOption == null) {
 			defaultOptionInt = null;
 		} else {
 			defaultOptionInt = locateChoiceDescriptionIndexByChoiceDescription(defaultOption);
 		}
-		processed = true;
 	}
 
 	/**
@@ -848,6 +860,7 @@ public class ChoiceDescriptionData<P> implements Cloneable {
 	 */
 	public ChoiceDescription<P> setDefaultByChoiceDescription(ChoiceDescription<P> cd) {
 		defaultOption = choiceDescriptionIsPresent(cd) ? cd : null;
+		updateDefaultOptionNumber();
 		return defaultOption;
 	}
 
@@ -859,6 +872,12 @@ public class ChoiceDescriptionData<P> implements Cloneable {
 	 */
 	public ChoiceDescription<P> setDefaultByIndex(Integer index) {
 		defaultOption = index == null ? null : getChoiceDescription(index);
+		if (processed) {
+			// the order is fixed once processed, so the index is already known
+			defaultOptionInt = defaultOption == null ? null : index;
+		} else {
+			updateDefaultOptionNumber();
+		}
 		return defaultOption;
 	}
 
@@ -874,6 +893,7 @@ public class ChoiceDescriptionData<P> implements Cloneable {
 	 */
 	public ChoiceDescription<P> setDefaultByOption(String option) {
 		defaultOption = option == null ? null : locateChoiceDescriptionByOptionString(option);
+		updateDefaultOptionNumber();
 		return defaultOption;
 	}
 
@@ -889,6 +909,7 @@ public class ChoiceDescriptionData<P> implements Cloneable {
 	 */
 	public ChoiceDescription<P> setDefaultByParam(P param) {
 		defaultOption = param == null ? null : locateChoiceDescriptionByParam(param);
+		updateDefaultOptionNumber();
 		return defaultOption;
 	}
 
@@ -1001,16 +1022,20 @@ public class ChoiceDescriptionData<P> implements Cloneable {
 	 * @return a string representing the choices for display
 	 */
 	public String getChoicesString() {
-		process();
-		String processedPrompt = "";
+		// once processed this only reads, so locked data can be shared between
+		// threads
+		if (!processed) {
+			process();
+		}
+		StringBuilder processedPrompt = new StringBuilder();
 		for (int i = 0; i < choiceDescriptions.size(); i++) {
 			ChoiceDescription<P> cd = choiceDescriptions.get(i);
-			processedPrompt = processedPrompt + "\n[" + i + "] = " + cd.getDisplayText();
+			processedPrompt.append("\n[").append(i).append("] = ").append(cd.getDisplayText());
 			// if this is the default item
 			if ((defaultOptionInt != null) && (defaultOptionInt == i)) {
-				processedPrompt += " (Default)";
+				processedPrompt.append(" (Default)");
 			}
 		}
-		return processedPrompt;
+		return processedPrompt.toString();
 	}
 }
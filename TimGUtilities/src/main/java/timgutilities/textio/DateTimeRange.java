@@ -0,0 +1,147 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * A range of date times, the start and end are both included and the start is
+ * never after the end (comparing the instants, so they can be in different
+ * zones). Instances can't be changed.
+ * 
+ * @see TextIOUtils#getDateTimeRange(String, java.time.ZoneId,
+ *      java.time.LocalDateTime, java.time.LocalDateTime)
+ */
+public final class DateTimeRange {
+	private final ZonedDateTime start;
+	private final ZonedDateTime end;
+
+	/**
+	 * Build the range
+	 * 
+	 * @param start the start of the range
+	 * @param end   the end of the range
+	 * @throws IllegalArgumentException if start or end are null or end is before
+	 *                                  start
+	 */
+	public DateTimeRange(ZonedDateTime start, ZonedDateTime end) {
+		if ((start == null) || (end == null)) {
+			throw new IllegalArgumentException("The start and end of a date time range must be provided");
+		}
+		if (end.isBefore(start)) {
+			throw new IllegalArgumentException("The end of a date time range (" + end
+					+ ") can't be before the start (" + start + ")");
+		}
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * get the start of the range
+	 * 
+	 * @return the start
+	 */
+	public ZonedDateTime getStart() {
+		return start;
+	}
+
+	/**
+	 * get the end of the range
+	 * 
+	 * @return the end
+	 */
+	public ZonedDateTime getEnd() {
+		return end;
+	}
+
+	/**
+	 * is the instant in the range (start and end are in it)
+	 * 
+	 * @param instant the instant to check
+	 * @return true if it's in the range
+	 */
+	public boolean contains(Instant instant) {
+		return !instant.isBefore(start.toInstant()) && !instant.isAfter(end.toInstant());
+	}
+
+	/**
+	 * is the date time in the range (start and end are in it)
+	 * 
+	 * @param dateTime the date time to check
+	 * @return true if it's in the range
+	 */
+	public boolean contains(ZonedDateTime dateTime) {
+		return contains(dateTime.toInstant());
+	}
+
+	/**
+	 * get the time between the start and end
+	 * 
+	 * @return the duration
+	 */
+	public Duration getDuration() {
+		return Duration.between(start, end);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof DateTimeRange)) {
+			return false;
+		}
+		DateTimeRange otherRange = (DateTimeRange) other;
+		return start.equals(otherRange.start) && end.equals(otherRange.end);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(start, end);
+	}
+
+	/**
+	 * the range as start..end in ISO format
+	 */
+	@Override
+	public String toString() {
+		return start + TextIOUtils.RANGE_SEPARATOR + end;
+	}
+}
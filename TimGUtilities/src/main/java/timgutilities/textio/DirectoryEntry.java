@@ -49,10 +49,24 @@ public class DirectoryEntry implements Comparable<DirectoryEntry> {
 	// Tim.txt and tim.txt, but looking at most file choosers it's probably how
 	// people think it should work
 	private static boolean caseInsensitiveSort = true;
+	// listings can have millions of entries, so only what's needed is held per
+	// entry, the lower case form of the name is not kept and for entries built
+	// while listing a directory the path is not kept either, it's resolved from the
+	// root (the shared directory that was listed) when asked for
 	private final String name;
-	private String nameLowerCase;
 	private final Type type;
 	private final Path path;
+	private final long size;
+	private final long lastModified;
+	private final long created;
+	private final boolean hidden;
+	private final Path root;
+
+	/**
+	 * returned by the attribute getters if the attribute isn't known, for example
+	 * for the . and .. entries
+	 */
+	public static final long UNKNOWN = Long.MIN_VALUE;
 
 	/**
 	 * Build the entry
@@ -63,6 +77,50 @@ public class DirectoryEntry implements Comparable<DirectoryEntry> {
 	 * @param path Java PATH to the entry
 	 */
 	public DirectoryEntry(String name, Type type, Path path) {
+		this(name, type, path, UNKNOWN, UNKNOWN, UNKNOWN, false);
+	}
+
+	/**
+	 * Build the entry including the attributes, these are usually captured when the
+	 * directory is listed
+	 * 
+	 * @param name         name of the entry, this is in it's containing directory
+	 *                     to Path.getFilename()
+	 * @param type         type of the entry
+	 * @param path         Java PATH to the entry
+	 * @param size         size in bytes, or UNKNOWN
+	 * @param lastModified last modified time in milliseconds since the epoch, or
+	 *                     UNKNOWN
+	 * @param created      creation time in milliseconds since the epoch (if the
+	 *                     file system doesn't support this it's usually the same as
+	 *                     the last modified time), or UNKNOWN
+	 * @param hidden       true if the entry is hidden
+	 */
+	public DirectoryEntry(String name, Type type, Path path, long size, long lastModified, long created,
+			boolean hidden) {
+		this(name, type, path, size, lastModified, created, hidden, null);
+	}
+
+	/**
+	 * Build the entry including the attributes and the root it was found under,
+	 * these are usually captured when the directory is listed or searched
+	 * 
+	 * @param name         name of the entry, this is in it's containing directory
+	 *                     to Path.getFilename()
+	 * @param type         type of the entry
+	 * @param path         Java PATH to the entry, if this is null the name is
+	 *                     resolved against the root when the path is asked for
+	 * @param size         size in bytes, or UNKNOWN
+	 * @param lastModified last modified time in milliseconds since the epoch, or
+	 *                     UNKNOWN
+	 * @param created      creation time in milliseconds since the epoch, or
+	 *                     UNKNOWN
+	 * @param hidden       true if the entry is hidden
+	 * @param root         the directory that was listed or searched to find the
+	 *                     entry, may be null
+	 */
+	public DirectoryEntry(String name, Type type, Path path, long size, long lastModified, long created,
+			boolean hidden, Path root) {
 		if (name == null) {
 			throw new NullPointerException("DirectoryEntry name cannot be null");
 		}
@@ -70,10 +128,34 @@ public class DirectoryEntry implements Comparable<DirectoryEntry> {
 			throw new NullPointerException("DirectoryEntry type cannot be null");
 		}
 		this.name = name;
-		// make this lower case to "match" the expected output
-		this.nameLowerCase = name.toLowerCase();
 		this.type = type;
 		this.path = path;
+		this.size = size;
+		this.lastModified = lastModified;
+		this.created = created;
+		this.hidden = hidden;
+		this.root = root;
+	}
+
+	/**
+	 * build an entry found when listing dir, the path isn't stored it's resolved
+	 * against dir when needed, and dir is also the root of the entry. All the
+	 * entries from a listing share the one dir object
+	 * 
+	 * @param name         name of the entry in dir
+	 * @param type         type of the entry
+	 * @param dir          the directory that was listed
+	 * @param size         size in bytes, or UNKNOWN
+	 * @param lastModified last modified time in milliseconds since the epoch, or
+	 *                     UNKNOWN
+	 * @param created      creation time in milliseconds since the epoch, or
+	 *                     UNKNOWN
+	 * @param hidden       true if the entry is hidden
+	 * @return the entry
+	 */
+	static DirectoryEntry inDirectory(String name, Type type, Path dir, long size, long lastModified, long created,
+			boolean hidden) {
+		return new DirectoryEntry(name, type, null, size, lastModified, created, hidden, dir);
 	}
 
 	/**
@@ -125,14 +207,72 @@ public class DirectoryEntry implements Comparable<DirectoryEntry> {
 	}
 
 	/**
-	 * get the path object representing this entry
+	 * get the path object representing this entry, for entries from a directory
+	 * listing this is built each time it's called, so hang on to it if you need it
+	 * repeatedly
 	 * 
 	 * @return the path object
 	 */
 	public Path getPath() {
+		if ((path == null) && (root != null)) {
+			return root.resolve(name);
+		}
 		return path;
 	}
 
+	/**
+	 * get the size of the entry as it was when the directory was listed, for
+	 * directories this is whatever the file system reports
+	 * 
+	 * @return the size in bytes, or UNKNOWN
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * get the last modified time of the entry as it was when the directory was
+	 * listed
+	 * 
+	 * @return the time in milliseconds since the epoch, or UNKNOWN
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * get the creation time of the entry, if the file system doesn't keep this it
+	 * will usually be the last modified time
+	 * 
+	 * @return the time in milliseconds since the epoch, or UNKNOWN
+	 */
+	public long getCreated() {
+		return created;
+	}
+
+	/**
+	 * is this entry hidden (e.g. starting with . in Unix / Linux / MacOS, hidden
+	 * flag for windows), this will only be true if hidden entries were included in
+	 * the listing
+	 * 
+	 * @return true if the entry is hidden
+	 */
+	public boolean isHidden() {
+		return hidden;
+	}
+
+	/**
+	 * get the directory that was listed (or the root of the search) that this entry
+	 * was found under, when several directories are listed together (e.g.
+	 * streamMergedDirectoryEntries) this tells you which one it came from
+	 * 
+	 * @return the root, or null if it's not known (e.g. the entry was built
+	 *         directly)
+	 */
+	public Path getRoot() {
+		return root;
+	}
+
 	/**
 	 * 
 	 * represents the type of DirectoryEntry, used for names and so on and to make
@@ -175,7 +315,9 @@ public class DirectoryEntry implements Comparable<DirectoryEntry> {
 			return 0;
 		} else {
 			if (caseInsensitiveSort) {
-				return this.nameLowerCase.compareTo(other.nameLowerCase);
+				// compares char by char, so there is no lower case copy of the names to
+				// make or keep
+				return String.CASE_INSENSITIVE_ORDER.compare(this.name, other.name);
 			} else {
 				return this.name.compareTo(other.name);
 			}
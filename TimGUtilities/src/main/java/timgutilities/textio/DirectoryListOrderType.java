@@ -36,11 +36,14 @@ SOFTWARE.
  */
 package timgutilities.textio;
 
+import java.util.Comparator;
+
 /**
  * enum to control the output order when listing directory entries.
  * 
  * Note that the entries will be sorted alphabetically within the groupings
- * below
+ * below, the time and size orders use the attributes captured when the
+ * directory was listed so don't need to go back to the file system
  */
 public enum DirectoryListOrderType {
 	/**
@@ -48,16 +51,108 @@ public enum DirectoryListOrderType {
 	 * directories. Both the files and directory entries will be in alphabetical
 	 * order within their grouping
 	 */
-	FILES_FIRST,
+	FILES_FIRST((first, second) -> {
+		// FILE is declared before DIRECTORY in the type enum
+		int typeOrder = first.getType().compareTo(second.getType());
+		return typeOrder != 0 ? typeOrder : first.compareTo(second);
+	}),
 	/**
 	 * The result of a list directory operation will place directories in the list
 	 * before files. Both the files and directory entries will be in alphabetical
 	 * order within their grouping
 	 */
-	DIRECTORIES_FIRST,
+	DIRECTORIES_FIRST((first, second) -> {
+		int typeOrder = second.getType().compareTo(first.getType());
+		return typeOrder != 0 ? typeOrder : first.compareTo(second);
+	}),
 	/**
 	 * The result of a list directory operation will combine files directories and
 	 * they will be sorted based on alphabetical order regardless of type.
 	 */
-	JUST_BY_NAME
+	JUST_BY_NAME((first, second) -> first.compareTo(second)),
+	/**
+	 * The result of a list directory operation will combine files and directories
+	 * with the most recently modified first, entries modified at the same time are
+	 * in alphabetical order
+	 */
+	NEWEST_FIRST((first, second) -> {
+		int timeOrder = Long.compare(second.getLastModified(), first.getLastModified());
+		return timeOrder != 0 ? timeOrder : first.compareTo(second);
+	}),
+	/**
+	 * The result of a list directory operation will combine files and directories
+	 * with the least recently modified first, entries modified at the same time are
+	 * in alphabetical order
+	 */
+	OLDEST_FIRST((first, second) -> {
+		int timeOrder = Long.compare(first.getLastModified(), second.getLastModified());
+		return timeOrder != 0 ? timeOrder : first.compareTo(second);
+	}),
+	/**
+	 * The result of a list directory operation will combine files and directories
+	 * with the biggest first (the size of a directory is whatever the file system
+	 * reports for it, not the size of its contents), entries of the same size are
+	 * in alphabetical order
+	 */
+	LARGEST_FIRST((first, second) -> {
+		int sizeOrder = Long.compare(second.getSize(), first.getSize());
+		return sizeOrder != 0 ? sizeOrder : first.compareTo(second);
+	}),
+	/**
+	 * The result of a list directory operation will combine files and directories
+	 * with the smallest first (the size of a directory is whatever the file system
+	 * reports for it, not the size of its contents), entries of the same size are
+	 * in alphabetical order
+	 */
+	SMALLEST_FIRST((first, second) -> {
+		int sizeOrder = Long.compare(first.getSize(), second.getSize());
+		return sizeOrder != 0 ? sizeOrder : first.compareTo(second);
+	});
+
+	DirectoryListOrderType(Comparator<DirectoryEntry> comparator) {
+		this.comparator = comparator;
+		this.pagingComparator = comparator.thenComparing(DirectoryEntry::getName);
+	}
+
+	private final Comparator<DirectoryEntry> comparator;
+	private final Comparator<DirectoryEntry> pagingComparator;
+
+	/**
+	 * the comparator that puts entries into the order represented by this
+	 * constant, this lets the listing routines do a single sort over all of the
+	 * entries rather than having to sort files and directories separately and then
+	 * combine them
+	 * 
+	 * @return the comparator for this order
+	 */
+	protected Comparator<DirectoryEntry> getComparator() {
+		return comparator;
+	}
+
+	/**
+	 * as getComparator, but entries that the comparator treats as the same (e.g.
+	 * README and readme when sorting case insensitively) are put in order by their
+	 * exact names. Names are unique within a directory so this is a total order,
+	 * which the paged listings need so that each entry is on one page and only one
+	 * page
+	 * 
+	 * @return the comparator for paging in this order
+	 */
+	Comparator<DirectoryEntry> getPagingComparator() {
+		return pagingComparator;
+	}
+
+	/**
+	 * does this order depend on the size or times of the entries, these can change
+	 * without the modification time of the directory changing, so listings in
+	 * these orders can't be reused just because the directory is unchanged
+	 * 
+	 * @return true for the time and size orders
+	 */
+	boolean isAttributeOrder() {
+		return switch (this) {
+		case NEWEST_FIRST, OLDEST_FIRST, LARGEST_FIRST, SMALLEST_FIRST -> true;
+		default -> false;
+		};
+	}
 }
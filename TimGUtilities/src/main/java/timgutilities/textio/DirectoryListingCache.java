@@ -0,0 +1,560 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.IOException;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds recently listed directories so that the choosers don't have to go back
+ * to the disk every time the user navigates, for example going back up via ..
+ * to a directory that was just displayed.
+ * 
+ * The cache is a bounded LRU, each listing is keyed by the directory and all of
+ * the settings that affect the result. It's bounded both by the number of
+ * listings and by the total number of entries in them, so a few huge
+ * directories can't hold on to lots of memory. Checking a cached listing is
+ * still valid can mean going to the disk, that is done without holding the
+ * cache lock so a slow directory doesn't hold up everyone else using the cache. Directories on the default file system
+ * are registered with a WatchService and the listings for them are thrown away
+ * when a change in the directory is reported. The watch events arrive in the
+ * background so the modification time of the directory is also checked before a
+ * cached listing is used, for directories that can't be watched (e.g. the file
+ * system doesn't support it) that is the only check. Neither of those notice an
+ * entry being written to, so listings in the time and size orders are not cached
+ * and the sizes and times on cached entries are from when they were listed.
+ */
+final class DirectoryListingCache {
+	private static final int DEFAULT_MAX_LISTINGS = 64;
+	private static final int DEFAULT_MAX_ENTRIES = 250000;
+	private static final DirectoryListingCache INSTANCE = new DirectoryListingCache();
+
+	private int maxListings = DEFAULT_MAX_LISTINGS;
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+	// the number of entries in all of the held listings
+	private long totalEntries = 0;
+	// access ordered so the eldest entry is always the least recently used
+	private final LinkedHashMap<ListingKey, CachedListing> listings = new LinkedHashMap<>(16, 0.75f, true);
+	// the watch registrations, keyed by the absolute directory path
+	private final Map<Path, WatchedDirectory> watchedDirectories = new HashMap<>();
+	private final Map<WatchKey, WatchedDirectory> watchKeys = new HashMap<>();
+	// listings that are currently being done, so other threads can wait for them
+	private final Map<ListingKey, FutureTask<List<DirectoryEntry>>> loading = new HashMap<>();
+	private WatchService watchService;
+	private boolean watchServiceUnavailable = false;
+
+	private DirectoryListingCache() {
+	}
+
+	/**
+	 * get the cache shared by the choosers
+	 * 
+	 * @return the cache
+	 */
+	static DirectoryListingCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Change the number of listings that will be held, setting this to zero
+	 * disables the cache. If the new size is smaller than the current number of
+	 * listings the least recently used ones are discarded
+	 * 
+	 * @param newMaxListings the maximum number of directory listings to hold
+	 */
+	synchronized void setMaxListings(int newMaxListings) {
+		if (newMaxListings < 0) {
+			throw new IllegalArgumentException("The maximum number of cached listings cannot be negative");
+		}
+		this.maxListings = newMaxListings;
+		trimToSize();
+	}
+
+	/**
+	 * gets the maximum number of listings that will be held
+	 * 
+	 * @return the maximum number of listings
+	 */
+	synchronized int getMaxListings() {
+		return maxListings;
+	}
+
+	/**
+	 * Change the total number of entries that will be held over all of the
+	 * listings, a listing with more entries than this on its own is never kept. If
+	 * the new size is smaller than the current number of entries the least
+	 * recently used listings are discarded
+	 * 
+	 * @param newMaxEntries the maximum number of entries to hold
+	 */
+	synchronized void setMaxEntries(int newMaxEntries) {
+		if (newMaxEntries < 0) {
+			throw new IllegalArgumentException("The maximum number of cached entries cannot be negative");
+		}
+		this.maxEntries = newMaxEntries;
+		trimToSize();
+	}
+
+	/**
+	 * gets the maximum number of entries that will be held over all of the listings
+	 * 
+	 * @return the maximum number of entries
+	 */
+	synchronized int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * throw away all of the cached listings and any watch registrations
+	 */
+	synchronized void clear() {
+		listings.clear();
+		totalEntries = 0;
+		watchedDirectories.values().forEach(watched -> watched.watchKey.cancel());
+		watchedDirectories.clear();
+		watchKeys.clear();
+	}
+
+	/**
+	 * Get the listing for the directory, if there is a valid cached version that is
+	 * used, otherwise the directory is listed and the result cached. Listings in the
+	 * time and size orders are never cached, the sizes and times of the entries can
+	 * change without the directory itself changing.
+	 * 
+	 * The returned list is a new list each time so the caller is free to modify it
+	 * (for example to add the . and .. entries)
+	 * 
+	 * @param dir                directory to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true hidden entries are removed from the list
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @return list of matching entries ordered as requested
+	 */
+	List<DirectoryEntry> getListing(Path dir, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly) {
+		if ((getMaxListings() == 0) || listOrderType.isAttributeOrder()) {
+			return TextIOUtils.listDirectoryEntriesMatching(dir, listFilterType, listOrderType, excludeHiddenFiles,
+					nameMatcher, matchFilesOnly);
+		}
+		ListingKey key = new ListingKey(dir, listFilterType, listOrderType, excludeHiddenFiles, nameMatcher,
+				matchFilesOnly, DirectoryEntry.isCaseInsensitiveSort());
+		return new ArrayList<>(load(key, null));
+	}
+
+	/**
+	 * Make sure there is a cached listing for the directory, this is used by the
+	 * background prefetching so unlike getListing the listing can be limited, each
+	 * entry read from the directory is taken from entriesBudget and if that runs
+	 * out the listing is abandoned (and not kept) there and then rather than
+	 * reading the rest of the directory
+	 * 
+	 * @param dir                directory to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true hidden entries are removed from the list
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @param entriesBudget      the entries that can still be read, shared by all
+	 *                           of the prefetches for a prompt, null for no limit
+	 */
+	void preload(Path dir, DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType,
+			boolean excludeHiddenFiles, NameMatcher nameMatcher, boolean matchFilesOnly,
+			AtomicInteger entriesBudget) {
+		if ((getMaxListings() == 0) || listOrderType.isAttributeOrder()) {
+			return;
+		}
+		ListingKey key = new ListingKey(dir, listFilterType, listOrderType, excludeHiddenFiles, nameMatcher,
+				matchFilesOnly, DirectoryEntry.isCaseInsensitiveSort());
+		if (lookup(key) != null) {
+			return;
+		}
+		synchronized (this) {
+			if (loading.containsKey(key)) {
+				return;
+			}
+		}
+		load(key, entriesBudget);
+	}
+
+	/**
+	 * get the listing from the cache, if it's not there and someone else is already
+	 * listing the directory (e.g. a prefetch) wait for them to finish rather than
+	 * doing it twice, otherwise do the listing here
+	 * 
+	 * @return the listing, or null if entriesBudget ran out before it was complete
+	 */
+	private List<DirectoryEntry> load(ListingKey key, AtomicInteger entriesBudget) {
+		List<DirectoryEntry> cached = lookup(key);
+		if (cached != null) {
+			return cached;
+		}
+		FutureTask<List<DirectoryEntry>> loader;
+		boolean loadHere = false;
+		synchronized (this) {
+			loader = loading.get(key);
+			if (loader == null) {
+				loader = new FutureTask<>(() -> list(key, entriesBudget));
+				loading.put(key, loader);
+				loadHere = true;
+			}
+		}
+		if (loadHere) {
+			try {
+				loader.run();
+			} finally {
+				synchronized (this) {
+					loading.remove(key);
+				}
+			}
+		}
+		try {
+			List<DirectoryEntry> entries = loader.get();
+			if ((entries == null) && (entriesBudget == null)) {
+				// we were waiting on a prefetch that ran out of budget, so do it properly
+				return list(key, null);
+			}
+			return entries;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return list(key, entriesBudget);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Problem listing directory " + key.dir, e.getCause());
+		}
+	}
+
+	private List<DirectoryEntry> list(ListingKey key, AtomicInteger entriesBudget) {
+		// get the validation info before doing the listing, that way if anything
+		// changes while the list is happening the listing will be treated as stale
+		WatchedDirectory watched;
+		long generation;
+		synchronized (this) {
+			watched = watch(key.dir);
+			generation = watched == null ? 0 : watched.generation;
+		}
+		FileTime modifiedTime = getModifiedTime(key.dir);
+		List<DirectoryEntry> listed = TextIOUtils.listDirectoryEntriesWithin(key.dir, key.listFilterType,
+				key.listOrderType, key.excludeHiddenFiles, key.nameMatcher, key.matchFilesOnly, entriesBudget);
+		if (listed == null) {
+			synchronized (this) {
+				releaseWatchIfUnused(watched);
+			}
+			return null;
+		}
+		List<DirectoryEntry> entries = List.copyOf(listed);
+		store(key, new CachedListing(key.dir, entries, watched, generation, modifiedTime));
+		return entries;
+	}
+
+	/**
+	 * get the listing if it's held and still valid, the check on the disk is done
+	 * outside the cache lock
+	 */
+	private List<DirectoryEntry> lookup(ListingKey key) {
+		CachedListing cachedListing;
+		synchronized (this) {
+			cachedListing = listings.get(key);
+		}
+		if (cachedListing == null) {
+			return null;
+		}
+		boolean unchanged = cachedListing.isUnchangedOnDisk();
+		synchronized (this) {
+			if (unchanged && cachedListing.isWatchValid()) {
+				return cachedListing.entries;
+			}
+			// it may have been replaced (or dropped) while it was being checked
+			if (listings.remove(key, cachedListing)) {
+				totalEntries -= cachedListing.entries.size();
+				releaseWatchIfUnused(cachedListing.watched);
+			}
+			return null;
+		}
+	}
+
+	private synchronized void store(ListingKey key, CachedListing cachedListing) {
+		// if the directory changed while we were listing it don't keep the result
+		boolean stale = (cachedListing.watched != null)
+				&& (cachedListing.watched.generation != cachedListing.generation);
+		if ((maxListings == 0) || (cachedListing.entries.size() > maxEntries) || stale) {
+			releaseWatchIfUnused(cachedListing.watched);
+			return;
+		}
+		CachedListing replaced = listings.put(key, cachedListing);
+		if (replaced != null) {
+			totalEntries -= replaced.entries.size();
+		}
+		totalEntries += cachedListing.entries.size();
+		trimToSize();
+		if ((replaced != null) && (replaced.watched != cachedListing.watched)) {
+			releaseWatchIfUnused(replaced.watched);
+		}
+	}
+
+	private void trimToSize() {
+		Iterator<CachedListing> iterator = listings.values().iterator();
+		while (((listings.size() > maxListings) || (totalEntries > maxEntries)) && iterator.hasNext()) {
+			CachedListing eldest = iterator.next();
+			iterator.remove();
+			totalEntries -= eldest.entries.size();
+			releaseWatchIfUnused(eldest.watched);
+		}
+	}
+
+	private static FileTime getModifiedTime(Path dir) {
+		try {
+			return Files.getLastModifiedTime(dir);
+		} catch (IOException | ClosedFileSystemException e) {
+			// an archive that has been closed counts as changed
+			return null;
+		}
+	}
+
+	/**
+	 * register the directory with the watch service if it can be watched
+	 * 
+	 * @param dir the directory to watch
+	 * @return the watch registration, or null if the directory can't be watched
+	 */
+	private synchronized WatchedDirectory watch(Path dir) {
+		// the default watch service can only watch directories on the default file
+		// system, anything else falls back to checking the modification time
+		if (watchServiceUnavailable || (dir.getFileSystem() != FileSystems.getDefault())) {
+			return null;
+		}
+		Path absoluteDir = dir.toAbsolutePath().normalize();
+		WatchedDirectory watched = watchedDirectories.get(absoluteDir);
+		if (watched != null) {
+			return watched;
+		}
+		try {
+			if (watchService == null) {
+				watchService = FileSystems.getDefault().newWatchService();
+				Thread watcher = new Thread(this::processWatchEvents, "TextIOUtils-directory-watcher");
+				watcher.setDaemon(true);
+				watcher.start();
+			}
+			WatchKey watchKey = absoluteDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+			watched = new WatchedDirectory(absoluteDir, watchKey);
+			watchedDirectories.put(absoluteDir, watched);
+			watchKeys.put(watchKey, watched);
+			return watched;
+		} catch (UnsupportedOperationException e) {
+			watchServiceUnavailable = true;
+			return null;
+		} catch (IOException e) {
+			// can't watch this one (e.g. out of inotify watches) so use the modification
+			// time instead
+			return null;
+		}
+	}
+
+	private void releaseWatchIfUnused(WatchedDirectory watched) {
+		if (watched == null) {
+			return;
+		}
+		for (CachedListing cachedListing : listings.values()) {
+			if (cachedListing.watched == watched) {
+				return;
+			}
+		}
+		watched.watchKey.cancel();
+		watchedDirectories.remove(watched.dir);
+		watchKeys.remove(watched.watchKey);
+	}
+
+	private void processWatchEvents() {
+		while (true) {
+			WatchKey watchKey;
+			try {
+				watchKey = watchService.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				return;
+			}
+			// we don't care what changed, just that something did (including overflows)
+			watchKey.pollEvents();
+			boolean stillValid = watchKey.reset();
+			invalidate(watchKey, stillValid);
+		}
+	}
+
+	private synchronized void invalidate(WatchKey watchKey, boolean stillValid) {
+		WatchedDirectory watched = watchKeys.get(watchKey);
+		if (watched == null) {
+			return;
+		}
+		watched.generation++;
+		listings.values().removeIf(cachedListing -> {
+			if (cachedListing.watched != watched) {
+				return false;
+			}
+			totalEntries -= cachedListing.entries.size();
+			return true;
+		});
+		if (!stillValid) {
+			// the directory has gone away
+			watchedDirectories.remove(watched.dir);
+			watchKeys.remove(watchKey);
+		} else {
+			releaseWatchIfUnused(watched);
+		}
+	}
+
+	private static final class WatchedDirectory {
+		private final Path dir;
+		private final WatchKey watchKey;
+		// incremented every time a change is seen, guarded by the cache lock
+		private long generation = 0;
+
+		private WatchedDirectory(Path dir, WatchKey watchKey) {
+			this.dir = dir;
+			this.watchKey = watchKey;
+		}
+	}
+
+	private static final class CachedListing {
+		private final Path dir;
+		private final List<DirectoryEntry> entries;
+		private final WatchedDirectory watched;
+		private final long generation;
+		private final FileTime modifiedTime;
+
+		private CachedListing(Path dir, List<DirectoryEntry> entries, WatchedDirectory watched, long generation,
+				FileTime modifiedTime) {
+			this.dir = dir;
+			this.entries = entries;
+			this.watched = watched;
+			this.generation = generation;
+			this.modifiedTime = modifiedTime;
+		}
+
+		/**
+		 * check the directory hasn't changed since it was listed, this may go to the
+		 * disk so it's not called with the cache lock held
+		 */
+		private boolean isUnchangedOnDisk() {
+			// nothing can change in a read only file system (e.g. an archive) while it's
+			// open
+			FileSystem fileSystem = dir.getFileSystem();
+			if (fileSystem.isReadOnly()) {
+				return fileSystem.isOpen();
+			}
+			return (modifiedTime != null) && modifiedTime.equals(getModifiedTime(dir));
+		}
+
+		/**
+		 * the watch events arrive in the background, so a change may have happened
+		 * that hasn't been seen yet, both the watch and the modification time have to
+		 * say the directory is unchanged. This must be called with the cache lock held
+		 */
+		private boolean isWatchValid() {
+			return (watched == null) || (watched.watchKey.isValid() && (watched.generation == generation));
+		}
+	}
+
+	private static final class ListingKey {
+		private final Path dir;
+		private final DirectoryListFilterType listFilterType;
+		private final DirectoryListOrderType listOrderType;
+		private final boolean excludeHiddenFiles;
+		private final NameMatcher nameMatcher;
+		private final boolean matchFilesOnly;
+		private final boolean caseInsensitiveSort;
+
+		private ListingKey(Path dir, DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType,
+				boolean excludeHiddenFiles, NameMatcher nameMatcher, boolean matchFilesOnly,
+				boolean caseInsensitiveSort) {
+			this.dir = dir;
+			this.listFilterType = listFilterType;
+			this.listOrderType = listOrderType;
+			this.excludeHiddenFiles = excludeHiddenFiles;
+			this.nameMatcher = nameMatcher;
+			this.matchFilesOnly = matchFilesOnly;
+			this.caseInsensitiveSort = caseInsensitiveSort;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(dir, listFilterType, listOrderType, excludeHiddenFiles, nameMatcher, matchFilesOnly,
+					caseInsensitiveSort);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ListingKey)) {
+				return false;
+			}
+			ListingKey other = (ListingKey) obj;
+			return dir.equals(other.dir) && (listFilterType == other.listFilterType)
+					&& (listOrderType == other.listOrderType) && (excludeHiddenFiles == other.excludeHiddenFiles)
+					&& Objects.equals(nameMatcher, other.nameMatcher) && (matchFilesOnly == other.matchFilesOnly)
+					&& (caseInsensitiveSort == other.caseInsensitiveSort);
+		}
+	}
+}
@@ -0,0 +1,525 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.IOException;
+import java.nio.file.ClosedFileSystemException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import timgutilities.textio.DirectoryEntry.Type;
+
+/**
+ * Lets the user navigate around the directories and choose an entry, this is
+ * what the TextIOUtils choseFromDirectory methods use.
+ * 
+ * The navigator keeps a stack of the directories that have been visited along
+ * with the choices that were built for them, so going back up via .. just
+ * re-displays the choices from before (unless the directory has changed in the
+ * meantime) with the directory that was navigated into as the default, so
+ * pressing return goes straight back down again.
+ * 
+ * A navigator can be used for several choices, each choice starts from the
+ * directory the last one ended in (or the start directory for the first one).
+ * It can also be used to choose multiple entries at once, see chooseMultiple
+ * 
+ * @see TextIOUtils#choseFromDirectory(String, Path, DirectorySelectionMode,
+ *      DirectoryListOrderType, boolean, String, boolean, boolean, boolean)
+ * @see DirectorySelectionMode
+ */
+public class DirectoryNavigator {
+	private final DirectorySelectionMode selectionMode;
+	private final DirectoryListOrderType listOrderType;
+	private final boolean excludeHiddenFiles;
+	private final NameMatcher nameMatcher;
+	private final boolean matchFilesOnly;
+	private final boolean nameAndType;
+	private final boolean addAbandon;
+	// the top is the directory currently being displayed
+	private final Deque<DirectoryFrame> frames = new ArrayDeque<>();
+	// when choosing multiple entries, what has been selected so far in the order it
+	// was selected, keyed by the path so the selection is kept when moving between
+	// directories
+	private final Map<Path, DirectoryEntry> selections = new LinkedHashMap<>();
+	private boolean multiSelect = false;
+
+	/**
+	 * Create the navigator, the arguments are the same as those for
+	 * TextIOUtils.choseFromDirectory
+	 * 
+	 * @param startDir           directory to start in
+	 * @param selectionMode      what choices to allow
+	 * @param listOrderType      how the entries should be ordered
+	 * @param excludeHiddenFiles if true then entries with as determined as hidden
+	 *                           by the OS are not shown
+	 * @param regexp             if provided is used to only select matching
+	 *                           entries, for example files ending in .java
+	 * @param regexpFilesOnly    does the regexp apply to both directories and files
+	 *                           or just files
+	 * @param nameAndType        if true then the name and type will be displayed
+	 *                           (e.g. tim.txt (File)), if false only the name (e.g.
+	 *                           tim.txt)
+	 * @param addAbandon         If true then the abandon option will be added at
+	 *                           the end of the choices
+	 */
+	public DirectoryNavigator(Path startDir, DirectorySelectionMode selectionMode,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, String regexp, boolean regexpFilesOnly,
+			boolean nameAndType, boolean addAbandon) {
+		this(startDir, selectionMode, listOrderType, excludeHiddenFiles, NameMatcher.regexp(regexp), regexpFilesOnly,
+				nameAndType, addAbandon);
+	}
+
+	/**
+	 * Set up the navigator, using a NameMatcher to select the entries shown
+	 * 
+	 * @param startDir           directory to start in
+	 * @param selectionMode      what choices to allow
+	 * @param listOrderType      how the entries should be ordered
+	 * @param excludeHiddenFiles if true then entries with as determined as hidden
+	 *                           by the OS are not shown
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries, for example NameMatcher.glob("*.java")
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @param nameAndType        if true then the name and type will be displayed
+	 *                           (e.g. tim.txt (File)), if false only the name (e.g.
+	 *                           tim.txt)
+	 * @param addAbandon         If true then the abandon option will be added at
+	 *                           the end of the choices
+	 * @see NameMatcher
+	 */
+	public DirectoryNavigator(Path startDir, DirectorySelectionMode selectionMode,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly, boolean nameAndType, boolean addAbandon) {
+		this.selectionMode = selectionMode;
+		this.listOrderType = listOrderType;
+		this.excludeHiddenFiles = excludeHiddenFiles;
+		this.nameMatcher = nameMatcher;
+		this.matchFilesOnly = matchFilesOnly;
+		this.nameAndType = nameAndType;
+		this.addAbandon = addAbandon;
+		frames.push(new DirectoryFrame(startDir));
+	}
+
+	/**
+	 * get the directory currently being displayed
+	 * 
+	 * @return the current directory
+	 */
+	public Path getCurrentDirectory() {
+		return frames.peek().dir;
+	}
+
+	/**
+	 * get how many directories are on the back stack, this is 1 when in the start
+	 * directory
+	 * 
+	 * @return the number of directories
+	 */
+	public int getDepth() {
+		return frames.size();
+	}
+
+	/**
+	 * Let the user navigate and choose an entry, this follows the same rules as
+	 * TextIOUtils.choseFromDirectory
+	 * 
+	 * @param prompt the prompt to use when asking for input, if null or zero length
+	 *               then the selectionMode prompt is used.
+	 * @return the DirectoryEntry selected or null if the abandon choice was taken
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input.
+	 */
+	public DirectoryEntry choose(String prompt) throws IOException {
+		multiSelect = false;
+		while (true) {
+			DirectoryFrame frame = frames.peek();
+			// if what we are given is a file, then build a entry for that and return it
+			if (Files.isRegularFile(frame.dir)) {
+				return new DirectoryEntry(frame.dir.getFileName().toString(), Type.FILE, frame.dir);
+			}
+			ChoiceDescriptionData<DirectoryEntry> cdd = frame.getChoices();
+			List<Future<?>> prefetches = startPrefetches(cdd);
+			DirectoryEntry directoryEntry;
+			try {
+				DirectorySummaries.await(cdd);
+				directoryEntry = TextIOUtils.getParamChoice(getFramePrompt(prompt, frame), cdd);
+			} finally {
+				DirectoryPrefetcher.cancel(prefetches);
+				DirectorySummaries.cancelPending(cdd);
+			}
+			if (directoryEntry == null) {
+				// they chose the abandon, pass that back
+				return null;
+			}
+			if (moveToPage(frame, directoryEntry)) {
+				continue;
+			}
+			// if we are limiting to only the current directory then return it, the choices
+			// will only have entries for the allowed types
+			if (!selectionMode.isNavigableMode() || (directoryEntry.getType() == Type.FILE)) {
+				return TextIOUtils.refreshAttributes(directoryEntry);
+			}
+			// if what has been chosen is the current directory AND we are allowing
+			// directories to be selected as a leaf return it, otherwise there's nowhere
+			// to go so just ask again
+			if (directoryEntry.getName().equals(TextIOUtils.currentDirectoryName)) {
+				if (selectionMode.isDirectoryAllowedAsLeaf()) {
+					return directoryEntry;
+				}
+				continue;
+			}
+			navigate(frame, directoryEntry);
+		}
+	}
+
+	/**
+	 * Let the user navigate and choose several entries, possibly from different
+	 * directories. Entering a single number for a directory the user can navigate
+	 * to opens that directory, otherwise it selects (or unselects) the entry.
+	 * Ranges and lists (e.g. 3-25 or 1,4,7-9) select all of the entries they
+	 * cover that can be chosen according to the selection mode. The selections are
+	 * kept when moving between directories, choosing the finished option ends the
+	 * selection.
+	 * 
+	 * @param prompt the prompt to use when asking for input, if null or zero length
+	 *               then the selectionMode prompt is used.
+	 * @return the selected entries in the order they were selected, this will be
+	 *         empty if nothing was selected
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input.
+	 */
+	public List<DirectoryEntry> chooseMultiple(String prompt) throws IOException {
+		multiSelect = true;
+		selections.clear();
+		try {
+			while (true) {
+				DirectoryFrame frame = frames.peek();
+				if (Files.isRegularFile(frame.dir)) {
+					return new ArrayList<>(
+							List.of(new DirectoryEntry(frame.dir.getFileName().toString(), Type.FILE, frame.dir)));
+				}
+				ChoiceDescriptionData<DirectoryEntry> cdd = frame.getChoices();
+				List<Future<?>> prefetches = startPrefetches(cdd);
+				List<int[]> ranges;
+				try {
+					DirectorySummaries.await(cdd);
+					ranges = TextIOUtils.getIntChoiceRanges(
+							getFramePrompt(prompt, frame) + " " + selections.size() + " selected", cdd);
+				} finally {
+					DirectoryPrefetcher.cancel(prefetches);
+					DirectorySummaries.cancelPending(cdd);
+				}
+				int choice = TextIOUtils.getSingleChoice(ranges);
+				if (choice < 0) {
+					TextIOUtils.selectChoiceRanges(cdd, ranges);
+					updateSelections(cdd);
+					continue;
+				}
+				if (cdd.isMultiChoiceComplete(choice)) {
+					return selections.values().stream().map(TextIOUtils::refreshAttributes)
+							.collect(Collectors.toCollection(ArrayList::new));
+				}
+				ChoiceDescription<DirectoryEntry> cd = cdd.getChoiceDescription(choice);
+				DirectoryEntry directoryEntry = cd.getParam();
+				if (moveToPage(frame, directoryEntry)) {
+					continue;
+				}
+				if (isNavigable(directoryEntry)) {
+					navigate(frame, directoryEntry);
+					continue;
+				}
+				cd.toggleSelected();
+				updateSelections(cdd);
+			}
+		} finally {
+			multiSelect = false;
+		}
+	}
+
+	private String getFramePrompt(String prompt, DirectoryFrame frame) {
+		String basePrompt = ((prompt == null) || (prompt.length() == 0)) ? selectionMode.getDefaultPrompt() : prompt;
+		return basePrompt + " (" + getDisplayName(frame.dir)
+				+ (frame.page == 0 ? "" : ", page " + (frame.page + 1)) + ")";
+	}
+
+	/**
+	 * for directories inside an archive just the path would be /dir, so include the
+	 * archive as well (the zip file system's name is the archive path)
+	 */
+	private static String getDisplayName(Path dir) {
+		FileSystem fileSystem = dir.getFileSystem();
+		if (fileSystem == FileSystems.getDefault()) {
+			return dir.toString();
+		}
+		return fileSystem + "!" + dir;
+	}
+
+	/**
+	 * while the user is thinking list the directories they may navigate into
+	 */
+	private List<Future<?>> startPrefetches(ChoiceDescriptionData<DirectoryEntry> cdd) {
+		if (!selectionMode.isNavigableMode()) {
+			return List.of();
+		}
+		return DirectoryPrefetcher.getInstance().prefetch(TextIOUtils.getNavigableDirectories(cdd),
+				selectionMode.getDirectoryListFilterType(), listOrderType, excludeHiddenFiles, nameMatcher,
+				matchFilesOnly);
+	}
+
+	/**
+	 * moving between pages stays in the same directory
+	 * 
+	 * @return true if the entry was a page move
+	 */
+	private boolean moveToPage(DirectoryFrame frame, DirectoryEntry directoryEntry) {
+		if (!TextIOUtils.isPageEntry(directoryEntry)) {
+			return false;
+		}
+		frames.pop();
+		if (TextIOUtils.isNextPageEntry(directoryEntry)) {
+			frames.push(new DirectoryFrame(frame, frame.getLastListedEntry()));
+		} else {
+			// the earlier page is kept, so going back doesn't need to work out where it
+			// started
+			frames.push(frame.previousPage);
+		}
+		return true;
+	}
+
+	/**
+	 * is the entry somewhere the user can go to (rather than a leaf)
+	 */
+	private boolean isNavigable(DirectoryEntry directoryEntry) {
+		return selectionMode.isNavigableMode() && (directoryEntry.getType() == Type.DIRECTORY)
+				&& !directoryEntry.getName().equals(TextIOUtils.currentDirectoryName);
+	}
+
+	/**
+	 * can the entry be chosen as a leaf when selecting multiple entries
+	 */
+	private boolean isSelectable(DirectoryEntry directoryEntry) {
+		if ((directoryEntry == null) || TextIOUtils.isPageEntry(directoryEntry)
+				|| directoryEntry.getName().equals(TextIOUtils.parentDirectoryName)) {
+			return false;
+		}
+		if (directoryEntry.getType() == Type.FILE) {
+			return true;
+		}
+		return !selectionMode.isNavigableMode() || selectionMode.isDirectoryAllowedAsLeaf();
+	}
+
+	/**
+	 * record the selection state of the choices
+	 */
+	private void updateSelections(ChoiceDescriptionData<DirectoryEntry> cdd) {
+		for (int i = 0; i < cdd.length(); i++) {
+			ChoiceDescription<DirectoryEntry> cd = cdd.getChoiceDescription(i);
+			DirectoryEntry entry = cd.getParam();
+			if (!isSelectable(entry)) {
+				continue;
+			}
+			if (cd.isSelected()) {
+				selections.putIfAbsent(entry.getPath(), entry);
+			} else {
+				selections.remove(entry.getPath());
+			}
+		}
+	}
+
+	private void navigate(DirectoryFrame frame, DirectoryEntry directoryEntry) {
+		if (directoryEntry.getName().equals(TextIOUtils.parentDirectoryName)) {
+			goUp(frame, directoryEntry.getPath());
+		} else {
+			// when we come back this will be the default
+			frame.setCursor(directoryEntry);
+			frames.push(new DirectoryFrame(directoryEntry.getPath()));
+		}
+	}
+
+	private void goUp(DirectoryFrame frame, Path parentDir) {
+		frames.pop();
+		DirectoryFrame parentFrame = frames.peek();
+		if ((parentFrame != null) && parentFrame.dir.equals(parentDir)) {
+			// we've been here before, so the frame is already set up
+			return;
+		}
+		// going up past where we started, there is nothing to go back to so this is
+		// the new start
+		frames.clear();
+		parentFrame = new DirectoryFrame(parentDir);
+		frames.push(parentFrame);
+		// we can at least put the cursor on where we came from once it's built
+		parentFrame.cursorPath = frame.dir;
+	}
+
+	/**
+	 * a visited directory, the choices are kept so they can be re-displayed
+	 */
+	private class DirectoryFrame {
+		private final Path dir;
+		private final int page;
+		// pages after the first start after the last entry of the page before, and
+		// keep that page to go back to
+		private final DirectoryEntry pageAfter;
+		private final DirectoryFrame previousPage;
+		private ChoiceDescriptionData<DirectoryEntry> choices;
+		// used to tell if the choices are out of date
+		private FileTime modifiedTime;
+		// if set the entry with this path is made the default when the choices are
+		// built
+		private Path cursorPath;
+		private boolean builtForMultiSelect;
+
+		private DirectoryFrame(Path dir) {
+			this.dir = dir;
+			this.page = 0;
+			this.pageAfter = null;
+			this.previousPage = null;
+		}
+
+		private DirectoryFrame(DirectoryFrame previousPage, DirectoryEntry pageAfter) {
+			this.dir = previousPage.dir;
+			this.page = previousPage.page + 1;
+			this.pageAfter = pageAfter;
+			this.previousPage = previousPage;
+		}
+
+		/**
+		 * @return the last entry from the directory on this page, i.e. not the page
+		 *         moves, . or ..
+		 */
+		private DirectoryEntry getLastListedEntry() {
+			DirectoryEntry last = pageAfter;
+			for (int i = 0; i < choices.length(); i++) {
+				DirectoryEntry entry = choices.getParam(i);
+				if ((entry != null) && !TextIOUtils.isPageEntry(entry)
+						&& !entry.getName().equals(TextIOUtils.currentDirectoryName)
+						&& !entry.getName().equals(TextIOUtils.parentDirectoryName)) {
+					last = entry;
+				}
+			}
+			return last;
+		}
+
+		private ChoiceDescriptionData<DirectoryEntry> getChoices() {
+			FileTime currentModifiedTime = getModifiedTime();
+			// the time and size orders can change without the directory changing, so
+			// those are always rebuilt
+			if ((choices != null) && (modifiedTime != null) && modifiedTime.equals(currentModifiedTime)
+					&& (builtForMultiSelect == multiSelect) && !listOrderType.isAttributeOrder()) {
+				if (multiSelect) {
+					// something in here may have been selected (or unselected) from elsewhere,
+					// e.g. via . in the directory itself
+					markSelections();
+				}
+				return choices;
+			}
+			if (choices != null) {
+				// keep the cursor where it was if the entry is still there
+				DirectoryEntry previousDefault = choices.getDefaultOption() == null ? null
+						: choices.getDefaultOption().getParam();
+				if ((previousDefault != null) && (previousDefault.getPath() != null)) {
+					cursorPath = previousDefault.getPath();
+				}
+			}
+			modifiedTime = currentModifiedTime;
+			builtForMultiSelect = multiSelect;
+			String abandonText = multiSelect ? ChoiceDescriptionData.MULTI_CHOICE_FINISHED_TEXT
+					: (addAbandon ? "Cancel" : null);
+			choices = TextIOUtils.buildDirectoryChoices(dir, selectionMode, listOrderType, excludeHiddenFiles,
+					nameMatcher, matchFilesOnly, nameAndType, abandonText, page, pageAfter);
+			if (multiSelect) {
+				for (int i = 0; i < choices.length(); i++) {
+					ChoiceDescription<DirectoryEntry> cd = choices.getChoiceDescription(i);
+					if (!choices.isMultiChoiceComplete(i) && !isSelectable(cd.getParam())) {
+						cd.setNotSelectable();
+					}
+				}
+				markSelections();
+			}
+			if (cursorPath != null) {
+				for (int i = 0; i < choices.length(); i++) {
+					DirectoryEntry entry = choices.getParam(i);
+					if ((entry != null) && cursorPath.equals(entry.getPath())) {
+						setCursor(entry);
+						break;
+					}
+				}
+				cursorPath = null;
+			}
+			return choices;
+		}
+
+		private void setCursor(DirectoryEntry entry) {
+			// when selecting multiple entries the default stays as finished
+			if (!builtForMultiSelect) {
+				choices.setDefaultByParam(entry);
+			}
+		}
+
+		private void markSelections() {
+			for (int i = 0; i < choices.length(); i++) {
+				ChoiceDescription<DirectoryEntry> cd = choices.getChoiceDescription(i);
+				DirectoryEntry entry = cd.getParam();
+				if (isSelectable(entry)) {
+					cd.setSelected(selections.containsKey(entry.getPath()));
+				}
+			}
+		}
+
+		private FileTime getModifiedTime() {
+			try {
+				return Files.getLastModifiedTime(dir);
+			} catch (IOException | ClosedFileSystemException e) {
+				// an archive that has been closed counts as changed
+				return null;
+			}
+		}
+	}
+}
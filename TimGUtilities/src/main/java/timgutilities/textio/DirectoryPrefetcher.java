@@ -0,0 +1,189 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * While the directory chooser is waiting for the user to make a choice the
+ * program is just sitting there, this uses that time to list the sub
+ * directories that are being displayed so if one of them is chosen the listing
+ * is already in the DirectoryListingCache. On slow file systems (e.g. network
+ * mounts) this hides most of the delay when navigating down.
+ * 
+ * The number of directories listed at the same time and the total number of
+ * entries kept for each prompt are limited so a directory with lots of big sub
+ * directories doesn't swamp the file system or the cache.
+ */
+final class DirectoryPrefetcher {
+	private static final int DEFAULT_MAX_CONCURRENT_PREFETCHES = 4;
+	private static final int DEFAULT_MAX_PREFETCHED_ENTRIES = 10000;
+	// the threads hang around for a bit after the last prefetch in case the user
+	// makes another choice
+	private static final long IDLE_THREAD_TIMEOUT_SECONDS = 30;
+	private static final DirectoryPrefetcher INSTANCE = new DirectoryPrefetcher();
+
+	private final ThreadPoolExecutor executor;
+	private int maxPrefetchedEntries = DEFAULT_MAX_PREFETCHED_ENTRIES;
+
+	private DirectoryPrefetcher() {
+		executor = new ThreadPoolExecutor(DEFAULT_MAX_CONCURRENT_PREFETCHES, DEFAULT_MAX_CONCURRENT_PREFETCHES,
+				IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				new DaemonThreadFactory("TextIOUtils-directory-prefetch"));
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * get the prefetcher shared by the choosers
+	 * 
+	 * @return the prefetcher
+	 */
+	static DirectoryPrefetcher getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * set the limits on prefetching, if either is zero prefetching is disabled
+	 * 
+	 * @param maxConcurrentPrefetches how many directories can be listed at the same
+	 *                                time
+	 * @param maxPrefetchedEntries    the maximum number of entries that will be
+	 *                                prefetched each time the user is asked to
+	 *                                choose
+	 */
+	synchronized void setLimits(int maxConcurrentPrefetches, int maxPrefetchedEntries) {
+		if ((maxConcurrentPrefetches < 0) || (maxPrefetchedEntries < 0)) {
+			throw new IllegalArgumentException("The prefetch limits cannot be negative");
+		}
+		if (maxConcurrentPrefetches > 0) {
+			// the order matters here as the core size can't be more than the max size
+			if (maxConcurrentPrefetches > executor.getMaximumPoolSize()) {
+				executor.setMaximumPoolSize(maxConcurrentPrefetches);
+				executor.setCorePoolSize(maxConcurrentPrefetches);
+			} else {
+				executor.setCorePoolSize(maxConcurrentPrefetches);
+				executor.setMaximumPoolSize(maxConcurrentPrefetches);
+			}
+		}
+		this.maxPrefetchedEntries = maxConcurrentPrefetches == 0 ? 0 : maxPrefetchedEntries;
+	}
+
+	/**
+	 * gets the maximum number of directories that will be listed at the same time
+	 * 
+	 * @return the max concurrent prefetches, 0 if prefetching is disabled
+	 */
+	synchronized int getMaxConcurrentPrefetches() {
+		return maxPrefetchedEntries == 0 ? 0 : executor.getMaximumPoolSize();
+	}
+
+	/**
+	 * gets the maximum number of entries that will be prefetched for each prompt
+	 * 
+	 * @return the max prefetched entries, 0 if prefetching is disabled
+	 */
+	synchronized int getMaxPrefetchedEntries() {
+		return maxPrefetchedEntries;
+	}
+
+	/**
+	 * Start listing the directories in the background, the results go into the
+	 * listing cache. The caller should cancel the returned futures when the
+	 * listings are no longer wanted (see cancel) so any that haven't started yet
+	 * don't waste time
+	 * 
+	 * @param dirs               directories to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true hidden entries are removed from the list
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @return the prefetches that have been started
+	 */
+	List<Future<?>> prefetch(Collection<Path> dirs, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly) {
+		int entriesBudget = getMaxPrefetchedEntries();
+		DirectoryListingCache cache = DirectoryListingCache.getInstance();
+		if ((entriesBudget == 0) || (cache.getMaxListings() == 0) || dirs.isEmpty()) {
+			return List.of();
+		}
+		// only fetch as many as the cache can actually hold, otherwise the later
+		// prefetches would just push the earlier ones out
+		int maxDirs = Math.min(dirs.size(), cache.getMaxListings() / 2);
+		AtomicInteger remainingEntries = new AtomicInteger(entriesBudget);
+		List<Future<?>> prefetches = new ArrayList<>(maxDirs);
+		for (Path dir : dirs) {
+			if (prefetches.size() >= maxDirs) {
+				break;
+			}
+			prefetches.add(executor.submit(() -> {
+				if (remainingEntries.get() <= 0) {
+					return;
+				}
+				// the budget is used up as the entries are read, so a huge directory stops
+				// being listed as soon as it has used what's left
+				cache.preload(dir, listFilterType, listOrderType, excludeHiddenFiles, nameMatcher, matchFilesOnly,
+						remainingEntries);
+			}));
+		}
+		return prefetches;
+	}
+
+	/**
+	 * cancel any of the prefetches that haven't started yet, ones that are running
+	 * are left to finish so their listing ends up in the cache
+	 * 
+	 * @param prefetches the prefetches to cancel
+	 */
+	static void cancel(List<Future<?>> prefetches) {
+		prefetches.forEach(prefetch -> prefetch.cancel(false));
+		// get the cancelled ones out of the queue now rather than when they get to the
+		// front
+		INSTANCE.executor.purge();
+	}
+}
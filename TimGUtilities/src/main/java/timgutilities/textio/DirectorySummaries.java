@@ -0,0 +1,398 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Works out the summaries (number of entries and optionally the size of the
+ * tree under it) for the sub directories shown by the directory choosers. The
+ * work is done on a small pool of background threads so a slow or huge sub
+ * directory never holds up the menu, the choice just shows the summary once it's
+ * there.
+ * 
+ * The summaries are kept (up to a limit) so going back to a directory doesn't
+ * mean counting everything again, they are redone in the background once they
+ * are more than a little while old, the old summary is shown until the new one
+ * is ready.
+ */
+final class DirectorySummaries {
+	private static final int DEFAULT_MAX_CONCURRENT_SUMMARIES = 2;
+	private static final long DEFAULT_WAIT_MILLIS = 100;
+	private static final int MAX_CACHED_SUMMARIES = 4096;
+	// how old a summary can be before it's worked out again
+	private static final long REFRESH_AFTER_MILLIS = 30000;
+	private static final long IDLE_THREAD_TIMEOUT_SECONDS = 30;
+	private static final DirectorySummaries INSTANCE = new DirectorySummaries();
+
+	private final ThreadPoolExecutor executor;
+	private long waitMillis = DEFAULT_WAIT_MILLIS;
+	// the counts differ depending on if hidden entries are included, so keep them
+	// separately
+	private final Map<Path, Summary> visibleSummaries = new SummaryCache();
+	private final Map<Path, Summary> allSummaries = new SummaryCache();
+
+	private DirectorySummaries() {
+		executor = new ThreadPoolExecutor(DEFAULT_MAX_CONCURRENT_SUMMARIES, DEFAULT_MAX_CONCURRENT_SUMMARIES,
+				IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				new DaemonThreadFactory("TextIOUtils-directory-summary"));
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * get the summaries shared by the choosers
+	 * 
+	 * @return the summaries
+	 */
+	static DirectorySummaries getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * set how many directories can be summarised at the same time
+	 * 
+	 * @param maxConcurrentSummaries the number of background threads, must be
+	 *                               &gt; 0
+	 */
+	synchronized void setMaxConcurrentSummaries(int maxConcurrentSummaries) {
+		if (maxConcurrentSummaries <= 0) {
+			throw new IllegalArgumentException("The number of concurrent directory summaries must be at least 1");
+		}
+		// the order matters here as the core size can't be more than the max size
+		if (maxConcurrentSummaries > executor.getMaximumPoolSize()) {
+			executor.setMaximumPoolSize(maxConcurrentSummaries);
+			executor.setCorePoolSize(maxConcurrentSummaries);
+		} else {
+			executor.setCorePoolSize(maxConcurrentSummaries);
+			executor.setMaximumPoolSize(maxConcurrentSummaries);
+		}
+	}
+
+	synchronized int getMaxConcurrentSummaries() {
+		return executor.getMaximumPoolSize();
+	}
+
+	/**
+	 * set how long the choosers will wait for the summaries before showing the
+	 * menu anyway
+	 * 
+	 * @param waitMillis the longest wait, 0 to never wait
+	 */
+	synchronized void setWaitMillis(long waitMillis) {
+		if (waitMillis < 0) {
+			throw new IllegalArgumentException("The directory summary wait cannot be negative");
+		}
+		this.waitMillis = waitMillis;
+	}
+
+	synchronized long getWaitMillis() {
+		return waitMillis;
+	}
+
+	/**
+	 * get the summary for the directory, if it's not been worked out (or it's out
+	 * of date) then that is started in the background, this never waits for it
+	 * 
+	 * @param dir                the directory
+	 * @param summaryType        what is wanted
+	 * @param excludeHiddenFiles if true hidden entries are not counted
+	 * @return the summary, the values in it may not be known yet
+	 */
+	synchronized Summary request(Path dir, DirectorySummaryType summaryType, boolean excludeHiddenFiles) {
+		Map<Path, Summary> summaries = excludeHiddenFiles ? visibleSummaries : allSummaries;
+		Summary summary = summaries.computeIfAbsent(dir, key -> new Summary(key, excludeHiddenFiles));
+		refresh(summary, summaryType);
+		return summary;
+	}
+
+	/**
+	 * if the summary is out of date or doesn't have what is wanted then start
+	 * working it out again in the background
+	 * 
+	 * @param summary     the summary
+	 * @param summaryType what is wanted
+	 */
+	synchronized void refresh(Summary summary, DirectorySummaryType summaryType) {
+		if (summaryType.isIncludeSubtreeSize()) {
+			summary.subtreeSizeWanted = true;
+		}
+		if ((summary.pending != null) && !summary.pending.isDone()) {
+			return;
+		}
+		boolean stale = (summary.computedAt == 0)
+				|| (System.currentTimeMillis() - summary.computedAt > REFRESH_AFTER_MILLIS);
+		boolean missingSize = summary.subtreeSizeWanted && (summary.subtreeSize == DirectoryEntry.UNKNOWN);
+		if (stale || missingSize) {
+			summary.pending = executor.submit(summary::compute);
+		}
+	}
+
+	/**
+	 * wait (up to the configured time) for any summaries in the choices that are
+	 * being worked out, that way on a quick file system the menu is shown with
+	 * them first time
+	 * 
+	 * @param cdd the choices
+	 */
+	static void await(ChoiceDescriptionData<DirectoryEntry> cdd) {
+		long wait = INSTANCE.getWaitMillis();
+		if (wait == 0) {
+			return;
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(wait);
+		for (int i = 0; i < cdd.length(); i++) {
+			Future<?> pending = getPending(cdd.getChoiceDescription(i));
+			if (pending == null) {
+				continue;
+			}
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				return;
+			}
+			try {
+				pending.get(remaining, TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException | CancellationException e) {
+				// nothing to show for this one, carry on with the others
+			}
+		}
+	}
+
+	/**
+	 * cancel the summaries for the choices, once the user has moved on there is no
+	 * point in carrying on counting or walking a big tree for a menu that isn't
+	 * shown any more, so the ones that are running are interrupted as well (they
+	 * will be started again if the directory is shown again)
+	 * 
+	 * @param cdd the choices
+	 */
+	static void cancelPending(ChoiceDescriptionData<DirectoryEntry> cdd) {
+		boolean cancelled = false;
+		for (int i = 0; i < cdd.length(); i++) {
+			Future<?> pending = getPending(cdd.getChoiceDescription(i));
+			if (pending != null) {
+				cancelled |= pending.cancel(true);
+			}
+		}
+		if (cancelled) {
+			INSTANCE.executor.purge();
+		}
+	}
+
+	private static Future<?> getPending(ChoiceDescription<DirectoryEntry> cd) {
+		if (!(cd instanceof DirectoryChoiceDescription)) {
+			return null;
+		}
+		Summary summary = ((DirectoryChoiceDescription) cd).getSummary();
+		synchronized (INSTANCE) {
+			return summary.pending;
+		}
+	}
+
+	/**
+	 * format a size in bytes for display, e.g. 3.4 MB
+	 * 
+	 * @param bytes the size
+	 * @return the size as text
+	 */
+	static String formatSize(long bytes) {
+		if (bytes < 1024) {
+			return bytes + " B";
+		}
+		String[] units = { "KB", "MB", "GB", "TB", "PB", "EB" };
+		double size = bytes;
+		int unit = -1;
+		while ((size >= 1024) && (unit < units.length - 1)) {
+			size = size / 1024;
+			unit++;
+		}
+		return String.format("%.1f %s", size, units[unit]);
+	}
+
+	/**
+	 * what is known about a directory, the values are UNKNOWN until they have been
+	 * worked out
+	 */
+	static final class Summary {
+		private final Path dir;
+		private final boolean excludeHiddenFiles;
+		private volatile long childCount = DirectoryEntry.UNKNOWN;
+		private volatile long subtreeSize = DirectoryEntry.UNKNOWN;
+		// these are all guarded by the DirectorySummaries instance
+		private long computedAt = 0;
+		private boolean subtreeSizeWanted = false;
+		private Future<?> pending;
+
+		private Summary(Path dir, boolean excludeHiddenFiles) {
+			this.dir = dir;
+			this.excludeHiddenFiles = excludeHiddenFiles;
+		}
+
+		/**
+		 * get the text to add to the choice, e.g. " [12 entries, 3.4 MB]", this is
+		 * empty if nothing is known yet
+		 * 
+		 * @param summaryType what to include
+		 * @return the text
+		 */
+		String getText(DirectorySummaryType summaryType) {
+			long count = childCount;
+			if (!summaryType.isIncludeChildCount() || (count == DirectoryEntry.UNKNOWN)) {
+				return "";
+			}
+			String text = " [" + count + (count == 1 ? " entry" : " entries");
+			long size = subtreeSize;
+			if (summaryType.isIncludeSubtreeSize() && (size != DirectoryEntry.UNKNOWN)) {
+				text = text + ", " + formatSize(size);
+			}
+			return text + "]";
+		}
+
+		private void compute() {
+			boolean wantSize;
+			synchronized (INSTANCE) {
+				wantSize = subtreeSizeWanted;
+			}
+			long count = countChildren();
+			long size = wantSize ? sizeTree() : DirectoryEntry.UNKNOWN;
+			if (Thread.currentThread().isInterrupted()) {
+				// cancelled part way through, what was worked out so far isn't right so
+				// keep what was there before and leave computedAt so it's done again
+				return;
+			}
+			childCount = count;
+			if (wantSize) {
+				subtreeSize = size;
+			}
+			synchronized (INSTANCE) {
+				computedAt = System.currentTimeMillis();
+			}
+		}
+
+		private long countChildren() {
+			long count = 0;
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+				for (Path p : stream) {
+					if (Thread.currentThread().isInterrupted()) {
+						return DirectoryEntry.UNKNOWN;
+					}
+					if (!excludeHiddenFiles || !Files.isHidden(p)) {
+						count++;
+					}
+				}
+			} catch (IOException | RuntimeException e) {
+				// can't read it, so there is nothing to show
+				return DirectoryEntry.UNKNOWN;
+			}
+			return count;
+		}
+
+		/**
+		 * add up the sizes of all the files under the directory, like du links are not
+		 * followed. If the summary is cancelled the walk stops at the next directory or
+		 * file
+		 */
+		private long sizeTree() {
+			long[] total = { 0 };
+			try {
+				Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) {
+						return carryOn();
+					}
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+						if (attrs.isRegularFile()) {
+							total[0] += attrs.size();
+						}
+						return carryOn();
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(Path file, IOException e) {
+						// skip anything that can't be read
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			} catch (IOException | RuntimeException e) {
+				return DirectoryEntry.UNKNOWN;
+			}
+			return Thread.currentThread().isInterrupted() ? DirectoryEntry.UNKNOWN : total[0];
+		}
+
+		private static FileVisitResult carryOn() {
+			return Thread.currentThread().isInterrupted() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+		}
+	}
+
+	/**
+	 * access ordered so the least recently used summary is dropped when there are
+	 * too many
+	 */
+	private static final class SummaryCache extends LinkedHashMap<Path, Summary> {
+		private static final long serialVersionUID = 1L;
+
+		private SummaryCache() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, Summary> eldest) {
+			return size() > MAX_CACHED_SUMMARIES;
+		}
+	}
+}
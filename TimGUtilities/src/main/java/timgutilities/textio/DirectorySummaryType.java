@@ -0,0 +1,79 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+/**
+ * What the directory choosers show about the contents of each sub directory,
+ * this is worked out in the background and shown once it's available so it
+ * never holds up the menu.
+ * 
+ * @see TextIOUtils#setDirectoryChooserSummaryType(DirectorySummaryType)
+ */
+public enum DirectorySummaryType {
+	/**
+	 * Nothing is shown, this is the default
+	 */
+	NONE(false, false),
+	/**
+	 * The number of entries in the sub directory is shown, e.g. logs(Dir) [12
+	 * entries]
+	 */
+	CHILD_COUNT(true, false),
+	/**
+	 * The number of entries and the total size of all the files under the sub
+	 * directory are shown, e.g. logs(Dir) [12 entries, 3.4 MB]. Working out the
+	 * size means walking the whole tree under the sub directory, so this can take
+	 * a while for big trees.
+	 */
+	CHILD_COUNT_AND_SUBTREE_SIZE(true, true);
+
+	DirectorySummaryType(boolean includeChildCount, boolean includeSubtreeSize) {
+		this.includeChildCount = includeChildCount;
+		this.includeSubtreeSize = includeSubtreeSize;
+	}
+
+	private final boolean includeChildCount;
+	private final boolean includeSubtreeSize;
+
+	protected boolean isIncludeChildCount() {
+		return includeChildCount;
+	}
+
+	protected boolean isIncludeSubtreeSize() {
+		return includeSubtreeSize;
+	}
+}
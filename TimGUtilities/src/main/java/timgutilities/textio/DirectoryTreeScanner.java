@@ -0,0 +1,292 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import timgutilities.textio.DirectoryEntry.Type;
+
+/**
+ * Walks a directory tree looking for matching entries, each directory is
+ * scanned as a separate fork join task so the sub directories are processed in
+ * parallel and idle threads steal work from busy ones. Matches are passed back
+ * through a queue as they are found, so the caller can start working on them
+ * (or give up) before the whole tree has been scanned.
+ * 
+ * Symbolic links are followed, but each directory is only scanned once (based
+ * on its file key, or if the file system doesn't have those its real path) so
+ * links that point back up the tree, or several links to the same place, don't
+ * cause loops or duplicates.
+ */
+final class DirectoryTreeScanner {
+	// the walk is mostly waiting on the file system, so there's no real harm in
+	// having more threads than cpus
+	private static final int SCAN_PARALLELISM = Math.max(4, Runtime.getRuntime().availableProcessors());
+	// if the consumer isn't keeping up the scanners wait rather than filling memory
+	private static final int MAX_QUEUED_MATCHES = 1024;
+	private static final long QUEUE_WAIT_MILLIS = 100;
+	// marks the end of the results in the queue, compared by identity
+	private static final DirectoryEntry END_OF_SCAN = new DirectoryEntry("", Type.DIRECTORY, null);
+	// stops the scan if the caller drops the stream without closing it, otherwise
+	// the scanners would wait on the full queue for ever
+	private static final Cleaner ABANDONED_SCANS = Cleaner
+			.create(new DaemonThreadFactory("TextIOUtils-abandoned-scans"));
+
+	private final Path root;
+	private final DirectoryListFilterType listFilterType;
+	private final boolean excludeHiddenFiles;
+	private final NameMatcher nameMatcher;
+	private final int maxDepth;
+	private final boolean dosAttributes;
+	private final Set<Object> visitedDirectories = ConcurrentHashMap.newKeySet();
+	private final BlockingQueue<DirectoryEntry> matches = new LinkedBlockingQueue<>(MAX_QUEUED_MATCHES);
+	private volatile boolean closed = false;
+
+	private DirectoryTreeScanner(Path root, DirectoryListFilterType listFilterType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, int maxDepth) {
+		this.root = root;
+		this.listFilterType = listFilterType;
+		this.excludeHiddenFiles = excludeHiddenFiles;
+		this.nameMatcher = nameMatcher;
+		this.maxDepth = maxDepth;
+		this.dosAttributes = TextIOUtils.isUsingDosAttributes(root);
+	}
+
+	/**
+	 * Start scanning the tree, the returned stream will deliver the matches as they
+	 * are found (so in no particular order). Closing the stream stops the scan, if
+	 * the stream is dropped without being closed the scan is stopped once the
+	 * stream has been garbage collected.
+	 * 
+	 * @param root               where to start, the root itself is not a candidate
+	 *                           match
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param excludeHiddenFiles if true hidden entries are not returned and hidden
+	 *                           directories are not searched
+	 * @param nameMatcher        if provided only entries whose name it matches are
+	 *                           returned, it doesn't stop directories being searched
+	 * @param maxDepth           how many levels below the root to search, 1 is just
+	 *                           the contents of the root
+	 * @return the stream of matching entries
+	 */
+	static Stream<DirectoryEntry> scan(Path root, DirectoryListFilterType listFilterType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, int maxDepth) {
+		DirectoryTreeScanner scanner = new DirectoryTreeScanner(root, listFilterType, excludeHiddenFiles,
+				nameMatcher, maxDepth);
+		return scanner.start(root);
+	}
+
+	private Stream<DirectoryEntry> start(Path root) {
+		BasicFileAttributes rootAttributes = TextIOUtils.readListingAttributes(root, false, dosAttributes);
+		if ((rootAttributes == null) || !rootAttributes.isDirectory()) {
+			throw new IllegalArgumentException(
+					"Provided root " + root.toString() + " is not a directory, cannot search it");
+		}
+		visitedDirectories.add(getDirectoryKey(root, rootAttributes));
+		// each scan has its own pool, while the consumer isn't reading all of the
+		// scan's threads are waiting on the queue, in a shared pool that would hold up
+		// everything else using it (including other scans) until the stream is closed
+		ForkJoinPool scanPool = new ForkJoinPool(SCAN_PARALLELISM);
+		scanPool.execute(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				try {
+					if (maxDepth > 0) {
+						new ScanTask(root, 1).invoke();
+					}
+				} finally {
+					publish(END_OF_SCAN);
+					// all of the scan tasks are done, so the threads can go
+					scanPool.shutdown();
+				}
+			}
+		});
+		Iterator<DirectoryEntry> iterator = new Iterator<>() {
+			private DirectoryEntry next;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null) {
+					try {
+						next = matches.take();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						close();
+						next = END_OF_SCAN;
+					}
+				}
+				return next != END_OF_SCAN;
+			}
+
+			@Override
+			public DirectoryEntry next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				DirectoryEntry result = next;
+				next = null;
+				return result;
+			}
+		};
+		// the close action only refers to the scanner, never to the iterator, so it
+		// doesn't stop the iterator becoming unreachable
+		ABANDONED_SCANS.register(iterator, this::close);
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL | Spliterator.DISTINCT),
+						false)
+				.onClose(this::close);
+	}
+
+	private void close() {
+		closed = true;
+		// nothing is going to read these now
+		matches.clear();
+	}
+
+	/**
+	 * put the entry in the queue for the consumer, waiting if it's full
+	 * 
+	 * @return false if the scan has been closed so the entry wasn't published
+	 */
+	private boolean publish(DirectoryEntry entry) {
+		try {
+			while (!closed) {
+				if (matches.offer(entry, QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+					return true;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return false;
+	}
+
+	private static Object getDirectoryKey(Path dir, BasicFileAttributes attributes) {
+		Object fileKey = attributes.fileKey();
+		if (fileKey != null) {
+			return fileKey;
+		}
+		try {
+			return dir.toRealPath();
+		} catch (IOException e) {
+			return dir.toAbsolutePath().normalize();
+		}
+	}
+
+	private boolean isMatch(Path p, Type type) {
+		boolean wantedType = type == Type.DIRECTORY ? listFilterType.isIncludeDirectories()
+				: listFilterType.isIncludeFiles();
+		return wantedType && ((nameMatcher == null) || nameMatcher.matches(p.getFileName().toString()));
+	}
+
+	/**
+	 * scans a single directory, any sub directories get their own task
+	 */
+	private class ScanTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final transient Path dir;
+		// the depth of the entries in this directory
+		private final int depth;
+
+		private ScanTask(Path dir, int depth) {
+			this.dir = dir;
+			this.depth = depth;
+		}
+
+		@Override
+		protected void compute() {
+			List<ScanTask> subTasks = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+				for (Path p : stream) {
+					if (closed) {
+						return;
+					}
+					BasicFileAttributes attributes = TextIOUtils.readListingAttributes(p, excludeHiddenFiles,
+							dosAttributes);
+					if (attributes == null) {
+						continue;
+					}
+					String name = p.getFileName().toString();
+					if (attributes.isDirectory()) {
+						if (isMatch(p, Type.DIRECTORY) && !publish(
+								TextIOUtils.buildDirectoryEntry(name, Type.DIRECTORY, p, attributes, root))) {
+							return;
+						}
+						// only go into directories we haven't already seen
+						if ((depth < maxDepth) && visitedDirectories.add(getDirectoryKey(p, attributes))) {
+							ScanTask subTask = new ScanTask(p, depth + 1);
+							subTask.fork();
+							subTasks.add(subTask);
+						}
+					} else if (attributes.isRegularFile() && isMatch(p, Type.FILE)
+							&& !publish(TextIOUtils.buildDirectoryEntry(name, Type.FILE, p, attributes, root))) {
+						return;
+					}
+				}
+			} catch (IOException | DirectoryIteratorException e) {
+				// can't read this directory (e.g. permissions), like find just carry on with
+				// the rest of the tree
+			} finally {
+				subTasks.forEach(ForkJoinTask::join);
+			}
+		}
+	}
+}
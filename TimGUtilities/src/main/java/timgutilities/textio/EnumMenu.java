@@ -0,0 +1,137 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+/**
+ * The choices for an enum, worked out once per enum class and then kept for as
+ * long as the class is (a ClassValue is used so the cache doesn't stop the
+ * class being unloaded). The constants and their option text are held in
+ * ordinal order, so finding the choice for a constant is just an array lookup
+ * and there's no reflection after the first use.
+ * 
+ * The locked menu is shared, so it must only be used as is or cloned (e.g. to
+ * set a default), the multi choice selections are held in the choice
+ * descriptions so anything that selects needs a menu from newMenu.
+ */
+final class EnumMenu<T extends Enum<T>> {
+	private static final ClassValue<EnumMenu<?>> MENUS = new ClassValue<>() {
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		@Override
+		protected EnumMenu<?> computeValue(Class<?> type) {
+			// a constant with a body has its own (anonymous) class, the constants are on
+			// the enum class itself
+			Class<?> enumClass = type.isEnum() ? type : type.getSuperclass();
+			return new EnumMenu(enumClass.asSubclass(Enum.class));
+		}
+	};
+
+	private final T[] constants;
+	private final String[] options;
+	private final ChoiceDescriptionData<Enum<T>> lockedMenu;
+
+	private EnumMenu(Class<T> enumClass) {
+		constants = enumClass.getEnumConstants();
+		options = new String[constants.length];
+		for (int i = 0; i < constants.length; i++) {
+			options[i] = constants[i].toString();
+		}
+		lockedMenu = newMenu();
+		lockedMenu.completeAndLock();
+	}
+
+	/**
+	 * get the menu for the enum class, building it if this is the first time
+	 * 
+	 * @param enumClass the enum, or the class of one of its constants
+	 * @return the menu
+	 */
+	@SuppressWarnings("unchecked")
+	static <T extends Enum<T>> EnumMenu<T> of(Class<? extends Enum<T>> enumClass) {
+		return (EnumMenu<T>) MENUS.get(enumClass);
+	}
+
+	/**
+	 * make sure the menu for the enum class has been built
+	 * 
+	 * @param enumClass the enum
+	 */
+	static void warmUp(Class<? extends Enum<?>> enumClass) {
+		MENUS.get(enumClass);
+	}
+
+	/**
+	 * build a new unlocked menu with the constants in ordinal order, this has its
+	 * own choice descriptions so can be changed and used for multi choice
+	 * 
+	 * @return the new menu
+	 */
+	ChoiceDescriptionData<Enum<T>> newMenu() {
+		ChoiceDescriptionData<Enum<T>> cdd = new ChoiceDescriptionData<>();
+		for (int i = 0; i < constants.length; i++) {
+			cdd.addChoiceDescription(new ChoiceDescription<>(options[i], constants[i]));
+		}
+		return cdd;
+	}
+
+	/**
+	 * get the shared locked menu, the option for each constant is at its ordinal
+	 * 
+	 * @return the menu
+	 */
+	ChoiceDescriptionData<Enum<T>> getLockedMenu() {
+		return lockedMenu;
+	}
+
+	/**
+	 * get the constant with the ordinal
+	 * 
+	 * @param ordinal the ordinal
+	 * @return the constant
+	 */
+	T get(int ordinal) {
+		return constants[ordinal];
+	}
+
+	/**
+	 * how many constants the enum has
+	 * 
+	 * @return the number of constants
+	 */
+	int size() {
+		return constants.length;
+	}
+}
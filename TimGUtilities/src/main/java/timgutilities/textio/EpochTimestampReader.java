@@ -0,0 +1,278 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads lines of ISO date times (as accepted by ISODateTimeParser, e.g.
+ * 2026-10-16T14:30:05.123, 2026-10-16T14:30Z or
+ * 2026-10-16T14:30+01:00[Europe/London], or just a date for the start of that
+ * day) into a long[] of time since the epoch.
+ * 
+ * This is meant for big lists so the work per line is kept down, the epoch
+ * seconds are worked out directly from the parsed fields and the zone offset is
+ * kept along with the period it's good for (between the zones transitions) so
+ * the zone rules only need to be checked again when a time falls outside that.
+ * Nothing is created per line except the line itself.
+ */
+final class EpochTimestampReader {
+	static final int MAX_ERRORS_KEPT = 100;
+	private static final long SECONDS_PER_DAY = 86400;
+	// days from 0000-01-01 to 1970-01-01
+	private static final long DAYS_0000_TO_1970 = 719528;
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private final ZoneId zone;
+	private final TimeUnit unit;
+	private final long unitsPerSecond;
+	private final long nanosPerUnit;
+	private final long minSecond;
+	private final int minNano;
+	private final long maxSecond;
+	private final int maxNano;
+	private final ISODateTimeParser parser = new ISODateTimeParser();
+	private final OffsetCache zoneOffsets;
+	// for lines that give a zone name
+	private final Map<String, OffsetCache> namedZoneOffsets = new HashMap<>();
+	private long[] values = new long[INITIAL_CAPACITY];
+	private int size = 0;
+	private int lineCount = 0;
+	private int errorCount = 0;
+	private final List<String> errors = new ArrayList<>();
+
+	/**
+	 * @param zone the zone for times without an offset or zone name
+	 * @param unit what the values are to be in, must be SECONDS or smaller
+	 * @param min  if not null the times must be at or after this
+	 * @param max  if not null the times must be at or before this
+	 */
+	EpochTimestampReader(ZoneId zone, TimeUnit unit, Instant min, Instant max) {
+		if ((zone == null) || (unit == null)) {
+			throw new IllegalArgumentException("The zone and unit must be provided");
+		}
+		if (unit.compareTo(TimeUnit.SECONDS) > 0) {
+			throw new IllegalArgumentException("The unit must be SECONDS or smaller, not " + unit);
+		}
+		if ((min != null) && (max != null) && min.isAfter(max)) {
+			throw new IllegalArgumentException("Min " + min + " is after max " + max);
+		}
+		this.zone = zone;
+		this.unit = unit;
+		this.unitsPerSecond = unit.convert(1, TimeUnit.SECONDS);
+		this.nanosPerUnit = unit.toNanos(1);
+		Instant from = min == null ? Instant.MIN : min;
+		Instant to = max == null ? Instant.MAX : max;
+		this.minSecond = from.getEpochSecond();
+		this.minNano = from.getNano();
+		this.maxSecond = to.getEpochSecond();
+		this.maxNano = to.getNano();
+		this.zoneOffsets = new OffsetCache(zone.getRules());
+	}
+
+	/**
+	 * read the lines, blank lines are skipped
+	 * 
+	 * @param reader         where to read from
+	 * @param stopAtBlankLine if true a blank line ends the list (e.g. when the
+	 *                        user is typing or pasting them in)
+	 * @return the timestamps
+	 * @throws IOException if there is a problem reading
+	 */
+	EpochTimestamps read(BufferedReader reader, boolean stopAtBlankLine) throws IOException {
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lineCount++;
+			if (line.isBlank()) {
+				if (stopAtBlankLine) {
+					break;
+				}
+				continue;
+			}
+			String problem = add(line);
+			if (problem != null) {
+				errorCount++;
+				if (errors.size() < MAX_ERRORS_KEPT) {
+					errors.add("Line " + lineCount + ": " + problem);
+				}
+			}
+		}
+		return new EpochTimestamps(Arrays.copyOf(values, size), unit, lineCount, errorCount, errors);
+	}
+
+	/**
+	 * @return null if the line was added, otherwise what was wrong with it
+	 */
+	private String add(String line) {
+		if (!parser.parseDateTime(line)) {
+			return line.strip() + " isn't a date time, " + parser.getError();
+		}
+		if (!parser.isDateComplete()) {
+			return line.strip() + " isn't a complete date";
+		}
+		boolean hasTime = parser.isTimeComplete();
+		int second = parser.getSecond() == ISODateTimeParser.NOT_ENTERED ? 0 : parser.getSecond();
+		long localSecond = toEpochDay(parser.getYear(), parser.getMonth(), parser.getDay()) * SECONDS_PER_DAY
+				+ (hasTime ? parser.getHour() * 3600L + parser.getMinute() * 60L + second : 0);
+		int nano = hasTime ? parser.getNano() : 0;
+		long epochSecond;
+		try {
+			epochSecond = localSecond - getOffsetSeconds(localSecond);
+		} catch (DateTimeException e) {
+			return e.getMessage();
+		}
+		if ((epochSecond < minSecond) || ((epochSecond == minSecond) && (nano < minNano)) || (epochSecond > maxSecond)
+				|| ((epochSecond == maxSecond) && (nano > maxNano))) {
+			return line.strip() + " is outside the allowed range";
+		}
+		long value;
+		try {
+			value = Math.addExact(Math.multiplyExact(epochSecond, unitsPerSecond), nano / nanosPerUnit);
+		} catch (ArithmeticException e) {
+			return line.strip() + " is too far from 1970 to hold in " + unit.toString().toLowerCase();
+		}
+		if (size == values.length) {
+			values = Arrays.copyOf(values, values.length * 2);
+		}
+		values[size++] = value;
+		return null;
+	}
+
+	private int getOffsetSeconds(long localSecond) {
+		ZoneOffset offset = parser.getOffset();
+		String zoneName = parser.getZone();
+		if (zoneName == null) {
+			return offset != null ? offset.getTotalSeconds() : zoneOffsets.getOffsetSeconds(localSecond);
+		}
+		OffsetCache namedZone = namedZoneOffsets.get(zoneName);
+		if (namedZone == null) {
+			namedZone = new OffsetCache(ZoneId.of(zoneName).getRules());
+			namedZoneOffsets.put(zoneName, namedZone);
+		}
+		if (offset == null) {
+			return namedZone.getOffsetSeconds(localSecond);
+		}
+		// rare enough to not worry about the objects
+		LocalDateTime local = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+		if (!namedZone.rules.isValidOffset(local, offset)) {
+			throw new DateTimeException("offset " + offset.getId() + " isn't used by " + zoneName + " at " + local);
+		}
+		return offset.getTotalSeconds();
+	}
+
+	/**
+	 * the same calculation as LocalDate.toEpochDay, the fields have already been
+	 * checked
+	 */
+	static long toEpochDay(int year, int month, int day) {
+		long y = year;
+		long m = month;
+		long total = 365 * y;
+		if (y >= 0) {
+			total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+		} else {
+			total -= y / -4 - y / -100 + y / -400;
+		}
+		total += (367 * m - 362) / 12;
+		total += day - 1;
+		if (m > 2) {
+			total--;
+			if (!Year.isLeap(year)) {
+				total--;
+			}
+		}
+		return total - DAYS_0000_TO_1970;
+	}
+
+	/**
+	 * the offset a zone has and the period of time (in epoch seconds) it's safe to
+	 * use it for without checking the rules again
+	 */
+	private static final class OffsetCache {
+		private final ZoneRules rules;
+		private int offsetSeconds;
+		private long safeFrom = Long.MAX_VALUE;
+		private long safeUntil = Long.MIN_VALUE;
+
+		private OffsetCache(ZoneRules rules) {
+			this.rules = rules;
+			if (rules.isFixedOffset()) {
+				offsetSeconds = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+				safeFrom = Long.MIN_VALUE;
+				safeUntil = Long.MAX_VALUE;
+			}
+		}
+
+		private int getOffsetSeconds(long localSecond) {
+			long epochSecond = localSecond - offsetSeconds;
+			if ((epochSecond >= safeFrom) && (epochSecond < safeUntil)) {
+				return offsetSeconds;
+			}
+			LocalDateTime local = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+			ZoneOffsetTransition transition = rules.getTransition(local);
+			if (transition != null) {
+				// in a gap or overlap, do the same as ZonedDateTime, which works out as using
+				// the offset before the transition either way, and don't cache it
+				return transition.getOffsetBefore().getTotalSeconds();
+			}
+			offsetSeconds = rules.getOffset(local).getTotalSeconds();
+			Instant instant = Instant.ofEpochSecond(localSecond - offsetSeconds);
+			ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+			ZoneOffsetTransition next = rules.nextTransition(instant);
+			// stay a day clear of the transitions, no offset change is anything like that
+			// big, so a local time near a gap or overlap never uses the cache
+			safeFrom = previous == null ? Long.MIN_VALUE : previous.toEpochSecond() + SECONDS_PER_DAY;
+			safeUntil = next == null ? Long.MAX_VALUE : next.toEpochSecond() - SECONDS_PER_DAY;
+			return offsetSeconds;
+		}
+	}
+}
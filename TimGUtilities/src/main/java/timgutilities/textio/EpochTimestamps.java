@@ -0,0 +1,122 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of reading a list of timestamps (e.g. TextIOUtils.readEpochTimestamps),
+ * the values are held as time since the epoch in a primitive array in the order
+ * they were read, lines that couldn't be used are skipped and reported by line
+ * number in the errors.
+ * 
+ * @see TextIOUtils#readEpochTimestamps(java.nio.file.Path, java.time.ZoneId,
+ *      TimeUnit, java.time.Instant, java.time.Instant)
+ */
+public final class EpochTimestamps {
+	private final long[] values;
+	private final TimeUnit unit;
+	private final int lineCount;
+	private final int errorCount;
+	private final List<String> errors;
+
+	EpochTimestamps(long[] values, TimeUnit unit, int lineCount, int errorCount, List<String> errors) {
+		this.values = values;
+		this.unit = unit;
+		this.lineCount = lineCount;
+		this.errorCount = errorCount;
+		this.errors = List.copyOf(errors);
+	}
+
+	/**
+	 * get the timestamps, this is the actual array not a copy, so if you change it
+	 * you change it for anyone else using this
+	 * 
+	 * @return the timestamps, in the units from getUnit, since 1970-01-01T00:00Z
+	 */
+	public long[] getValues() {
+		return values;
+	}
+
+	/**
+	 * get the number of timestamps, the same as getValues().length
+	 * 
+	 * @return the number of timestamps
+	 */
+	public int size() {
+		return values.length;
+	}
+
+	/**
+	 * get the units the values are in
+	 * 
+	 * @return the units
+	 */
+	public TimeUnit getUnit() {
+		return unit;
+	}
+
+	/**
+	 * get the number of lines read, including blank ones and ones with errors
+	 * 
+	 * @return the number of lines
+	 */
+	public int getLineCount() {
+		return lineCount;
+	}
+
+	/**
+	 * get the number of lines that had a problem and were skipped
+	 * 
+	 * @return the number of bad lines
+	 */
+	public int getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * get the problems, each starts with the line number e.g. "Line 12: ...". To
+	 * stop a file of rubbish filling memory only the first 100 are kept,
+	 * getErrorCount has the total
+	 * 
+	 * @return the problems found
+	 */
+	public List<String> getErrors() {
+		return errors;
+	}
+}
@@ -0,0 +1,852 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import timgutilities.textio.DirectoryEntry.Type;
+
+/**
+ * A persistent index of the names of everything under a root directory, this
+ * means that choosing a file from a very large tree doesn't need the tree to be
+ * scanned each time.
+ * 
+ * The index is held in a file which is memory mapped when it is opened, so only
+ * the directory details are read up front and the entry names are only looked
+ * at when searching. A mapped file can't be replaced on some platforms (e.g.
+ * Windows) until the mapping is garbage collected, so each save writes the
+ * index to a new file (indexFile.1, indexFile.2 and so on) and indexFile just
+ * records which of those is current. The index is brought up to date by refresh, which only
+ * re-lists the directories whose modification time has changed since they were
+ * indexed (adding or removing an entry changes the modification time of the
+ * directory it's in), so after the first indexing run refreshes are quick.
+ * 
+ * Symbolic links to directories are indexed as directories, but they are not
+ * followed, so loops are not possible.
+ * 
+ * Searching looks for the fragment in the entry names (and paths if the
+ * fragment has a separator in it) and if there are no direct matches for an
+ * entry checks if the characters of the fragment appear in order in the name
+ * (so "tiu" would match TextIOUtils), the results are ranked with exact matches
+ * first, then matches at the start of the name and so on.
+ */
+public final class FileNameIndex {
+	private static final int MAGIC = 0x54474649; // TGFI
+	private static final int FORMAT_VERSION = 2;
+	// how each child is marked in the index
+	private static final byte TYPE_FILE = 0;
+	private static final byte TYPE_DIRECTORY = 1;
+	// a symbolic link to a directory, these are not followed
+	private static final byte TYPE_LINKED_DIRECTORY = 2;
+	private static final long MISSING = Long.MIN_VALUE;
+	// the ranking for the different sorts of match, lower is better
+	private static final int EXACT_MATCH = 0;
+	private static final int PREFIX_MATCH = 1;
+	private static final int NAME_MATCH = 2;
+	private static final int PATH_MATCH = 3;
+	private static final int FUZZY_MATCH = 4;
+	// building and refreshing are mostly waiting on the file system, so more
+	// threads than cpus is fine. This isn't shared with the searches, their
+	// threads can all be waiting on a consumer that is itself using the index
+	private static final ForkJoinPool INDEX_POOL = new ForkJoinPool(
+			Math.max(4, Runtime.getRuntime().availableProcessors()));
+	// indexes that have already been opened in this JVM, so opening one again is
+	// instant
+	private static final Map<Path, FileNameIndex> OPEN_INDEXES = new ConcurrentHashMap<>();
+
+	private final Path root;
+	private final Path indexFile;
+	private final boolean excludeHiddenFiles;
+	private final boolean dosAttributes;
+	private final String separator;
+	// keyed by the path relative to the root, the root itself is ""
+	private final Map<String, IndexedDirectory> directories = new ConcurrentHashMap<>();
+	// which of the data files is current
+	private long generation = 0;
+
+	private FileNameIndex(Path root, Path indexFile, boolean excludeHiddenFiles) {
+		this.root = root;
+		this.indexFile = indexFile;
+		this.excludeHiddenFiles = excludeHiddenFiles;
+		this.dosAttributes = TextIOUtils.isUsingDosAttributes(root);
+		this.separator = root.getFileSystem().getSeparator();
+	}
+
+	/**
+	 * Open the index of the tree under root which is held in indexFile, hidden
+	 * entries are not indexed. If the index file doesn't exist (or was for a
+	 * different root) the tree is scanned and the index file written, otherwise
+	 * the index is loaded as it is, call refresh to bring it up to date.
+	 * 
+	 * @param root      the directory to index
+	 * @param indexFile where to keep the index
+	 * @return the index
+	 * @throws IOException if the root can't be scanned or the index file can't be
+	 *                     written
+	 */
+	public static FileNameIndex open(Path root, Path indexFile) throws IOException {
+		return open(root, indexFile, true);
+	}
+
+	/**
+	 * Open the index of the tree under root which is held in indexFile. If the index
+	 * file doesn't exist (or was for a different root or hidden file setting) the
+	 * tree is scanned and the index file written, otherwise the index is loaded as
+	 * it is, call refresh to bring it up to date.
+	 * 
+	 * If the index has already been opened in this JVM the same instance is
+	 * returned
+	 * 
+	 * @param root               the directory to index
+	 * @param indexFile          where to keep the index
+	 * @param excludeHiddenFiles if true hidden entries (and anything under hidden
+	 *                           directories) are not indexed
+	 * @return the index
+	 * @throws IOException if the root can't be scanned or the index file can't be
+	 *                     written
+	 */
+	public static FileNameIndex open(Path root, Path indexFile, boolean excludeHiddenFiles) throws IOException {
+		if (!Files.isDirectory(root)) {
+			throw new IllegalArgumentException(
+					"Provided root " + root.toString() + " is not a directory, cannot index it");
+		}
+		Path absoluteRoot = root.toAbsolutePath().normalize();
+		Path absoluteIndexFile = indexFile.toAbsolutePath().normalize();
+		// done as one step per index file, if two threads opened the same one at once
+		// they would both build and save it, and one could replace the generation the
+		// other has mapped
+		try {
+			return OPEN_INDEXES.compute(absoluteIndexFile, (key, openIndex) -> {
+				if ((openIndex != null) && openIndex.root.equals(absoluteRoot)
+						&& (openIndex.excludeHiddenFiles == excludeHiddenFiles)) {
+					return openIndex;
+				}
+				FileNameIndex index = new FileNameIndex(absoluteRoot, absoluteIndexFile, excludeHiddenFiles);
+				try {
+					if (!index.load()) {
+						index.scanTrees(List.of(""));
+						index.save();
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return index;
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * get the root directory of the index
+	 * 
+	 * @return the root
+	 */
+	public Path getRoot() {
+		return root;
+	}
+
+	/**
+	 * get the number of directories in the index
+	 * 
+	 * @return the number of directories, including the root
+	 */
+	public int getDirectoryCount() {
+		return directories.size();
+	}
+
+	/**
+	 * Bring the index up to date, only directories whose modification time has
+	 * changed are re-listed (along with any new directories found by doing that),
+	 * if anything has changed the index file is rewritten.
+	 * 
+	 * @return true if anything changed
+	 * @throws IOException if the index file can't be written
+	 */
+	public synchronized boolean refresh() throws IOException {
+		// checking the times is just a stat per directory, so do them in parallel
+		List<IndexedDirectory> changed = INDEX_POOL.submit(() -> directories.values().parallelStream()
+				.filter(dir -> getModifiedTime(resolve(dir.relativePath)) != dir.modifiedTime).toList()).join();
+		if (changed.isEmpty()) {
+			return false;
+		}
+		for (IndexedDirectory dir : changed) {
+			IndexedDirectory relisted = listDirectory(dir.relativePath);
+			if (relisted == null) {
+				directories.remove(dir.relativePath);
+			} else {
+				directories.put(dir.relativePath, relisted);
+			}
+		}
+		// work out what is still reachable from the root, anything that isn't has been
+		// removed (or renamed) and anything that is reachable but not in the index is
+		// new and needs scanning
+		Set<String> reachable = new HashSet<>();
+		List<String> newDirectories = new ArrayList<>();
+		Deque<String> toVisit = new ArrayDeque<>();
+		toVisit.push("");
+		while (!toVisit.isEmpty()) {
+			String relativePath = toVisit.pop();
+			IndexedDirectory dir = directories.get(relativePath);
+			if (dir == null) {
+				newDirectories.add(relativePath);
+				continue;
+			}
+			reachable.add(relativePath);
+			ByteBuffer children = dir.children.duplicate();
+			for (int i = 0; i < dir.childCount; i++) {
+				if (children.get() == TYPE_DIRECTORY) {
+					toVisit.push(childPath(relativePath, readName(children)));
+				} else {
+					skipName(children);
+				}
+			}
+		}
+		directories.keySet().retainAll(reachable);
+		scanTrees(newDirectories);
+		save();
+		return true;
+	}
+
+	/**
+	 * Search the index for entries matching the fragment, see the class description
+	 * for how matching and ranking is done. Matching is case insensitive
+	 * 
+	 * @param fragment       what to look for
+	 * @param listFilterType what entries to return (sub dirs, files or both)
+	 * @param maxResults     the maximum number of matches to return
+	 * @return the matching entries, best match first
+	 */
+	public synchronized List<DirectoryEntry> find(String fragment, DirectoryListFilterType listFilterType,
+			int maxResults) {
+		String lowerFragment = fragment.toLowerCase();
+		if ((maxResults <= 0) || lowerFragment.isEmpty()) {
+			return new ArrayList<>();
+		}
+		boolean matchPaths = lowerFragment.contains(separator);
+		// most names are plain ASCII, for those (if the fragment is too) the matching
+		// is done on the bytes in the index and only names that will be kept are
+		// turned into strings, anything else is decoded and matched as a string
+		byte[] asciiFragment = isAscii(lowerFragment) ? lowerFragment.getBytes(StandardCharsets.US_ASCII) : null;
+		Comparator<Match> bestFirst = Comparator.<Match>comparingInt(match -> match.score)
+				.thenComparingInt(match -> match.relativePath.length())
+				.thenComparing(match -> match.relativePath);
+		// upside down so the worst match we are keeping is at the head
+		PriorityQueue<Match> matches = new PriorityQueue<>(bestFirst.reversed());
+		byte[] nameBytes = new byte[256];
+		for (IndexedDirectory dir : directories.values()) {
+			// the path of the directory is only looked at when the fragment has a
+			// separator in it, what that needs is worked out once per directory
+			String lowerPathPrefix = null;
+			PathPrefixMatch pathPrefixMatch = null;
+			if (matchPaths) {
+				lowerPathPrefix = dir.relativePath.isEmpty() ? "" : dir.relativePath.toLowerCase() + separator;
+				pathPrefixMatch = new PathPrefixMatch(lowerPathPrefix, lowerFragment);
+			}
+			int pathPrefixLength = dir.relativePath.isEmpty() ? 0 : dir.relativePath.length() + separator.length();
+			ByteBuffer children = dir.children;
+			int position = 0;
+			for (int i = 0; i < dir.childCount; i++) {
+				byte type = children.get(position);
+				int length = Short.toUnsignedInt(children.getShort(position + 1));
+				boolean isDirectory = type != TYPE_FILE;
+				if (isDirectory ? !listFilterType.isIncludeDirectories() : !listFilterType.isIncludeFiles()) {
+					position += 3 + length;
+					continue;
+				}
+				if (nameBytes.length < length) {
+					nameBytes = new byte[length];
+				}
+				children.get(position + 3, nameBytes, 0, length);
+				position += 3 + length;
+				String name = null;
+				int score;
+				if ((asciiFragment != null) && isAscii(nameBytes, length)) {
+					score = scoreAscii(asciiFragment, nameBytes, length, pathPrefixMatch);
+				} else {
+					name = new String(nameBytes, 0, length, StandardCharsets.UTF_8);
+					String lowerName = name.toLowerCase();
+					score = score(lowerFragment, lowerName, matchPaths ? lowerPathPrefix + lowerName : null);
+				}
+				if (score < 0) {
+					continue;
+				}
+				if (matches.size() >= maxResults) {
+					// don't make the strings if it's going to lose to the worst match we have
+					Match worst = matches.peek();
+					int pathLength = pathPrefixLength + (name == null ? length : name.length());
+					if ((score > worst.score)
+							|| ((score == worst.score) && (pathLength > worst.relativePath.length()))) {
+						continue;
+					}
+				}
+				if (name == null) {
+					name = new String(nameBytes, 0, length, StandardCharsets.US_ASCII);
+				}
+				Match match = new Match(score, childPath(dir.relativePath, name), name,
+						isDirectory ? Type.DIRECTORY : Type.FILE);
+				if (matches.size() < maxResults) {
+					matches.add(match);
+				} else if (bestFirst.compare(match, matches.peek()) < 0) {
+					matches.poll();
+					matches.add(match);
+				}
+			}
+		}
+		List<Match> ordered = new ArrayList<>(matches);
+		ordered.sort(bestFirst);
+		List<DirectoryEntry> entries = new ArrayList<>(ordered.size());
+		for (Match match : ordered) {
+			entries.add(new DirectoryEntry(match.name, match.type, resolve(match.relativePath), DirectoryEntry.UNKNOWN,
+					DirectoryEntry.UNKNOWN, DirectoryEntry.UNKNOWN, false, root));
+		}
+		return entries;
+	}
+
+	/**
+	 * @return the score, or -1 if it doesn't match at all
+	 */
+	private static int score(String fragment, String name, String relativePath) {
+		if (name.equals(fragment)) {
+			return EXACT_MATCH;
+		}
+		if (name.startsWith(fragment)) {
+			return PREFIX_MATCH;
+		}
+		if (name.contains(fragment)) {
+			return NAME_MATCH;
+		}
+		if ((relativePath != null) && relativePath.contains(fragment)) {
+			return PATH_MATCH;
+		}
+		// do the characters appear in order, the more spread out they are the worse
+		// the match
+		int first = -1;
+		int position = -1;
+		for (int i = 0; i < fragment.length(); i++) {
+			position = name.indexOf(fragment.charAt(i), position + 1);
+			if (position < 0) {
+				return -1;
+			}
+			if (first < 0) {
+				first = position;
+			}
+		}
+		return FUZZY_MATCH + (position - first + 1 - fragment.length());
+	}
+
+	/**
+	 * as score, but on the bytes of an ASCII name, the fragment must already be in
+	 * lower case
+	 * 
+	 * @return the score, or -1 if it doesn't match at all
+	 */
+	private static int scoreAscii(byte[] fragment, byte[] name, int nameLength, PathPrefixMatch pathPrefixMatch) {
+		if (regionMatchesAscii(name, nameLength, 0, fragment, 0)) {
+			return nameLength == fragment.length ? EXACT_MATCH : PREFIX_MATCH;
+		}
+		for (int start = 1; start + fragment.length <= nameLength; start++) {
+			if (regionMatchesAscii(name, nameLength, start, fragment, 0)) {
+				return NAME_MATCH;
+			}
+		}
+		if ((pathPrefixMatch != null) && pathPrefixMatch.matches(fragment, name, nameLength)) {
+			return PATH_MATCH;
+		}
+		int first = -1;
+		int position = -1;
+		for (int i = 0; i < fragment.length; i++) {
+			do {
+				position++;
+				if (position >= nameLength) {
+					return -1;
+				}
+			} while (toLowerAscii(name[position]) != fragment[i]);
+			if (first < 0) {
+				first = position;
+			}
+		}
+		return FUZZY_MATCH + (position - first + 1 - fragment.length);
+	}
+
+	/**
+	 * does the name (folded to lower case) have the rest of the fragment from
+	 * fragmentStart at nameStart
+	 */
+	private static boolean regionMatchesAscii(byte[] name, int nameLength, int nameStart, byte[] fragment,
+			int fragmentStart) {
+		int length = fragment.length - fragmentStart;
+		if (nameStart + length > nameLength) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (toLowerAscii(name[nameStart + i]) != fragment[fragmentStart + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static byte toLowerAscii(byte b) {
+		return ((b >= 'A') && (b <= 'Z')) ? (byte) (b + ('a' - 'A')) : b;
+	}
+
+	private static boolean isAscii(byte[] bytes, int length) {
+		for (int i = 0; i < length; i++) {
+			if (bytes[i] < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isAscii(String string) {
+		for (int i = 0; i < string.length(); i++) {
+			if (string.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Path resolve(String relativePath) {
+		return relativePath.isEmpty() ? root : root.resolve(relativePath);
+	}
+
+	private String childPath(String parentRelativePath, String name) {
+		return parentRelativePath.isEmpty() ? name : parentRelativePath + separator + name;
+	}
+
+	private static long getModifiedTime(Path dir) {
+		try {
+			return Files.getLastModifiedTime(dir, LinkOption.NOFOLLOW_LINKS).to(TimeUnit.NANOSECONDS);
+		} catch (IOException e) {
+			return MISSING;
+		}
+	}
+
+	private static String readName(ByteBuffer children) {
+		int length = Short.toUnsignedInt(children.getShort());
+		byte[] nameBytes = new byte[length];
+		children.get(nameBytes);
+		return new String(nameBytes, StandardCharsets.UTF_8);
+	}
+
+	private static void skipName(ByteBuffer children) {
+		int length = Short.toUnsignedInt(children.getShort());
+		children.position(children.position() + length);
+	}
+
+	/**
+	 * scan the trees under the directories (given relative to the root) adding
+	 * everything to the index, each directory is a separate task so this runs in
+	 * parallel
+	 */
+	private void scanTrees(List<String> relativePaths) {
+		if (relativePaths.isEmpty()) {
+			return;
+		}
+		INDEX_POOL.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(relativePaths.stream().map(ScanTask::new).toList());
+			}
+		});
+	}
+
+	/**
+	 * list the directory, it's contents go into a buffer in the same format as is
+	 * used in the index file
+	 * 
+	 * @return the listing, or null if the directory doesn't exist
+	 */
+	private IndexedDirectory listDirectory(String relativePath) {
+		Path dir = resolve(relativePath);
+		// get the time first so if anything changes while we are listing it will be
+		// re-listed by the next refresh
+		long modifiedTime = getModifiedTime(dir);
+		if (modifiedTime == MISSING) {
+			return null;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream children = new DataOutputStream(bytes);
+		int childCount = 0;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+			for (Path p : stream) {
+				byte type = getType(p);
+				if (type < 0) {
+					continue;
+				}
+				byte[] nameBytes = p.getFileName().toString().getBytes(StandardCharsets.UTF_8);
+				children.writeByte(type);
+				children.writeShort(nameBytes.length);
+				children.write(nameBytes);
+				childCount++;
+			}
+		} catch (IOException | DirectoryIteratorException e) {
+			// can't read it (e.g. permissions), just index what we got, if it changes it
+			// will be tried again
+		}
+		return new IndexedDirectory(relativePath, modifiedTime, childCount, ByteBuffer.wrap(bytes.toByteArray()));
+	}
+
+	/**
+	 * @return the type to put in the index, or -1 if it's not to be indexed
+	 */
+	private byte getType(Path p) {
+		BasicFileAttributes attributes;
+		try {
+			if (dosAttributes) {
+				DosFileAttributes dosFileAttributes = Files.readAttributes(p, DosFileAttributes.class,
+						LinkOption.NOFOLLOW_LINKS);
+				if (excludeHiddenFiles && dosFileAttributes.isHidden()) {
+					return -1;
+				}
+				attributes = dosFileAttributes;
+			} else {
+				if (excludeHiddenFiles && Files.isHidden(p)) {
+					return -1;
+				}
+				attributes = Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+			}
+		} catch (IOException e) {
+			return -1;
+		}
+		if (attributes.isDirectory()) {
+			return TYPE_DIRECTORY;
+		}
+		if (attributes.isRegularFile()) {
+			return TYPE_FILE;
+		}
+		if (attributes.isSymbolicLink()) {
+			// record what the link points to, but don't go down it
+			if (Files.isDirectory(p)) {
+				return TYPE_LINKED_DIRECTORY;
+			}
+			if (Files.isRegularFile(p)) {
+				return TYPE_FILE;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * load the index, indexFile says which data file is current, the directory
+	 * details are read from that but the children are left in the mapped file
+	 * until they are needed
+	 * 
+	 * @return true if the index was loaded, false if it needs to be built
+	 */
+	private boolean load() {
+		if (!Files.isRegularFile(indexFile)) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(indexFile))) {
+			if ((in.readInt() != MAGIC) || (in.readInt() != FORMAT_VERSION)) {
+				return false;
+			}
+			generation = in.readLong();
+		} catch (IOException e) {
+			// it's damaged or not an index file, so it will be rebuilt
+			return false;
+		}
+		if (!map(getDataFile(generation))) {
+			return false;
+		}
+		removeOldDataFiles();
+		return true;
+	}
+
+	/**
+	 * map the data file and replace the directories with the ones in it, the
+	 * directories are only replaced if the whole file could be read
+	 * 
+	 * @return true if the data file was read
+	 */
+	private boolean map(Path dataFile) {
+		Map<String, IndexedDirectory> mappedDirectories = new HashMap<>();
+		try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+			// the mapping stays valid after the channel is closed
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if ((mapped.getInt() != MAGIC) || (mapped.getInt() != FORMAT_VERSION)
+					|| ((mapped.get() != 0) != excludeHiddenFiles) || !readString(mapped).equals(root.toString())) {
+				return false;
+			}
+			int directoryCount = mapped.getInt();
+			for (int i = 0; i < directoryCount; i++) {
+				String relativePath = readString(mapped);
+				long modifiedTime = mapped.getLong();
+				int childCount = mapped.getInt();
+				int childrenLength = mapped.getInt();
+				ByteBuffer children = mapped.slice(mapped.position(), childrenLength);
+				mapped.position(mapped.position() + childrenLength);
+				mappedDirectories.put(relativePath,
+						new IndexedDirectory(relativePath, modifiedTime, childCount, children));
+			}
+		} catch (IOException | BufferUnderflowException | IndexOutOfBoundsException
+				| IllegalArgumentException e) {
+			// it's damaged or not an index file, so it will be rebuilt
+			return false;
+		}
+		directories.clear();
+		directories.putAll(mappedDirectories);
+		return true;
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * write the index to the next data file, then switch indexFile over to it.
+	 * indexFile is never mapped so it can always be replaced, and a failure part
+	 * way through leaves the old data file in use. Once the switch is done the new
+	 * data file is mapped in place of the old one, so nothing holds on to the old
+	 * mapping and it can be removed
+	 */
+	private void save() throws IOException {
+		long newGeneration = generation + 1;
+		Path dataFile = getDataFile(newGeneration);
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(dataFile)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeByte(excludeHiddenFiles ? 1 : 0);
+			writeString(out, root.toString());
+			out.writeInt(directories.size());
+			for (IndexedDirectory dir : directories.values()) {
+				writeString(out, dir.relativePath);
+				out.writeLong(dir.modifiedTime);
+				out.writeInt(dir.childCount);
+				ByteBuffer children = dir.children.duplicate();
+				out.writeInt(children.remaining());
+				byte[] chunk = new byte[Math.min(children.remaining(), 8192)];
+				while (children.hasRemaining()) {
+					int length = Math.min(chunk.length, children.remaining());
+					children.get(chunk, 0, length);
+					out.write(chunk, 0, length);
+				}
+			}
+		} catch (IOException e) {
+			Files.deleteIfExists(dataFile);
+			throw e;
+		}
+		Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tempFile))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(newGeneration);
+		}
+		try {
+			Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+		}
+		generation = newGeneration;
+		if (!map(dataFile)) {
+			throw new IOException("Unable to read back the index data file " + dataFile);
+		}
+		removeOldDataFiles();
+	}
+
+	private Path getDataFile(long dataGeneration) {
+		return indexFile.resolveSibling(indexFile.getFileName() + "." + dataGeneration);
+	}
+
+	/**
+	 * remove any data files other than the current one, a file that is still
+	 * mapped (here or by another process) may not be removable on some platforms,
+	 * in which case it's left for a later save to remove
+	 */
+	private void removeOldDataFiles() {
+		String prefix = indexFile.getFileName() + ".";
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(indexFile.getParent(),
+				p -> p.getFileName().toString().startsWith(prefix))) {
+			for (Path p : stream) {
+				String suffix = p.getFileName().toString().substring(prefix.length());
+				if (suffix.isEmpty() || !suffix.chars().allMatch(Character::isDigit)
+						|| suffix.equals(Long.toString(generation))) {
+					continue;
+				}
+				try {
+					Files.deleteIfExists(p);
+				} catch (IOException e) {
+					// still in use, leave it for next time
+				}
+			}
+		} catch (IOException | DirectoryIteratorException e) {
+			// it will be tried again on the next save
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * lists a single directory, any sub directories get their own task
+	 */
+	private class ScanTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final String relativePath;
+
+		private ScanTask(String relativePath) {
+			this.relativePath = relativePath;
+		}
+
+		@Override
+		protected void compute() {
+			IndexedDirectory dir = listDirectory(relativePath);
+			if (dir == null) {
+				return;
+			}
+			directories.put(relativePath, dir);
+			List<ScanTask> subTasks = new ArrayList<>();
+			ByteBuffer children = dir.children.duplicate();
+			for (int i = 0; i < dir.childCount; i++) {
+				if (children.get() == TYPE_DIRECTORY) {
+					ScanTask subTask = new ScanTask(childPath(relativePath, readName(children)));
+					subTask.fork();
+					subTasks.add(subTask);
+				} else {
+					skipName(children);
+				}
+			}
+			subTasks.forEach(ForkJoinTask::join);
+		}
+	}
+
+	private static final class IndexedDirectory {
+		private final String relativePath;
+		private final long modifiedTime;
+		private final int childCount;
+		// the children as type byte, name length (unsigned short) and UTF-8 name
+		private final ByteBuffer children;
+
+		private IndexedDirectory(String relativePath, long modifiedTime, int childCount, ByteBuffer children) {
+			this.relativePath = relativePath;
+			this.modifiedTime = modifiedTime;
+			this.childCount = childCount;
+			this.children = children;
+		}
+	}
+
+	/**
+	 * how a path fragment can match the path of a directory plus the name of one of
+	 * it's children, the fragment is either in the directory path already or it
+	 * starts at the end of the directory path and runs on into the name
+	 */
+	private static final class PathPrefixMatch {
+		private final boolean inPrefix;
+		// the places in the fragment where the name could start
+		private final int[] nameStarts;
+
+		private PathPrefixMatch(String lowerPathPrefix, String lowerFragment) {
+			inPrefix = lowerPathPrefix.contains(lowerFragment);
+			nameStarts = IntStream.range(1, lowerFragment.length())
+					.filter(start -> lowerPathPrefix.endsWith(lowerFragment.substring(0, start))).toArray();
+		}
+
+		private boolean matches(byte[] fragment, byte[] name, int nameLength) {
+			if (inPrefix) {
+				return true;
+			}
+			for (int nameStart : nameStarts) {
+				if (regionMatchesAscii(name, nameLength, 0, fragment, nameStart)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static final class Match {
+		private final int score;
+		private final String relativePath;
+		private final String name;
+		private final Type type;
+
+		private Match(int score, String relativePath, String name, Type type) {
+			this.score = score;
+			this.relativePath = relativePath;
+			this.name = name;
+			this.type = type;
+		}
+	}
+}
@@ -0,0 +1,429 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Parses the ISO 8601 style dates and times entered on a single line, e.g.
+ * 2026-10-16, 14:30:05 or 2026-10-16T14:30+01:00[Europe/London].
+ * 
+ * This walks the characters directly rather than using a DateTimeFormatter, so
+ * apart from the zone name nothing is created while parsing, and it can tell
+ * the difference between input that is wrong and input that is just incomplete
+ * (e.g. only the year) so the caller can ask for the rest a step at a time.
+ * 
+ * To be a little forgiving single digit months, days, hours and minutes are
+ * allowed, and a space can be used instead of the T between the date and time.
+ * 
+ * An instance holds the results of the last parse, so isn't thread safe, but
+ * they are cheap so just make a new one when needed.
+ */
+final class ISODateTimeParser {
+	/**
+	 * the value of any field that wasn't entered
+	 */
+	static final int NOT_ENTERED = -1;
+	private static final int MAX_OFFSET_HOURS = 18;
+
+	private String text;
+	private int position;
+	private int end;
+	private String error;
+	private int year;
+	private int month;
+	private int day;
+	private int hour;
+	private int minute;
+	private int second;
+	private int nano;
+	private ZoneOffset offset;
+	private String zone;
+
+	/**
+	 * parse a date, YYYY-MM-DD, YYYY-MM or YYYY
+	 * 
+	 * @param input what was entered
+	 * @return true if it's valid (though it may be incomplete), false if not, in
+	 *         which case getError says why
+	 */
+	boolean parseDate(String input) {
+		return start(input) && date() && atEnd();
+	}
+
+	/**
+	 * parse a time, HH:MM:SS.fraction, HH:MM:SS, HH:MM or HH
+	 * 
+	 * @param input what was entered
+	 * @return true if it's valid (though it may be incomplete), false if not, in
+	 *         which case getError says why
+	 */
+	boolean parseTime(String input) {
+		return start(input) && time() && atEnd();
+	}
+
+	/**
+	 * parse a date optionally followed by a time and then optionally an offset and
+	 * / or a zone name in [], e.g. 2026-10-16T14:30:05+01:00[Europe/London]. If a
+	 * time is given it must have at least the hours and minutes, the date can be
+	 * incomplete but only if there's no time
+	 * 
+	 * @param input what was entered
+	 * @return true if it's valid (though it may be incomplete), false if not, in
+	 *         which case getError says why
+	 */
+	boolean parseDateTime(String input) {
+		if (!start(input) || !date()) {
+			return false;
+		}
+		if (position == end) {
+			return true;
+		}
+		char separator = text.charAt(position);
+		if ((separator != 'T') && (separator != 't') && (separator != ' ')) {
+			return fail("expected T between the date and time");
+		}
+		if (day == NOT_ENTERED) {
+			return fail("the date must be complete if a time is entered");
+		}
+		position++;
+		if (!time()) {
+			return false;
+		}
+		if (minute == NOT_ENTERED) {
+			return fail("the time must include at least the hours and minutes");
+		}
+		return offset() && zoneName() && atEnd();
+	}
+
+	/**
+	 * why the last parse failed
+	 * 
+	 * @return the reason, or null if it didn't fail
+	 */
+	String getError() {
+		return error;
+	}
+
+	int getYear() {
+		return year;
+	}
+
+	int getMonth() {
+		return month;
+	}
+
+	int getDay() {
+		return day;
+	}
+
+	int getHour() {
+		return hour;
+	}
+
+	int getMinute() {
+		return minute;
+	}
+
+	int getSecond() {
+		return second;
+	}
+
+	int getNano() {
+		return nano;
+	}
+
+	/**
+	 * @return the entered offset, or null if there wasn't one
+	 */
+	ZoneOffset getOffset() {
+		return offset;
+	}
+
+	/**
+	 * @return the entered zone name (what was in the []), or null if there wasn't
+	 *         one
+	 */
+	String getZone() {
+		return zone;
+	}
+
+	boolean isDateComplete() {
+		return day != NOT_ENTERED;
+	}
+
+	boolean isTimeComplete() {
+		return minute != NOT_ENTERED;
+	}
+
+	/**
+	 * was an offset or zone name entered
+	 * 
+	 * @return true if there was
+	 */
+	boolean isZoneEntered() {
+		return (offset != null) || (zone != null);
+	}
+
+	LocalDate toLocalDate() {
+		return LocalDate.of(year, month, day);
+	}
+
+	LocalTime toLocalTime() {
+		return LocalTime.of(hour, minute, second == NOT_ENTERED ? 0 : second, nano);
+	}
+
+	LocalDateTime toLocalDateTime() {
+		return LocalDateTime.of(toLocalDate(), toLocalTime());
+	}
+
+	/**
+	 * apply the entered offset and / or zone to the date time, if both were
+	 * entered the offset must be one the zone has at that time
+	 * 
+	 * @param dateTime the date time, this may be different from the one entered
+	 *                 e.g. if it was asked for a step at a time
+	 * @return the zoned date time
+	 * @throws DateTimeException if the zone isn't known or the offset doesn't fit
+	 *                           it
+	 */
+	ZonedDateTime toZonedDateTime(LocalDateTime dateTime) {
+		if (zone == null) {
+			return ZonedDateTime.of(dateTime, offset);
+		}
+		ZoneId zoneId = ZoneId.of(zone);
+		if ((offset != null) && !zoneId.getRules().isValidOffset(dateTime, offset)) {
+			throw new DateTimeException(
+					"offset " + offset.getId() + " isn't used by " + zoneId.getId() + " at " + dateTime);
+		}
+		return ZonedDateTime.ofLocal(dateTime, zoneId, offset);
+	}
+
+	private boolean start(String input) {
+		text = input == null ? "" : input;
+		position = 0;
+		end = text.length();
+		// ignore any leading or trailing spaces
+		while ((position < end) && Character.isWhitespace(text.charAt(position))) {
+			position++;
+		}
+		while ((end > position) && Character.isWhitespace(text.charAt(end - 1))) {
+			end--;
+		}
+		error = null;
+		year = NOT_ENTERED;
+		month = NOT_ENTERED;
+		day = NOT_ENTERED;
+		hour = NOT_ENTERED;
+		minute = NOT_ENTERED;
+		second = NOT_ENTERED;
+		nano = 0;
+		offset = null;
+		zone = null;
+		if (position == end) {
+			return fail("nothing was entered");
+		}
+		return true;
+	}
+
+	private boolean date() {
+		boolean negative = false;
+		char first = text.charAt(position);
+		if ((first == '-') || (first == '+')) {
+			negative = first == '-';
+			position++;
+		}
+		long yearValue = number(9);
+		if (yearValue < 0) {
+			return fail("expected the year");
+		}
+		yearValue = negative ? -yearValue : yearValue;
+		if ((yearValue < Year.MIN_VALUE) || (yearValue > Year.MAX_VALUE)) {
+			return fail("the year is out of range");
+		}
+		year = (int) yearValue;
+		if (!next('-')) {
+			return true;
+		}
+		month = (int) number(2);
+		if ((month < 1) || (month > 12)) {
+			return fail("the month must be 1 to 12");
+		}
+		if (!next('-')) {
+			return true;
+		}
+		day = (int) number(2);
+		int daysInMonth = Month.of(month).length(Year.isLeap(year));
+		if ((day < 1) || (day > daysInMonth)) {
+			return fail("the day must be 1 to " + daysInMonth + " in " + year + "-" + TextIOUtils.toTwoDigit(month));
+		}
+		return true;
+	}
+
+	private boolean time() {
+		hour = (int) number(2);
+		if ((hour < 0) || (hour > 23)) {
+			return fail("the hour must be 0 to 23");
+		}
+		if (!next(':')) {
+			return true;
+		}
+		minute = (int) number(2);
+		if ((minute < 0) || (minute > 59)) {
+			return fail("the minutes must be 0 to 59");
+		}
+		if (!next(':')) {
+			return true;
+		}
+		second = (int) number(2);
+		if ((second < 0) || (second > 59)) {
+			return fail("the seconds must be 0 to 59");
+		}
+		if (!next('.')) {
+			return true;
+		}
+		int fractionStart = position;
+		long fraction = number(9);
+		if (fraction < 0) {
+			return fail("expected the fraction of a second after the .");
+		}
+		// scale it up to nanos
+		for (int digits = position - fractionStart; digits < 9; digits++) {
+			fraction *= 10;
+		}
+		nano = (int) fraction;
+		return true;
+	}
+
+	private boolean offset() {
+		if (position == end) {
+			return true;
+		}
+		char sign = text.charAt(position);
+		if ((sign == 'Z') || (sign == 'z')) {
+			position++;
+			offset = ZoneOffset.UTC;
+			return true;
+		}
+		if ((sign != '+') && (sign != '-')) {
+			return true;
+		}
+		position++;
+		int offsetHours = (int) number(2);
+		if ((offsetHours < 0) || (offsetHours > MAX_OFFSET_HOURS)) {
+			return fail("the offset hours must be 0 to " + MAX_OFFSET_HOURS);
+		}
+		int offsetMinutes = 0;
+		if ((position < end) && (text.charAt(position) != '[')) {
+			next(':');
+			offsetMinutes = (int) number(2);
+			if ((offsetMinutes < 0) || (offsetMinutes > 59)) {
+				return fail("the offset minutes must be 0 to 59");
+			}
+		}
+		try {
+			offset = sign == '-' ? ZoneOffset.ofHoursMinutes(-offsetHours, -offsetMinutes)
+					: ZoneOffset.ofHoursMinutes(offsetHours, offsetMinutes);
+		} catch (DateTimeException e) {
+			return fail("the offset is out of range");
+		}
+		return true;
+	}
+
+	private boolean zoneName() {
+		if (!next('[')) {
+			return true;
+		}
+		int close = text.indexOf(']', position);
+		if ((close < 0) || (close >= end) || (close == position)) {
+			return fail("expected the zone name and then ]");
+		}
+		zone = text.substring(position, close);
+		position = close + 1;
+		return true;
+	}
+
+	/**
+	 * read up to maxDigits digits
+	 * 
+	 * @return the number, or -1 if there were no digits
+	 */
+	private long number(int maxDigits) {
+		long value = 0;
+		int start = position;
+		while ((position < end) && (position - start < maxDigits)) {
+			char c = text.charAt(position);
+			if ((c < '0') || (c > '9')) {
+				break;
+			}
+			value = value * 10 + (c - '0');
+			position++;
+		}
+		return position == start ? -1 : value;
+	}
+
+	/**
+	 * if the next character is c step past it
+	 */
+	private boolean next(char c) {
+		if ((position < end) && (text.charAt(position) == c)) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private boolean atEnd() {
+		if (position != end) {
+			return fail("unexpected " + text.substring(position, end));
+		}
+		return true;
+	}
+
+	private boolean fail(String reason) {
+		error = reason;
+		return false;
+	}
+}
@@ -0,0 +1,176 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lists several directories (e.g. per day partitions on different mounts) as
+ * if they were one. Each directory is listed in parallel (through the
+ * DirectoryListingCache, so it may not need listing at all) and as each listing
+ * is already in the requested order the results are merged rather than being
+ * put together and sorted again.
+ */
+final class MergedDirectoryListing {
+	// the listings spend nearly all their time waiting on the disk (often different
+	// mounts) so there are more of these than there are cores, they have their own
+	// pool so a blocked listing never ties up a thread the tree scans need
+	private static final int MAX_CONCURRENT_LISTINGS = 8;
+	private static final long IDLE_THREAD_TIMEOUT_SECONDS = 30;
+	private static final ThreadPoolExecutor LISTING_EXECUTOR;
+	static {
+		LISTING_EXECUTOR = new ThreadPoolExecutor(MAX_CONCURRENT_LISTINGS, MAX_CONCURRENT_LISTINGS,
+				IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				new DaemonThreadFactory("TextIOUtils-merged-listing"));
+		LISTING_EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	private MergedDirectoryListing() {
+	}
+
+	/**
+	 * list the roots and merge the results, entries that compare the same are
+	 * returned in the order of the roots they came from
+	 * 
+	 * @return the merged entries, the root of each is the directory it came from
+	 */
+	static Stream<DirectoryEntry> list(List<Path> roots, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly) {
+		// listing the same directory twice would just give duplicates
+		List<Path> uniqueRoots = new ArrayList<>(new LinkedHashSet<>(roots));
+		DirectoryListingCache cache = DirectoryListingCache.getInstance();
+		List<CompletableFuture<List<DirectoryEntry>>> listings = uniqueRoots.stream()
+				.map(root -> CompletableFuture.supplyAsync(() -> cache.getListing(root, listFilterType, listOrderType,
+						excludeHiddenFiles, nameMatcher, matchFilesOnly), LISTING_EXECUTOR))
+				.toList();
+		List<List<DirectoryEntry>> sortedListings = new ArrayList<>(listings.size());
+		for (CompletableFuture<List<DirectoryEntry>> listing : listings) {
+			try {
+				sortedListings.add(listing.join());
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw e;
+			}
+		}
+		return merge(sortedListings, listOrderType.getComparator());
+	}
+
+	/**
+	 * merge lists that are each sorted by the comparator
+	 */
+	static Stream<DirectoryEntry> merge(List<List<DirectoryEntry>> sortedListings,
+			Comparator<DirectoryEntry> comparator) {
+		long total = sortedListings.stream().mapToLong(List::size).sum();
+		Iterator<DirectoryEntry> merged = new MergeIterator(sortedListings, comparator);
+		return StreamSupport.stream(Spliterators.spliterator(merged, total,
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * a standard k way merge, the heap holds one cursor per listing positioned at
+	 * the next entry it has to offer so each entry costs log(k) comparisons
+	 */
+	private static final class MergeIterator implements Iterator<DirectoryEntry> {
+		private final PriorityQueue<Cursor> heads;
+
+		private MergeIterator(List<List<DirectoryEntry>> sortedListings, Comparator<DirectoryEntry> comparator) {
+			// on a tie the earlier listing goes first so the result is stable
+			Comparator<Cursor> cursorOrder = Comparator.comparing(Cursor::current, comparator)
+					.thenComparingInt(cursor -> cursor.listingNumber);
+			heads = new PriorityQueue<>(Math.max(sortedListings.size(), 1), cursorOrder);
+			for (int i = 0; i < sortedListings.size(); i++) {
+				List<DirectoryEntry> listing = sortedListings.get(i);
+				if (!listing.isEmpty()) {
+					heads.add(new Cursor(listing, i));
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !heads.isEmpty();
+		}
+
+		@Override
+		public DirectoryEntry next() {
+			Cursor cursor = heads.poll();
+			if (cursor == null) {
+				throw new NoSuchElementException();
+			}
+			DirectoryEntry entry = cursor.current();
+			cursor.position++;
+			if (cursor.position < cursor.listing.size()) {
+				heads.add(cursor);
+			}
+			return entry;
+		}
+	}
+
+	private static final class Cursor {
+		private final List<DirectoryEntry> listing;
+		private final int listingNumber;
+		private int position = 0;
+
+		private Cursor(List<DirectoryEntry> listing, int listingNumber) {
+			this.listing = listing;
+			this.listingNumber = listingNumber;
+		}
+
+		private DirectoryEntry current() {
+			return listing.get(position);
+		}
+	}
+}
@@ -0,0 +1,406 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Decides if a file or directory name is wanted, used by the ...Matching
+ * versions of the directory list, search and chooser methods and by
+ * getFileMatchedBy. Matchers are built from a regular expression, a glob (e.g.
+ * *.{java,xml}) or a set of extensions.
+ * 
+ * Building a matcher does the expensive bit (compiling the regexp or glob)
+ * once, and the built matchers are cached, so asking for the same regexp again
+ * (for example each time the chooser lists a directory) gets the matcher that
+ * was already built. For the common case of "files with one of these
+ * extensions" use extensions, this is a hash lookup on the extension rather
+ * than running a regexp over every name, which makes a big difference on
+ * directories with lots of entries.
+ * 
+ * Matchers are immutable and thread safe, two matchers built from the same
+ * input are equal.
+ * 
+ * @see TextIOUtils#listDirectoryEntriesMatching(Path, DirectoryListFilterType,
+ *      DirectoryListOrderType, boolean, NameMatcher, boolean)
+ */
+public final class NameMatcher {
+	private static final int MAX_CACHED_MATCHERS = 128;
+	// regexp metacharacters, if a regexp has none of these it's just looking for
+	// the text somewhere in the name
+	private static final String REGEXP_METACHARACTERS = "\\^$.|?*+()[]{}";
+	private static final String GLOB_METACHARACTERS = "\\*?[{";
+	private static final Map<String, NameMatcher> CACHED_MATCHERS = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, NameMatcher> eldest) {
+			return size() > MAX_CACHED_MATCHERS;
+		}
+	};
+
+	private final String description;
+	private final Predicate<String> test;
+
+	private NameMatcher(String description, Predicate<String> test) {
+		this.description = description;
+		this.test = test;
+	}
+
+	/**
+	 * Get a matcher for the regular expression, a name matches if the regexp can
+	 * be found anywhere in it (the same as Matcher.find) so use ^ and $ to match the
+	 * whole name, e.g. "^.*\\.[Xx][Mm][Ll]$"
+	 * 
+	 * @param regexp the regular expression
+	 * @return the matcher, or null if regexp is null (which all the methods taking
+	 *         a matcher treat as match everything)
+	 * @throws java.util.regex.PatternSyntaxException if the regexp isn't valid
+	 */
+	public static NameMatcher regexp(String regexp) {
+		if (regexp == null) {
+			return null;
+		}
+		String description = "regex:" + regexp;
+		NameMatcher matcher = getCached(description);
+		if (matcher != null) {
+			return matcher;
+		}
+		if (isLiteral(regexp)) {
+			// no need to get the regexp engine involved for a plain bit of text
+			matcher = new NameMatcher(description, name -> name.contains(regexp));
+		} else {
+			Pattern pattern = Pattern.compile(regexp);
+			matcher = new NameMatcher(description, name -> pattern.matcher(name).find());
+		}
+		return cache(matcher);
+	}
+
+	/**
+	 * Get a matcher for the glob, this uses the same syntax as
+	 * FileSystem.getPathMatcher, for example *.java or *.{htm,html}. Unlike the
+	 * regexp matcher the glob has to match the whole name. As only names are
+	 * matched (never paths with separators in) * and ** are the same. Like the
+	 * default file system's globs this ignores case on Windows
+	 * 
+	 * @param glob the glob
+	 * @return the matcher, or null if glob is null
+	 * @throws java.util.regex.PatternSyntaxException if the glob isn't valid
+	 */
+	public static NameMatcher glob(String glob) {
+		if (glob == null) {
+			return null;
+		}
+		String description = "glob:" + glob;
+		NameMatcher matcher = getCached(description);
+		if (matcher != null) {
+			return matcher;
+		}
+		// the glob is turned into a regexp once and matched against the name itself,
+		// rather than making a Path from every name (which some names, e.g. ones from
+		// archives, aren't valid as on the default file system)
+		int flags = Pattern.DOTALL;
+		if (FileSystems.getDefault().getSeparator().equals("\\")) {
+			flags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+		}
+		Pattern pattern = Pattern.compile(globToRegexp(glob), flags);
+		return cache(new NameMatcher(description, name -> pattern.matcher(name).matches()));
+	}
+
+	/**
+	 * Get a matcher for names that end in one of the extensions, ignoring case (so
+	 * "jpg" matches both tim.jpg and TIM.JPG). The leading . on the extensions is
+	 * optional, and extensions with several parts like tar.gz work
+	 * 
+	 * @param extensions the extensions to match
+	 * @return the matcher
+	 * @throws IllegalArgumentException if no extensions are provided
+	 */
+	public static NameMatcher extensions(String... extensions) {
+		return extensions(true, extensions);
+	}
+
+	/**
+	 * Get a matcher for names that end in one of the extensions. The leading . on
+	 * the extensions is optional, and extensions with several parts like tar.gz
+	 * work
+	 * 
+	 * @param ignoreCase if true then the case of the extension doesn't matter
+	 * @param extensions the extensions to match
+	 * @return the matcher
+	 * @throws IllegalArgumentException if no extensions are provided or one of
+	 *                                  them is empty
+	 */
+	public static NameMatcher extensions(boolean ignoreCase, String... extensions) {
+		if ((extensions == null) || (extensions.length == 0)) {
+			throw new IllegalArgumentException("At least one extension must be provided");
+		}
+		// sorted so the same extensions in a different order are the same matcher
+		String[] normalised = Arrays.stream(extensions).map(extension -> normaliseExtension(extension, ignoreCase))
+				.distinct().sorted().toArray(String[]::new);
+		String description = (ignoreCase ? "ext:" : "EXT:") + String.join(",", normalised);
+		NameMatcher matcher = getCached(description);
+		if (matcher != null) {
+			return matcher;
+		}
+		Set<String> extensionSet = new HashSet<>(Arrays.asList(normalised));
+		int longestExtension = Arrays.stream(normalised).mapToInt(String::length).max().getAsInt();
+		return cache(new NameMatcher(description,
+				name -> hasExtension(name, extensionSet, longestExtension, ignoreCase)));
+	}
+
+	/**
+	 * Get a matcher from a string of the form syntax:pattern in the same way as
+	 * FileSystem.getPathMatcher, this is handy if the filter is coming from
+	 * configuration. The syntax is one of regex (e.g. regex:^tim.*), glob (e.g.
+	 * glob:*.java) or ext, a comma separated list of extensions that ignores case
+	 * (e.g. ext:jpg,jpeg,png)
+	 * 
+	 * @param syntaxAndPattern the syntax and pattern
+	 * @return the matcher, or null if syntaxAndPattern is null
+	 * @throws IllegalArgumentException if the syntax isn't one of the above or the
+	 *                                  pattern isn't valid for it
+	 */
+	public static NameMatcher parse(String syntaxAndPattern) {
+		if (syntaxAndPattern == null) {
+			return null;
+		}
+		int colon = syntaxAndPattern.indexOf(':');
+		if (colon < 0) {
+			throw new IllegalArgumentException(
+					"Matcher " + syntaxAndPattern + " is not of the form syntax:pattern (e.g. glob:*.java)");
+		}
+		String syntax = syntaxAndPattern.substring(0, colon);
+		String pattern = syntaxAndPattern.substring(colon + 1);
+		switch (syntax.toLowerCase(Locale.ROOT)) {
+		case "regex":
+			return regexp(pattern);
+		case "glob":
+			return glob(pattern);
+		case "ext":
+			return extensions(pattern.split(","));
+		default:
+			throw new IllegalArgumentException(
+					"Unknown matcher syntax " + syntax + " in " + syntaxAndPattern + ", must be regex, glob or ext");
+		}
+	}
+
+	/**
+	 * does the name match
+	 * 
+	 * @param name the file or directory name (not the full path)
+	 * @return true if it matches
+	 */
+	public boolean matches(String name) {
+		return test.test(name);
+	}
+
+	/**
+	 * Get the syntax:pattern for this matcher, this can be passed to parse to get
+	 * the matcher back
+	 */
+	@Override
+	public String toString() {
+		return description;
+	}
+
+	@Override
+	public int hashCode() {
+		return description.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof NameMatcher)) {
+			return false;
+		}
+		return description.equals(((NameMatcher) obj).description);
+	}
+
+	/**
+	 * convert the glob to the equivalent regexp in the same way as
+	 * FileSystem.getPathMatcher, but for a single name so there are no separators
+	 * to worry about
+	 */
+	private static String globToRegexp(String glob) {
+		StringBuilder regexp = new StringBuilder("^");
+		boolean inGroup = false;
+		int i = 0;
+		while (i < glob.length()) {
+			char c = glob.charAt(i++);
+			switch (c) {
+			case '\\':
+				if (i == glob.length()) {
+					throw new PatternSyntaxException("No character to escape", glob, i - 1);
+				}
+				char escaped = glob.charAt(i++);
+				if ((GLOB_METACHARACTERS.indexOf(escaped) >= 0) || (REGEXP_METACHARACTERS.indexOf(escaped) >= 0)) {
+					regexp.append('\\');
+				}
+				regexp.append(escaped);
+				break;
+			case '[':
+				regexp.append('[');
+				if ((i < glob.length()) && (glob.charAt(i) == '^')) {
+					regexp.append("\\^");
+					i++;
+				} else if ((i < glob.length()) && (glob.charAt(i) == '!')) {
+					regexp.append('^');
+					i++;
+				}
+				boolean closed = false;
+				while (i < glob.length()) {
+					char inClass = glob.charAt(i++);
+					if (inClass == ']') {
+						closed = true;
+						break;
+					}
+					if ((inClass == '\\') || (inClass == '[')
+							|| ((inClass == '&') && (i < glob.length()) && (glob.charAt(i) == '&'))) {
+						regexp.append('\\');
+					}
+					regexp.append(inClass);
+				}
+				if (!closed) {
+					throw new PatternSyntaxException("Missing ']'", glob, i - 1);
+				}
+				regexp.append(']');
+				break;
+			case '{':
+				if (inGroup) {
+					throw new PatternSyntaxException("Cannot nest groups", glob, i - 1);
+				}
+				regexp.append("(?:(?:");
+				inGroup = true;
+				break;
+			case '}':
+				if (inGroup) {
+					regexp.append("))");
+					inGroup = false;
+				} else {
+					regexp.append('}');
+				}
+				break;
+			case ',':
+				regexp.append(inGroup ? ")|(?:" : ",");
+				break;
+			case '*':
+				// ** is the same as * when there are no separators
+				while ((i < glob.length()) && (glob.charAt(i) == '*')) {
+					i++;
+				}
+				regexp.append(".*");
+				break;
+			case '?':
+				regexp.append('.');
+				break;
+			default:
+				if (REGEXP_METACHARACTERS.indexOf(c) >= 0) {
+					regexp.append('\\');
+				}
+				regexp.append(c);
+			}
+		}
+		if (inGroup) {
+			throw new PatternSyntaxException("Missing '}'", glob, glob.length() - 1);
+		}
+		return regexp.append('$').toString();
+	}
+
+	private static boolean isLiteral(String regexp) {
+		for (int i = 0; i < regexp.length(); i++) {
+			if (REGEXP_METACHARACTERS.indexOf(regexp.charAt(i)) >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String normaliseExtension(String extension, boolean ignoreCase) {
+		String trimmed = extension.trim();
+		if (trimmed.startsWith(".")) {
+			trimmed = trimmed.substring(1);
+		}
+		if (trimmed.isEmpty()) {
+			throw new IllegalArgumentException("Extensions cannot be empty");
+		}
+		return ignoreCase ? trimmed.toLowerCase(Locale.ROOT) : trimmed;
+	}
+
+	/**
+	 * look up everything after each . in the name, starting with the shortest so
+	 * the usual single part extension is found first. Dots further back than the
+	 * longest extension can't match so they aren't looked at
+	 */
+	private static boolean hasExtension(String name, Set<String> extensions, int longestExtension,
+			boolean ignoreCase) {
+		int stopAt = Math.max(name.length() - longestExtension - 2, -1);
+		for (int dot = name.lastIndexOf('.'); dot > stopAt; dot = name.lastIndexOf('.', dot - 1)) {
+			String extension = name.substring(dot + 1);
+			if (extensions.contains(ignoreCase ? extension.toLowerCase(Locale.ROOT) : extension)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static NameMatcher getCached(String description) {
+		synchronized (CACHED_MATCHERS) {
+			return CACHED_MATCHERS.get(description);
+		}
+	}
+
+	private static NameMatcher cache(NameMatcher matcher) {
+		synchronized (CACHED_MATCHERS) {
+			CACHED_MATCHERS.put(matcher.description, matcher);
+		}
+		return matcher;
+	}
+}
@@ -0,0 +1,292 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.IOException;
+
+/**
+ * Formats whole numbers padded to a fixed width in any base from 2 to 36,
+ * appending them straight to a StringBuilder, Appendable or char[] so nothing
+ * is created along the way, which matters when formatting lots of numbers (e.g.
+ * writing reports).
+ * 
+ * Padding with '0' pads the digits, so the sign (if any) comes first and isn't
+ * counted in the width, for example -5 padded to 2 is -05 and 7 padded to 4 is
+ * 0007, this is how TextIOUtils.toTwoDigit and toFourDigit have always worked.
+ * Padding with any other character (usually a space) right aligns the whole
+ * number including the sign, for example -5 padded to 4 with spaces is "  -5".
+ * Numbers that need more than the width are never cut down. Digits above 9 are
+ * lower case letters.
+ */
+public final class PaddedNumberFormatter {
+	private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+	// the digits are worked out on the value as a negative number, that way
+	// Long.MIN_VALUE is fine. Place values at or below the limit for the radix
+	// can't be multiplied by it again without overflowing
+	private static final long[] PLACE_VALUE_LIMITS = new long[Character.MAX_RADIX + 1];
+	static {
+		for (int radix = Character.MIN_RADIX; radix <= Character.MAX_RADIX; radix++) {
+			PLACE_VALUE_LIMITS[radix] = Long.MIN_VALUE / radix;
+		}
+	}
+
+	private PaddedNumberFormatter() {
+	}
+
+	/**
+	 * append the value in base 10 padded with zeros to at least width digits
+	 * 
+	 * @param builder where to put it
+	 * @param value   the number
+	 * @param width   the minimum number of digits
+	 * @return the builder
+	 */
+	public static StringBuilder appendZeroPadded(StringBuilder builder, long value, int width) {
+		return appendPadded(builder, value, width, 10, '0');
+	}
+
+	/**
+	 * append the padded value
+	 * 
+	 * @param builder where to put it
+	 * @param value   the number
+	 * @param width   the width to pad to, see the class description for how the
+	 *                sign is handled
+	 * @param radix   the base, 2 to 36
+	 * @param padChar what to pad with
+	 * @return the builder
+	 * @throws IllegalArgumentException if the width is negative or the radix is
+	 *                                  out of range
+	 */
+	public static StringBuilder appendPadded(StringBuilder builder, long value, int width, int radix, char padChar) {
+		checkArguments(width, radix);
+		long negativeValue = value < 0 ? value : -value;
+		int digits = countDigits(negativeValue, radix);
+		int padding = getPadding(value, width, digits, padChar);
+		if ((padChar == '0') && (value < 0)) {
+			builder.append('-');
+		}
+		for (int i = 0; i < padding; i++) {
+			builder.append(padChar);
+		}
+		if ((padChar != '0') && (value < 0)) {
+			builder.append('-');
+		}
+		// make room for the digits then fill them in from the right
+		int end = builder.length() + digits;
+		builder.setLength(end);
+		if (negativeValue >= Integer.MIN_VALUE) {
+			// int division is a lot quicker than long
+			int remaining = (int) negativeValue;
+			for (int i = end - 1; i >= end - digits; i--) {
+				builder.setCharAt(i, DIGITS[-(remaining % radix)]);
+				remaining /= radix;
+			}
+		} else {
+			long remaining = negativeValue;
+			for (int i = end - 1; i >= end - digits; i--) {
+				builder.setCharAt(i, DIGITS[(int) -(remaining % radix)]);
+				remaining /= radix;
+			}
+		}
+		return builder;
+	}
+
+	/**
+	 * append the padded value to anything that can be appended to (e.g. a Writer),
+	 * if it's a StringBuilder the StringBuilder version is quicker
+	 * 
+	 * @param <A>     the type of the destination
+	 * @param out     where to put it
+	 * @param value   the number
+	 * @param width   the width to pad to, see the class description for how the
+	 *                sign is handled
+	 * @param radix   the base, 2 to 36
+	 * @param padChar what to pad with
+	 * @return out
+	 * @throws IOException              if out has a problem
+	 * @throws IllegalArgumentException if the width is negative or the radix is
+	 *                                  out of range
+	 */
+	public static <A extends Appendable> A appendPadded(A out, long value, int width, int radix, char padChar)
+			throws IOException {
+		checkArguments(width, radix);
+		long negativeValue = value < 0 ? value : -value;
+		int digits = countDigits(negativeValue, radix);
+		int padding = getPadding(value, width, digits, padChar);
+		if ((padChar == '0') && (value < 0)) {
+			out.append('-');
+		}
+		for (int i = 0; i < padding; i++) {
+			out.append(padChar);
+		}
+		if ((padChar != '0') && (value < 0)) {
+			out.append('-');
+		}
+		// an Appendable can only be added to, so the digits have to be worked out
+		// most significant first using the place value of each one
+		long placeValue = -1;
+		for (int i = 1; i < digits; i++) {
+			placeValue *= radix;
+		}
+		long remaining = negativeValue;
+		while (placeValue != 0) {
+			int digit = (int) (remaining / placeValue);
+			out.append(DIGITS[digit]);
+			remaining -= digit * placeValue;
+			placeValue /= radix;
+		}
+		return out;
+	}
+
+	/**
+	 * write the padded value into the buffer
+	 * 
+	 * @param buffer  where to put it
+	 * @param offset  where in the buffer to start
+	 * @param value   the number
+	 * @param width   the width to pad to, see the class description for how the
+	 *                sign is handled
+	 * @param radix   the base, 2 to 36
+	 * @param padChar what to pad with
+	 * @return the position in the buffer after the number
+	 * @throws IllegalArgumentException if the width is negative, the radix is out
+	 *                                  of range or the number won't fit in the
+	 *                                  buffer
+	 */
+	public static int formatPadded(char[] buffer, int offset, long value, int width, int radix, char padChar) {
+		checkArguments(width, radix);
+		long negativeValue = value < 0 ? value : -value;
+		int digits = countDigits(negativeValue, radix);
+		int padding = getPadding(value, width, digits, padChar);
+		int length = padding + digits + (value < 0 ? 1 : 0);
+		if ((offset < 0) || (offset + length > buffer.length)) {
+			throw new IllegalArgumentException("The formatted number needs " + length + " chars from position "
+					+ offset + " but the buffer is only " + buffer.length + " long");
+		}
+		int position = offset;
+		if ((padChar == '0') && (value < 0)) {
+			buffer[position++] = '-';
+		}
+		for (int i = 0; i < padding; i++) {
+			buffer[position++] = padChar;
+		}
+		if ((padChar != '0') && (value < 0)) {
+			buffer[position++] = '-';
+		}
+		int end = position + digits;
+		if (negativeValue >= Integer.MIN_VALUE) {
+			int remaining = (int) negativeValue;
+			for (int i = end - 1; i >= position; i--) {
+				buffer[i] = DIGITS[-(remaining % radix)];
+				remaining /= radix;
+			}
+		} else {
+			long remaining = negativeValue;
+			for (int i = end - 1; i >= position; i--) {
+				buffer[i] = DIGITS[(int) -(remaining % radix)];
+				remaining /= radix;
+			}
+		}
+		return end;
+	}
+
+	/**
+	 * how many chars the padded value will take
+	 * 
+	 * @param value   the number
+	 * @param width   the width to pad to
+	 * @param radix   the base, 2 to 36
+	 * @param padChar what to pad with
+	 * @return the number of chars
+	 */
+	public static int paddedLength(long value, int width, int radix, char padChar) {
+		checkArguments(width, radix);
+		int digits = countDigits(value < 0 ? value : -value, radix);
+		return getPadding(value, width, digits, padChar) + digits + (value < 0 ? 1 : 0);
+	}
+
+	/**
+	 * get the padded value as a string, if you're building up a bigger string use
+	 * one of the append methods instead
+	 * 
+	 * @param value   the number
+	 * @param width   the width to pad to, see the class description for how the
+	 *                sign is handled
+	 * @param radix   the base, 2 to 36
+	 * @param padChar what to pad with
+	 * @return the padded number
+	 */
+	public static String toPadded(long value, int width, int radix, char padChar) {
+		char[] buffer = new char[paddedLength(value, width, radix, padChar)];
+		formatPadded(buffer, 0, value, width, radix, padChar);
+		return new String(buffer);
+	}
+
+	private static void checkArguments(int width, int radix) {
+		if (width < 0) {
+			throw new IllegalArgumentException("The width can't be negative, it was " + width);
+		}
+		if ((radix < Character.MIN_RADIX) || (radix > Character.MAX_RADIX)) {
+			throw new IllegalArgumentException(
+					"The radix must be " + Character.MIN_RADIX + " to " + Character.MAX_RADIX + ", it was " + radix);
+		}
+	}
+
+	/**
+	 * counts by multiplying up the place values rather than dividing down the
+	 * value, multiplying is much quicker
+	 */
+	private static int countDigits(long negativeValue, int radix) {
+		long limit = PLACE_VALUE_LIMITS[radix];
+		long placeValue = -radix;
+		int digits = 1;
+		while (negativeValue <= placeValue) {
+			digits++;
+			if (placeValue < limit) {
+				break;
+			}
+			placeValue *= radix;
+		}
+		return digits;
+	}
+
+	private static int getPadding(long value, int width, int digits, char padChar) {
+		int used = (padChar == '0') || (value >= 0) ? digits : digits + 1;
+		return Math.max(0, width - used);
+	}
+}
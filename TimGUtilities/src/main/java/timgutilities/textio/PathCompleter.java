@@ -0,0 +1,150 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Completes partly entered paths for getFile, getFileUnder and getDirectory in
+ * much the same way a shell does when tab is pressed. The directory the partial
+ * name is in is listed through the DirectoryListingCache so completing several
+ * times in the same directory (or going back to it) doesn't list it again.
+ */
+final class PathCompleter {
+	// more than this and the user probably needs to type a bit more before the list
+	// is useful
+	private static final int MAX_CANDIDATES_SHOWN = 50;
+
+	private PathCompleter() {
+	}
+
+	/**
+	 * Complete the partial path as far as it can be, if there is more than one
+	 * possible entry they are output so the user can see what to type next
+	 * 
+	 * @param partial        what has been typed so far (without the completion
+	 *                       token)
+	 * @param startLocation  if not null the partial path is relative to this
+	 * @param listFilterType what the path can be completed with, for directories
+	 *                       this is DIRECTORY_ONLY
+	 * @param nameMatcher    if not null files are only completed with if they
+	 *                       match it, directories are always offered as the file
+	 *                       may be further down
+	 * @return the completed text, this is the partial text if it can't be
+	 *         completed any further
+	 */
+	static String complete(String partial, String startLocation, DirectoryListFilterType listFilterType,
+			NameMatcher nameMatcher) {
+		int lastSeparator = Math.max(partial.lastIndexOf('/'), partial.lastIndexOf(File.separatorChar));
+		String dirPart = partial.substring(0, lastSeparator + 1);
+		String prefix = partial.substring(lastSeparator + 1);
+		Path dir;
+		try {
+			String dirName = dirPart.isEmpty() ? "." : dirPart;
+			dir = startLocation == null ? Path.of(dirName) : Path.of(startLocation, dirName);
+		} catch (InvalidPathException e) {
+			TextIOUtils.doOutput("Can't complete " + partial + ", " + e.getMessage());
+			return partial;
+		}
+		if (!Files.isDirectory(dir)) {
+			TextIOUtils.doOutput("Can't complete " + partial + ", " + dirName(dirPart) + " is not a directory");
+			return partial;
+		}
+		// like a shell only show hidden entries if the user has started typing one
+		boolean excludeHiddenFiles = !prefix.startsWith(".");
+		boolean ignoreCase = File.separatorChar == '\\';
+		List<DirectoryEntry> candidates = DirectoryListingCache.getInstance()
+				.getListing(dir, listFilterType, DirectoryListOrderType.JUST_BY_NAME, excludeHiddenFiles, nameMatcher,
+						true)
+				.stream().filter(entry -> entry.getName().regionMatches(ignoreCase, 0, prefix, 0, prefix.length()))
+				.toList();
+		if (candidates.isEmpty()) {
+			TextIOUtils.doOutput("Nothing in " + dirName(dirPart) + " starts with " + prefix);
+			return partial;
+		}
+		if (candidates.size() == 1) {
+			DirectoryEntry only = candidates.get(0);
+			// if it's a directory add the separator so the user can carry on into it
+			return dirPart + only.getName() + (only.getType() == DirectoryEntry.Type.DIRECTORY ? File.separator : "");
+		}
+		showCandidates(candidates);
+		return dirPart + commonPrefix(candidates, prefix, ignoreCase);
+	}
+
+	private static String dirName(String dirPart) {
+		return dirPart.isEmpty() ? "the current directory" : dirPart;
+	}
+
+	/**
+	 * work out how far all of the candidates agree, they all start with the prefix
+	 * so that's the least it can be
+	 */
+	private static String commonPrefix(List<DirectoryEntry> candidates, String prefix, boolean ignoreCase) {
+		String common = candidates.get(0).getName();
+		int length = common.length();
+		for (DirectoryEntry candidate : candidates) {
+			String name = candidate.getName();
+			length = Math.min(length, name.length());
+			for (int i = prefix.length(); i < length; i++) {
+				if (!common.regionMatches(ignoreCase, i, name, i, 1)) {
+					length = i;
+					break;
+				}
+			}
+		}
+		// keep what the user typed if the case was ignored
+		return prefix + common.substring(prefix.length(), length);
+	}
+
+	private static void showCandidates(List<DirectoryEntry> candidates) {
+		StringBuilder shown = new StringBuilder("Possible completions are");
+		int count = Math.min(candidates.size(), MAX_CANDIDATES_SHOWN);
+		for (int i = 0; i < count; i++) {
+			DirectoryEntry candidate = candidates.get(i);
+			shown.append('\n').append(candidate.getName())
+					.append(candidate.getType() == DirectoryEntry.Type.DIRECTORY ? File.separator : "");
+		}
+		if (candidates.size() > count) {
+			shown.append("\n... and ").append(candidates.size() - count).append(" more");
+		}
+		TextIOUtils.doOutput(shown.toString());
+	}
+}
@@ -0,0 +1,170 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses one end of a date or date time range, this can be an ISO date or date
+ * time, now or today, or relative to now e.g. -24h or +2w. The units are s
+ * (seconds), m (minutes), h (hours), d (days), w (weeks), mo (months) and y
+ * (years), dates can only use d, w, mo and y.
+ * 
+ * Days and longer are calendar based, so -1d is the same local time yesterday
+ * even if daylight saving changed overnight, hours and shorter are exact.
+ */
+final class RelativeDateTimeParser {
+	private static final Pattern RELATIVE_PATTERN = Pattern.compile("([+-])\\s*(\\d{1,9})\\s*(s|m|h|d|w|mo|y)");
+
+	private RelativeDateTimeParser() {
+	}
+
+	/**
+	 * @param text   what was entered for this end of the range
+	 * @param today  what relative dates are relative to
+	 * @param parser to parse ISO dates with
+	 * @return the date
+	 * @throws IllegalArgumentException if the text isn't a date, the message says
+	 *                                  why
+	 */
+	static LocalDate parseDate(String text, LocalDate today, ISODateTimeParser parser) {
+		String trimmed = text.strip().toLowerCase(Locale.ROOT);
+		if (trimmed.equals("today")) {
+			return today;
+		}
+		Matcher matcher = RELATIVE_PATTERN.matcher(trimmed);
+		if (matcher.matches()) {
+			long amount = getAmount(matcher);
+			switch (matcher.group(3)) {
+			case "d":
+				return today.plusDays(amount);
+			case "w":
+				return today.plusWeeks(amount);
+			case "mo":
+				return today.plusMonths(amount);
+			case "y":
+				return today.plusYears(amount);
+			default:
+				throw new IllegalArgumentException("dates can only be relative in d, w, mo or y, not " + trimmed);
+			}
+		}
+		if (!parser.parseDate(trimmed)) {
+			throw new IllegalArgumentException(text.strip() + " isn't a date, " + parser.getError());
+		}
+		if (!parser.isDateComplete()) {
+			throw new IllegalArgumentException(text.strip() + " isn't a complete date");
+		}
+		return parser.toLocalDate();
+	}
+
+	/**
+	 * @param text   what was entered for this end of the range
+	 * @param now    what relative times are relative to, times without an offset or
+	 *               zone are in its zone
+	 * @param isEnd  if this is the end of the range a date on its own means the end
+	 *               of that day, otherwise the start of it
+	 * @param parser to parse ISO date times with
+	 * @return the date time
+	 * @throws IllegalArgumentException if the text isn't a date time, the message
+	 *                                  says why
+	 */
+	static ZonedDateTime parseDateTime(String text, ZonedDateTime now, boolean isEnd, ISODateTimeParser parser) {
+		String trimmed = text.strip();
+		String lowerCase = trimmed.toLowerCase(Locale.ROOT);
+		if (lowerCase.equals("now")) {
+			return now;
+		}
+		if (lowerCase.equals("today")) {
+			return atDayBoundary(now.toLocalDate(), now, isEnd);
+		}
+		Matcher matcher = RELATIVE_PATTERN.matcher(lowerCase);
+		if (matcher.matches()) {
+			long amount = getAmount(matcher);
+			switch (matcher.group(3)) {
+			case "s":
+				return now.plus(Duration.ofSeconds(amount));
+			case "m":
+				return now.plus(Duration.ofMinutes(amount));
+			case "h":
+				return now.plus(Duration.ofHours(amount));
+			case "d":
+				return now.plusDays(amount);
+			case "w":
+				return now.plusWeeks(amount);
+			case "mo":
+				return now.plusMonths(amount);
+			default:
+				return now.plusYears(amount);
+			}
+		}
+		if (!parser.parseDateTime(trimmed)) {
+			throw new IllegalArgumentException(trimmed + " isn't a date time, " + parser.getError());
+		}
+		if (!parser.isDateComplete()) {
+			throw new IllegalArgumentException(trimmed + " isn't a complete date");
+		}
+		if (!parser.isTimeComplete()) {
+			return atDayBoundary(parser.toLocalDate(), now, isEnd);
+		}
+		LocalDateTime dateTime = parser.toLocalDateTime();
+		if (!parser.isZoneEntered()) {
+			return ZonedDateTime.of(dateTime, now.getZone());
+		}
+		try {
+			return parser.toZonedDateTime(dateTime);
+		} catch (DateTimeException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+
+	private static ZonedDateTime atDayBoundary(LocalDate date, ZonedDateTime now, boolean isEnd) {
+		return isEnd ? ZonedDateTime.of(date, LocalTime.MAX, now.getZone()) : date.atStartOfDay(now.getZone());
+	}
+
+	private static long getAmount(Matcher matcher) {
+		long amount = Long.parseLong(matcher.group(2));
+		return matcher.group(1).equals("-") ? -amount : amount;
+	}
+}
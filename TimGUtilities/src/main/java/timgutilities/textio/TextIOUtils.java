@@ -40,10 +40,16 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -51,19 +57,28 @@ import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.SortedSet;
 import java.util.TimeZone;
-import java.util.TreeSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import timgutilities.textio.DirectoryEntry.Type;
 
@@ -88,6 +103,7 @@ public class TextIOUtils {
 
 	private static String defaltPauseString = "Please press enter or return to continue";
 	private static BufferedReader br;
+	private static final int EXPECTED_DIRECTORY_ENTRIES = 64; // this is just to minimize array resizing
 
 	/**
 	 * Lets you set the default string to be displayed when pausing
@@ -470,6 +486,129 @@ public class TextIOUtils {
 		}
 	}
 
+	/**
+	 * Displays the prompt, then the choices in the choiceDescriptionData in the
+	 * same way as getIntChoice, but the user can enter a list of choice numbers
+	 * and ranges rather than just a single number, for example 3-25 or 1,4,7-9
+	 * 
+	 * If there is a default option and the user just presses return then that is
+	 * returned as a single choice.
+	 * 
+	 * @param prompt                the prompt to use when asking for input
+	 * @param choiceDescriptionData the options to be presented, if there is only
+	 *                              one item in the choiceDescriptionData then it
+	 *                              will be automatically selected
+	 * @return the ranges that were entered in the order they were entered, each is
+	 *         a two element array of the first and last choice numbers (inclusive),
+	 *         so a single number n is {n, n}
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 */
+	public static List<int[]> getIntChoiceRanges(String prompt, ChoiceDescriptionData<?> choiceDescriptionData)
+			throws IOException {
+		if (choiceDescriptionData == null) {
+			throw new IllegalArgumentException("ChoiceDescriptionData cannot be null");
+		}
+		int choicesCount = choiceDescriptionData.length();
+		if (choicesCount == 0) {
+			throw new IOException("Must provide at least once choice option");
+		}
+		// if there is only one option then return it automatically
+		if (choicesCount == 1) {
+			doOutput("Only option " + choiceDescriptionData.getChoice(0) + " is available, selecting it for you");
+			return List.of(new int[] { 0, 0 });
+		}
+		String processedPrompt = prompt;
+		if (processedPrompt == null) {
+			processedPrompt = "Please chose from";
+		}
+		processedPrompt = processedPrompt + "\nOptions are ";
+		processedPrompt += choiceDescriptionData.getChoicesString();
+		processedPrompt += "\nEnter a number, a range (e.g. 3-25) or a list (e.g. 1,4,7-9)";
+		Integer defaultIndex = choiceDescriptionData.getDefaultOptionNumber();
+		while (true) {
+			String input = getString(processedPrompt, defaultIndex == null ? null : defaultIndex.toString());
+			try {
+				return parseChoiceRanges(input, 0, choicesCount - 1);
+			} catch (IllegalArgumentException e) {
+				System.out.println("Invalid input, " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * parse a list of numbers and ranges like 1,4,7-9
+	 * 
+	 * @throws IllegalArgumentException if the input isn't valid or is outside the
+	 *                                  limits, the message says what's wrong
+	 */
+	static List<int[]> parseChoiceRanges(String input, int lower, int upper) {
+		List<int[]> ranges = new ArrayList<>();
+		for (String part : input.split(",")) {
+			String trimmed = part.trim();
+			if (trimmed.isEmpty()) {
+				continue;
+			}
+			// start from 1 so a leading - isn't treated as a range
+			int dash = trimmed.indexOf('-', 1);
+			int first;
+			int last;
+			try {
+				if (dash < 0) {
+					first = Integer.parseInt(trimmed);
+					last = first;
+				} else {
+					first = Integer.parseInt(trimmed.substring(0, dash).trim());
+					last = Integer.parseInt(trimmed.substring(dash + 1).trim());
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(trimmed + " is not a number or range of numbers");
+			}
+			if (first > last) {
+				throw new IllegalArgumentException("the range " + trimmed + " is backwards");
+			}
+			if ((first < lower) || (last > upper)) {
+				throw new IllegalArgumentException("must be >= " + lower + " and <= " + upper);
+			}
+			ranges.add(new int[] { first, last });
+		}
+		if (ranges.isEmpty()) {
+			throw new IllegalArgumentException("you must enter at least one number");
+		}
+		return ranges;
+	}
+
+	/**
+	 * if the user just entered a single number (not a range or list) get it
+	 * 
+	 * @return the number, or -1 if it was more than a single number
+	 */
+	static int getSingleChoice(List<int[]> ranges) {
+		if ((ranges.size() == 1) && (ranges.get(0)[0] == ranges.get(0)[1])) {
+			return ranges.get(0)[0];
+		}
+		return -1;
+	}
+
+	/**
+	 * select all of the choices in the ranges, unless they are all already
+	 * selected in which case unselect them. The multi choice complete option and
+	 * anything not selectable is ignored
+	 */
+	static <P> void selectChoiceRanges(ChoiceDescriptionData<P> choiceDescriptionData, List<int[]> ranges) {
+		List<ChoiceDescription<P>> inRanges = new ArrayList<>();
+		for (int[] range : ranges) {
+			for (int i = range[0]; i <= range[1]; i++) {
+				ChoiceDescription<P> cd = choiceDescriptionData.getChoiceDescription(i);
+				if (!choiceDescriptionData.isMultiChoiceComplete(i) && !cd.isNotSelectable()) {
+					inRanges.add(cd);
+				}
+			}
+		}
+		boolean allSelected = inRanges.stream().allMatch(ChoiceDescription::isSelected);
+		inRanges.forEach(cd -> cd.setSelected(!allSelected));
+	}
+
 	/**
 	 * 
 	 * Displays the prompt, then the strings in the options array. The user is
@@ -2075,6 +2214,59 @@ public class TextIOUtils {
 		return result;
 	}
 
+	private static String pathCompletionToken = "\t";
+
+	/**
+	 * When entering a file or directory name (getFile, getFileUnder, getFileMatching
+	 * and getDirectory) ending the input with this token asks for what has been
+	 * typed so far to be completed, in the same way as pressing tab does in a
+	 * shell. If there is only one entry it could be then it's filled in, if there
+	 * are several they are listed and the input is filled in as far as they all
+	 * agree. The completed path is then offered as the default, so just pressing
+	 * return accepts it.
+	 * 
+	 * The default token is the tab character, as the input is read a line at a
+	 * time that means typing the partial name then tab then return.
+	 * 
+	 * @param token the completion token, an empty string disables completion
+	 */
+	public static void setPathCompletionToken(String token) {
+		if (token == null) {
+			throw new IllegalArgumentException("The path completion token cannot be null, use \"\" to disable it");
+		}
+		pathCompletionToken = token;
+	}
+
+	/**
+	 * gets the token that triggers path completion
+	 * 
+	 * @return the token, empty if completion is disabled
+	 */
+	public static String getPathCompletionToken() {
+		return pathCompletionToken;
+	}
+
+	/**
+	 * ask for a path, if the input ends with the completion token then complete it
+	 * and ask again with the completed path as the default, if there is a
+	 * nameMatcher the files it's completed with have to match it
+	 */
+	private static String getPathString(String prompt, String defaultValue, String startLocation,
+			DirectoryListFilterType listFilterType, NameMatcher nameMatcher) throws IOException {
+		String currentDefault = defaultValue;
+		while (true) {
+			String name = getString(prompt, currentDefault);
+			String token = pathCompletionToken;
+			if (token.isEmpty() || !name.endsWith(token)) {
+				return name;
+			}
+			String completed = PathCompleter.complete(name.substring(0, name.length() - token.length()),
+					startLocation, listFilterType, nameMatcher);
+			// an empty default would just get returned, so only offer it if there is something
+			currentDefault = completed.isEmpty() ? defaultValue : completed;
+		}
+	}
+
 	/**
 	 * Asks the user to enter a string representing a file name and path which can
 	 * be relative or absolute, ensures that the entered string represents an
@@ -2103,11 +2295,13 @@ public class TextIOUtils {
 	 */
 	public static String getFile(String prompt, String defaultValue) throws IOException {
 		while (true) {
-			String name = getString(prompt, defaultValue);
+			String name = getPathString(prompt, defaultValue, null, DirectoryListFilterType.DIRECTORY_AND_FILE,
+					null);
 			File file = new File(name);
 			if (file.isFile()) {
 				return name;
 			}
+			doOutput("File name " + name + " is not a file");
 		}
 	}
 
@@ -2143,11 +2337,13 @@ public class TextIOUtils {
 	 */
 	public static String getFileUnder(String prompt, String startLocation, String defaultValue) throws IOException {
 		while (true) {
-			String name = getString(prompt, defaultValue);
+			String name = getPathString(prompt, defaultValue, startLocation,
+					DirectoryListFilterType.DIRECTORY_AND_FILE, null);
 			File file = new File(startLocation + File.separator + name);
 			if (file.isFile()) {
 				return name;
 			}
+			doOutput("File name " + name + " is not a file under " + startLocation);
 		}
 	}
 
@@ -2167,7 +2363,27 @@ public class TextIOUtils {
 	 *                     or reading the input
 	 */
 	public static String getFileMatching(String prompt, String regexp) throws IOException {
-		return getFile(prompt, regexp, null);
+		return getFile(prompt, NameMatcher.regexp(regexp), null);
+	}
+
+	/**
+	 * Asks the user to enter a string representing a file name and path which can
+	 * be absolute or relative to the starting location where the filename element
+	 * (last part of the path) must match the name matcher, ensures that the entered
+	 * string represents an existing file (not a directory) if it's not a file then
+	 * requests another go
+	 * 
+	 * @param prompt      the prompt to use when asking for input
+	 * @param nameMatcher the filename must match this, for example
+	 *                    NameMatcher.extensions("xml", "xsd"), if null any entered
+	 *                    name will match
+	 * @return the entered string this will represent a file
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 * @see NameMatcher
+	 */
+	public static String getFileMatchedBy(String prompt, NameMatcher nameMatcher) throws IOException {
+		return getFile(prompt, nameMatcher, null);
 	}
 
 	/**
@@ -2189,28 +2405,46 @@ public class TextIOUtils {
 	 *                     or reading the input
 	 */
 	public static String getFileMatching(String prompt, String regexp, String defaultValue) throws IOException {
-		return getFile(prompt, regexp, defaultValue);
+		return getFile(prompt, NameMatcher.regexp(regexp), defaultValue);
 	}
 
-	private static String getFile(String prompt, String regexp, String defaultValue) throws IOException {
-		Pattern p = null;
-		if (regexp != null) {
-			p = Pattern.compile(regexp);
-		}
+	/**
+	 * Asks the user to enter a string representing a file name and path which can
+	 * be absolute or relative to the starting location where the filename element
+	 * (last part of the path) must match the name matcher, ensures that the entered
+	 * string represents an existing file (not a directory) if it's not a file then
+	 * requests another go, if the user enters and empty string then the
+	 * defaultValue is used.
+	 * 
+	 * @param prompt       the prompt to use when asking for input
+	 * @param nameMatcher  if non null then the filename must match this
+	 * @param defaultValue the default name if the user just presses return
+	 * @return the entered string this will represent a file
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 * @see NameMatcher
+	 */
+	public static String getFileMatchedBy(String prompt, NameMatcher nameMatcher, String defaultValue)
+			throws IOException {
+		return getFile(prompt, nameMatcher, defaultValue);
+	}
+
+	private static String getFile(String prompt, NameMatcher nameMatcher, String defaultValue) throws IOException {
 		while (true) {
-			String name = getString(prompt, defaultValue);
+			String name = getPathString(prompt, defaultValue, null, DirectoryListFilterType.DIRECTORY_AND_FILE,
+					nameMatcher);
 			File file = new File(name);
 			// check it's a file
 			if (!file.isFile()) {
 				doOutput("File name " + name + " is not a file");
 				continue;
 			}
-			// check if it matched the regexp if provided
-			if (p != null) {
+			// check if it matched the name matcher if provided
+			if (nameMatcher != null) {
 				String fileName = file.getName();
-				Matcher matcher = p.matcher(fileName);
-				if (!matcher.find()) {
-					doOutput("File name part of " + name + " (" + fileName + ") does not match pattern " + regexp);
+				if (!nameMatcher.matches(fileName)) {
+					doOutput("File name part of " + name + " (" + fileName + ") does not match pattern "
+							+ nameMatcher);
 					continue;
 				}
 			}
@@ -2246,9 +2480,10 @@ public class TextIOUtils {
 	 */
 	public static String getDirectory(String prompt, String defaultValue) throws IOException {
 		while (true) {
-			String name = getString(prompt, defaultValue);
+			String name = getPathString(prompt, defaultValue, null, DirectoryListFilterType.DIRECTORY_ONLY, null);
 			File file = new File(name);
 			if (!file.isDirectory()) {
+				doOutput("Directory name " + name + " is not a directory");
 				continue;
 			}
 			return name;
@@ -2520,7 +2755,8 @@ public class TextIOUtils {
 	 */
 	public static List<String> listDirectoryNames(Path dir, DirectoryListFilterType listFilterType,
 			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles) {
-		return listDirectoryEntriesAsString(dir, listFilterType, listOrderType, excludeHiddenFiles, null, true, false);
+		return listDirectoryEntriesAsStringMatching(dir, listFilterType, listOrderType, excludeHiddenFiles, null, true,
+				false);
 	}
 
 	/**
@@ -2768,7 +3004,7 @@ public class TextIOUtils {
 	 */
 	public static List<String> listDirectoryNameTypes(Path dir, DirectoryListFilterType listFilterType,
 			DirectoryListOrderType listOrderType) {
-		return listDirectoryEntriesAsString(dir, listFilterType, listOrderType, true, null, true, true);
+		return listDirectoryEntriesAsStringMatching(dir, listFilterType, listOrderType, true, null, true, true);
 	}
 
 	/**
@@ -2789,7 +3025,8 @@ public class TextIOUtils {
 	 */
 	public static List<String> listDirectoryNameTypes(Path dir, DirectoryListFilterType listFilterType,
 			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles) {
-		return listDirectoryEntriesAsString(dir, listFilterType, listOrderType, excludeHiddenFiles, null, true, true);
+		return listDirectoryEntriesAsStringMatching(dir, listFilterType, listOrderType, excludeHiddenFiles, null, true,
+				true);
 	}
 
 	/**
@@ -2897,8 +3134,38 @@ public class TextIOUtils {
 	public static List<String> listDirectoryEntriesAsString(Path dir, DirectoryListFilterType listFilterType,
 			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, String regexp, boolean regexpFilesOnly,
 			boolean nameAndType) {
-		List<DirectoryEntry> entries = listDirectoryEntries(dir, listFilterType, listOrderType, excludeHiddenFiles,
-				regexp, regexpFilesOnly);
+		return listDirectoryEntriesAsStringMatching(dir, listFilterType, listOrderType, excludeHiddenFiles,
+				NameMatcher.regexp(regexp), regexpFilesOnly, nameAndType);
+	}
+
+	/**
+	 * From the given directory list the directory entries as strings subject to the
+	 * controls
+	 * 
+	 * @param dir                directory to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true then entries with as determined as hidden
+	 *                           by the OS (e.g. starting with . in Unix / Linux /
+	 *                           MacOS, hidden flag for windows) are removed from
+	 *                           the list
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries, for example NameMatcher.glob("*.java")
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @param nameAndType        if true then the name and type will be in the
+	 *                           result (e.g. tim.txt (File)), if false only the name
+	 *                           (e.g. tim.txt)
+	 * @return the names only or names + type (see nameAndType flag)
+	 * @see NameMatcher
+	 * @see DirectoryListFilterType
+	 * @see DirectoryListOrderType
+	 */
+	public static List<String> listDirectoryEntriesAsStringMatching(Path dir, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly, boolean nameAndType) {
+		List<DirectoryEntry> entries = listDirectoryEntriesMatching(dir, listFilterType, listOrderType,
+				excludeHiddenFiles, nameMatcher, matchFilesOnly);
 		return entries.stream().map(entry -> {
 			if (nameAndType) {
 				return entry.getNameType();
@@ -2973,178 +3240,1077 @@ public class TextIOUtils {
 	 */
 	public static List<DirectoryEntry> listDirectoryEntries(Path dir, DirectoryListFilterType listFilterType,
 			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, String regexp, boolean regexpFilesOnly) {
-		SortedSet<DirectoryEntry> fileEntries = new TreeSet<>();
-		SortedSet<DirectoryEntry> directoryEntries = new TreeSet<>();
-		Pattern regexpPattern = regexp != null ? Pattern.compile(regexp) : null;
+		return listDirectoryEntriesMatching(dir, listFilterType, listOrderType, excludeHiddenFiles,
+				NameMatcher.regexp(regexp), regexpFilesOnly);
+	}
 
+	/**
+	 * From the given directory list the directory contents as directory entries
+	 * subject to the controls.
+	 * 
+	 * The nameMatcher is checked before anything else is read about the entry, so
+	 * entries it rejects cost very little, this makes a big difference when only a
+	 * few entries in a big directory are wanted
+	 * 
+	 * @param dir                directory to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true then entries with as determined as hidden
+	 *                           by the OS (e.g. starting with . in Unix / Linux /
+	 *                           MacOS, hidden flag for windows) are removed from
+	 *                           the list
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries, for example
+	 *                           NameMatcher.extensions("java", "xml")
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @return list of matching entries ordered as requested
+	 * @see NameMatcher
+	 * @see DirectoryListFilterType
+	 * @see DirectoryListOrderType
+	 */
+	public static List<DirectoryEntry> listDirectoryEntriesMatching(Path dir, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly) {
+		return listDirectoryEntriesWithin(dir, listFilterType, listOrderType, excludeHiddenFiles, nameMatcher,
+				matchFilesOnly, null);
+	}
+
+	/**
+	 * as listDirectoryEntriesMatching, but each entry read from the directory is
+	 * taken from the budget (which can be shared between several listings), if it
+	 * runs out the listing stops there and then without reading the rest of the
+	 * directory
+	 * 
+	 * @param entriesBudget the number of entries that can be read, null for no
+	 *                      limit
+	 * @return list of matching entries ordered as requested, or null if the budget
+	 *         ran out
+	 */
+	static List<DirectoryEntry> listDirectoryEntriesWithin(Path dir, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly, AtomicInteger entriesBudget) {
+		List<DirectoryEntry> entries = new ArrayList<>(EXPECTED_DIRECTORY_ENTRIES);
+		if (!dir.getFileSystem().isOpen()) {
+			// e.g. an archive that's been closed, not all providers check this
+			// themselves before listing
+			System.err.println("Can't list " + dir + ", its file system has been closed");
+			return entries;
+		}
+		boolean dosAttributes = isUsingDosAttributes(dir);
 		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
 			for (Path p : stream) {
-				String name = p.getFileName().toString();
-				if (excludeHiddenFiles && Files.isHidden(p)) {
-					// we're excluding them and they are hidden, so just go round again
-					continue;
-				}
-				// is is a directory ?
-				if (Files.isDirectory(p)) {
-					if (listFilterType.isIncludeDirectories()) {
-						boolean addit = false;
-						// are we looking for a regexp and if so are we checking directory entries with
-						// it ?
-						if ((regexpPattern != null) && !regexpFilesOnly) {
-							if (regexpPattern.matcher(name).find()) {
-								addit = true;
-							}
-						} else {
-							// no regexp or we're not checking directoryies, either way just add it
-							addit = true;
-						}
-						if (addit) {
-							directoryEntries.add(new DirectoryEntry(name, DirectoryEntry.Type.DIRECTORY, p));
-						}
-					}
-					continue;
+				if ((entriesBudget != null) && (entriesBudget.decrementAndGet() < 0)) {
+					return null;
 				}
-				if (Files.isRegularFile(p)) {
-					if (listFilterType.isIncludeFiles()) {
-						boolean addit = false;
-						// are we looking for a regexp ?
-						if (regexpPattern != null) {
-							if (regexpPattern.matcher(name).find()) {
-								addit = true;
-							}
-						} else {
-							// no regexp just add it
-							addit = true;
-						}
-						if (addit) {
-							fileEntries.add(new DirectoryEntry(name, DirectoryEntry.Type.FILE, p));
-						}
-					}
-					continue;
+				DirectoryEntry entry = readDirectoryEntry(dir, p, listFilterType, excludeHiddenFiles, dosAttributes,
+						nameMatcher, matchFilesOnly);
+				if (entry != null) {
+					entries.add(entry);
 				}
-				// not a directory or file, no logic to handle it needed
 			}
 		} catch (IOException | DirectoryIteratorException x) {
 			// IOException can never be thrown by the iteration.
 			// In this snippet, it can only be thrown by newDirectoryStream.
 			System.err.println(x);
 		}
-		// now work out how to combine the results, if one type was excluded it won't
-		// have been added to it's set, so this is an ordering process, not a which set
-		// to
-		// include process
-		List<DirectoryEntry> finalList = new LinkedList<>();
-		switch (listOrderType) {
-		case DIRECTORIES_FIRST:
-			finalList.addAll(directoryEntries);
-			finalList.addAll(fileEntries);
-			break;
-		case FILES_FIRST:
-			finalList.addAll(fileEntries);
-			finalList.addAll(directoryEntries);
-			break;
-		case JUST_BY_NAME:
-		default:
-			// if there is an additional enum problem just do both
-			finalList.addAll(fileEntries);
-			finalList.addAll(directoryEntries);
-			Collections.sort(finalList);
-			break;
-		}
-		return finalList;
+		// the order type knows how to combine the files and directories, so one sort
+		// does the lot
+		entries.sort(listOrderType.getComparator());
+		return entries;
 	}
 
 	/**
-	 * From the given directory list the directory entries as strings subject to the
-	 * controls
+	 * From the given directory list a page of the directory contents as directory
+	 * entries subject to the controls. For example with a firstEntry of 0 and
+	 * maxEntries of 500 this will return the first 500 entries in the requested
+	 * order.
 	 * 
-	 * @param dir                 directory to list
-	 * @param listFilterType      what entries to return (sub dirs, files or both)
-	 * @param listOrderType       how the resulting entries should be ordered
-	 * @param excludeHiddenFiles  if true then entries with as determined as hidden
-	 *                            by the OS (e.g. starting with . in Unix / Linux /
-	 *                            MacOS, hidden flag for windows) are removed from
-	 *                            the list
-	 * @param regexp              if provided is used to only select matching
-	 *                            entries, for example files ending in .java
-	 * @param regexpFilesOnly     does the regexp apply to both directories and
-	 *                            files or just files
-	 * @param nameAndType         if true then the name and type will be in the
-	 *                            result (e.g. tim.txt (File)), if false only the
-	 *                            name (e.g. tim.txt)
-	 * @param addAbandon          If true then the abandon option will be added at
-	 *                            the end of the list and made the default
-	 * @param addCurrentDirectory If true then an entry will be made for the current
-	 *                            directory (".")
-	 * @param addParentDirectory  If true then an entry will be made for the parent
-	 *                            directory ("..")
-	 * @return the ChoiceDescriptionData object which is ready to be used.
+	 * Unlike the other list methods this never holds the full listing, only the
+	 * firstEntry + maxEntries entries that would come first are kept while the
+	 * directory is being scanned, so it can be used on directories with millions of
+	 * entries (spool directories and the like) without running out of memory. The
+	 * whole directory still has to be scanned to get the order right though, if you
+	 * want the entries as soon as they are found use streamDirectoryEntries
+	 * 
+	 * @param dir                directory to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true then entries with as determined as hidden
+	 *                           by the OS (e.g. starting with . in Unix / Linux /
+	 *                           MacOS, hidden flag for windows) are removed from
+	 *                           the list
+	 * @param regexp             if provided is used to only select matching
+	 *                           entries, for example files ending in .java
+	 * @param regexpFilesOnly    does the regexp apply to both directories and files
+	 *                           or just files
+	 * @param firstEntry         how many of the ordered entries to skip, 0 to start
+	 *                           at the beginning
+	 * @param maxEntries         the maximum number of entries to return
+	 * @return list of up to maxEntries matching entries ordered as requested, this
+	 *         will be empty if firstEntry is past the end of the listing
 	 * @see DirectoryListFilterType
 	 * @see DirectoryListOrderType
 	 */
-	public static ChoiceDescriptionData<DirectoryEntry> buildChoiceDescriptionDataFromDirectory(String dir,
-			DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
-			String regexp, boolean regexpFilesOnly, boolean nameAndType, boolean addAbandon,
-			boolean addCurrentDirectory, boolean addParentDirectory) {
-		return buildChoiceDescriptionDataFromDirectory(Path.of(dir), listFilterType, listOrderType, excludeHiddenFiles,
-				regexp, regexpFilesOnly, nameAndType, addAbandon, addCurrentDirectory, addParentDirectory);
+	public static List<DirectoryEntry> listDirectoryEntries(Path dir, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, String regexp, boolean regexpFilesOnly,
+			int firstEntry, int maxEntries) {
+		return listDirectoryEntriesMatching(dir, listFilterType, listOrderType, excludeHiddenFiles,
+				NameMatcher.regexp(regexp), regexpFilesOnly, firstEntry, maxEntries);
 	}
 
 	/**
-	 * String to be used as the name for the entry for the current directory
-	 */
-	public static String currentDirectoryName = ".";
-
-	/**
-	 * getter for currentDirectoryName
+	 * From the given directory list a page of the directory contents as directory
+	 * entries subject to the controls, only holding the entries that are needed
+	 * while the directory is scanned.
 	 * 
-	 * @return the value of currentDirectoryName
+	 * See the regexp version of this method for more details
+	 * 
+	 * @param dir                directory to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true hidden entries are removed from the list
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @param firstEntry         how many of the ordered entries to skip, 0 to start
+	 *                           at the beginning
+	 * @param maxEntries         the maximum number of entries to return
+	 * @return list of up to maxEntries matching entries ordered as requested
+	 * @see NameMatcher
+	 * @see DirectoryListFilterType
+	 * @see DirectoryListOrderType
 	 */
-	public String getCurrentDirectoryName() {
-		return currentDirectoryName;
+	public static List<DirectoryEntry> listDirectoryEntriesMatching(Path dir, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly, int firstEntry, int maxEntries) {
+		if ((firstEntry < 0) || (maxEntries < 0)) {
+			throw new IllegalArgumentException("firstEntry and maxEntries cannot be negative");
+		}
+		return listDirectoryPage(dir, listFilterType, listOrderType, excludeHiddenFiles, nameMatcher, matchFilesOnly,
+				null, firstEntry, maxEntries);
 	}
 
 	/**
-	 * setter for currentDirectoryName
-	 * 
-	 * Be very careful using this to ensure you don;t use a valid entry name
+	 * as the paged listDirectoryEntriesMatching, but the page is the entries that
+	 * come after the given one (the last entry of the previous page) rather than
+	 * at a position, that way only the entries of this page need to be held while
+	 * the directory is scanned however far into the directory the page is
 	 * 
-	 * @param newCurrentDirectoryName the new value for cparentDirectoryName
+	 * @param after the entry the page follows on from, or null for the first page
+	 * @return list of up to maxEntries matching entries ordered as requested
 	 */
-	public void setCurrentDirectoryName(String newCurrentDirectoryName) {
-		currentDirectoryName = newCurrentDirectoryName;
+	static List<DirectoryEntry> listDirectoryEntriesAfter(Path dir, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly, DirectoryEntry after, int maxEntries) {
+		return listDirectoryPage(dir, listFilterType, listOrderType, excludeHiddenFiles, nameMatcher, matchFilesOnly,
+				after, 0, maxEntries);
 	}
 
-	/**
-	 * String to be used as the name for the entry for the current directories
-	 * parent
-	 */
-	public static String parentDirectoryName = "..";
+	private static List<DirectoryEntry> listDirectoryPage(Path dir, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly, DirectoryEntry after, int firstEntry, int maxEntries) {
+		// the number we need to hold, clamped so a big firstEntry can't overflow
+		int entriesToKeep = (int) Math.min((long) firstEntry + maxEntries, Integer.MAX_VALUE - 8);
+		if (maxEntries == 0) {
+			return new ArrayList<>();
+		}
+		// this needs to be a total order, otherwise entries the order sees as equal
+		// could end up on two pages, or none
+		Comparator<DirectoryEntry> comparator = listOrderType.getPagingComparator();
+		// the heap is "upside down" so the head is the entry that would be the last one
+		// we are keeping, anything that comes after that can be discarded straight away
+		PriorityQueue<DirectoryEntry> heap = new PriorityQueue<>(Math.min(entriesToKeep, EXPECTED_DIRECTORY_ENTRIES),
+				comparator.reversed());
+		try (Stream<DirectoryEntry> stream = streamDirectoryEntriesMatching(dir, listFilterType, excludeHiddenFiles,
+				nameMatcher, matchFilesOnly)) {
+			stream.forEach(entry -> {
+				if ((after != null) && (comparator.compare(entry, after) <= 0)) {
+					// it was on an earlier page
+					return;
+				}
+				if (heap.size() < entriesToKeep) {
+					heap.add(entry);
+				} else if (comparator.compare(entry, heap.peek()) < 0) {
+					heap.poll();
+					heap.add(entry);
+				}
+			});
+		} catch (IOException | UncheckedIOException | DirectoryIteratorException x) {
+			System.err.println(x);
+		}
+		// empty the heap from the end backwards, then just drop the ones to skip
+		DirectoryEntry[] ordered = new DirectoryEntry[heap.size()];
+		for (int i = ordered.length - 1; i >= 0; i--) {
+			ordered[i] = heap.poll();
+		}
+		List<DirectoryEntry> entries = new ArrayList<>(Math.max(ordered.length - firstEntry, 0));
+		for (int i = firstEntry; i < ordered.length; i++) {
+			entries.add(ordered[i]);
+		}
+		return entries;
+	}
 
 	/**
-	 * getter for parentDirectoryName
+	 * From the given directory list a page of the directory contents as directory
+	 * entries subject to the controls. For example with a firstEntry of 0 and
+	 * maxEntries of 500 this will return the first 500 entries in the requested order.
 	 * 
-	 * @return the value of parentDirectoryName
+	 * See the Path version of this method for more details
+	 * 
+	 * @param dir                directory to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true hidden entries are removed from the list
+	 * @param regexp             if provided is used to only select matching
+	 *                           entries, for example files ending in .java
+	 * @param regexpFilesOnly    does the regexp apply to both directories and files
+	 *                           or just files
+	 * @param firstEntry         how many of the ordered entries to skip, 0 to start
+	 *                           at the beginning
+	 * @param maxEntries         the maximum number of entries to return
+	 * @return list of up to maxEntries matching entries ordered as requested
+	 * @see DirectoryListFilterType
+	 * @see DirectoryListOrderType
 	 */
-	public String getParentDirectoryName() {
-		return parentDirectoryName;
+	public static List<DirectoryEntry> listDirectoryEntries(String dir, DirectoryListFilterType listFilterType,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, String regexp, boolean regexpFilesOnly,
+			int firstEntry, int maxEntries) {
+		return listDirectoryEntries(Path.of(dir), listFilterType, listOrderType, excludeHiddenFiles, regexp,
+				regexpFilesOnly, firstEntry, maxEntries);
 	}
 
 	/**
-	 * setter for parentDirectoryName
+	 * From the given directory stream the directory contents as directory entries
+	 * subject to the controls. The entries are read from the directory as the stream
+	 * is consumed and are in whatever order the file system returns them, so this
+	 * is the way to go for very large directories where you want to start working
+	 * on the entries straight away or stop early (e.g. via limit or findFirst)
 	 * 
-	 * Be very careful using this to ensure you dont use a valid entry name
+	 * The stream holds the directory open, so it must be closed (use a try with
+	 * resources). Problems reading the directory after the stream has been created
+	 * are thrown as a DirectoryIteratorException
+	 * 
+	 * @param dir                directory to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param excludeHiddenFiles if true then entries with as determined as hidden
+	 *                           by the OS (e.g. starting with . in Unix / Linux /
+	 *                           MacOS, hidden flag for windows) are removed from
+	 *                           the list
+	 * @param regexp             if provided is used to only select matching
+	 *                           entries, for example files ending in .java
+	 * @param regexpFilesOnly    does the regexp apply to both directories and files
+	 *                           or just files
+	 * @return stream of matching entries in file system order
+	 * @throws IOException if the directory can't be opened
+	 * @see DirectoryListFilterType
+	 */
+	public static Stream<DirectoryEntry> streamDirectoryEntries(Path dir, DirectoryListFilterType listFilterType,
+			boolean excludeHiddenFiles, String regexp, boolean regexpFilesOnly) throws IOException {
+		return streamDirectoryEntriesMatching(dir, listFilterType, excludeHiddenFiles, NameMatcher.regexp(regexp),
+				regexpFilesOnly);
+	}
+
+	/**
+	 * From the given directory stream the directory contents as directory entries
+	 * subject to the controls, in whatever order the file system returns them.
+	 * 
+	 * See the regexp version of this method for more details
+	 * 
+	 * @param dir                directory to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param excludeHiddenFiles if true hidden entries are removed from the list
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @return stream of matching entries in file system order
+	 * @throws IOException if the directory can't be opened
+	 * @see NameMatcher
+	 * @see DirectoryListFilterType
+	 */
+	public static Stream<DirectoryEntry> streamDirectoryEntriesMatching(Path dir,
+			DirectoryListFilterType listFilterType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly) throws IOException {
+		boolean dosAttributes = isUsingDosAttributes(dir);
+		DirectoryStream<Path> directoryStream = Files.newDirectoryStream(dir);
+		return StreamSupport.stream(directoryStream.spliterator(), false)
+				.map(p -> readDirectoryEntry(dir, p, listFilterType, excludeHiddenFiles, dosAttributes, nameMatcher,
+						matchFilesOnly))
+				.filter(Objects::nonNull).onClose(() -> {
+					try {
+						directoryStream.close();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+	}
+
+	/**
+	 * From the given directory stream the directory contents as directory entries
+	 * subject to the controls.
+	 * 
+	 * See the Path version of this method for more details
+	 * 
+	 * @param dir                directory to list
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param excludeHiddenFiles if true hidden entries are removed from the list
+	 * @param regexp             if provided is used to only select matching
+	 *                           entries, for example files ending in .java
+	 * @param regexpFilesOnly    does the regexp apply to both directories and files
+	 *                           or just files
+	 * @return stream of matching entries in file system order
+	 * @throws IOException if the directory can't be opened
+	 * @see DirectoryListFilterType
+	 */
+	public static Stream<DirectoryEntry> streamDirectoryEntries(String dir, DirectoryListFilterType listFilterType,
+			boolean excludeHiddenFiles, String regexp, boolean regexpFilesOnly) throws IOException {
+		return streamDirectoryEntries(Path.of(dir), listFilterType, excludeHiddenFiles, regexp, regexpFilesOnly);
+	}
+
+	/**
+	 * Search the tree under root for entries, hidden entries are not returned and
+	 * hidden directories are not searched.
+	 * 
+	 * See the full version of this method for details
+	 * 
+	 * @param root           directory to start searching from
+	 * @param listFilterType what entries to return (sub dirs, files or both)
+	 * @param regexp         if provided only entries whose name matches it are
+	 *                       returned, for example files ending in .log
+	 * @param maxDepth       how many levels below root to search, 1 is just the
+	 *                       contents of root, use Integer.MAX_VALUE for no limit
+	 * @return stream of matching entries in the order they are found
+	 * @see DirectoryListFilterType
+	 */
+	public static Stream<DirectoryEntry> findEntries(Path root, DirectoryListFilterType listFilterType,
+			String regexp, int maxDepth) {
+		return findEntries(root, listFilterType, true, regexp, maxDepth);
+	}
+
+	/**
+	 * Search the tree under root for entries, hidden entries are not returned and
+	 * hidden directories are not searched.
+	 * 
+	 * See the full version of this method for details
+	 * 
+	 * @param root           directory to start searching from
+	 * @param listFilterType what entries to return (sub dirs, files or both)
+	 * @param regexp         if provided only entries whose name matches it are
+	 *                       returned, for example files ending in .log
+	 * @param maxDepth       how many levels below root to search, 1 is just the
+	 *                       contents of root, use Integer.MAX_VALUE for no limit
+	 * @return stream of matching entries in the order they are found
+	 * @see DirectoryListFilterType
+	 */
+	public static Stream<DirectoryEntry> findEntries(String root, DirectoryListFilterType listFilterType,
+			String regexp, int maxDepth) {
+		return findEntries(Path.of(root), listFilterType, true, regexp, maxDepth);
+	}
+
+	/**
+	 * Search the tree under root for entries, unlike the list methods this goes
+	 * down through the sub directories. The directories are scanned in parallel and
+	 * the matches are returned through the stream as soon as they are found, so
+	 * they are in no particular order, and if you only want the first few (e.g.
+	 * findFirst or limit) the search stops once you have them.
+	 * 
+	 * Symbolic links are followed, but each directory is only searched once, so
+	 * links back up the tree don't cause loops and the same directory reached by
+	 * different links won't produce duplicates. Directories that can't be read are
+	 * skipped.
+	 * 
+	 * The stream should be closed (use a try with resources) to stop the search if
+	 * you don't read all of it.
+	 * 
+	 * @param root               directory to start searching from, it is not a
+	 *                           candidate match itself
+	 * @param listFilterType     what entries to return (sub dirs, files or both),
+	 *                           sub directories are searched regardless
+	 * @param excludeHiddenFiles if true then entries with as determined as hidden
+	 *                           by the OS (e.g. starting with . in Unix / Linux /
+	 *                           MacOS, hidden flag for windows) are not returned
+	 *                           and hidden directories are not searched
+	 * @param regexp             if provided only entries whose name matches it are
+	 *                           returned, for example files ending in .log, it
+	 *                           does not limit which directories are searched
+	 * @param maxDepth           how many levels below root to search, 1 is just
+	 *                           the contents of root, use Integer.MAX_VALUE for no
+	 *                           limit
+	 * @return stream of matching entries in the order they are found
+	 * @see DirectoryListFilterType
+	 */
+	public static Stream<DirectoryEntry> findEntries(Path root, DirectoryListFilterType listFilterType,
+			boolean excludeHiddenFiles, String regexp, int maxDepth) {
+		return findEntriesMatching(root, listFilterType, excludeHiddenFiles, NameMatcher.regexp(regexp), maxDepth);
+	}
+
+	/**
+	 * Search the tree under root for entries whose name is matched by the
+	 * nameMatcher, this works the same as the regexp version
+	 * 
+	 * @param root               directory to start searching from, it is not a
+	 *                           candidate match itself
+	 * @param listFilterType     what entries to return (sub dirs, files or both),
+	 *                           sub directories are searched regardless
+	 * @param excludeHiddenFiles if true hidden entries are not returned and hidden
+	 *                           directories are not searched
+	 * @param nameMatcher        if provided only entries whose name it matches are
+	 *                           returned, it does not limit which directories are
+	 *                           searched
+	 * @param maxDepth           how many levels below root to search, 1 is just
+	 *                           the contents of root, use Integer.MAX_VALUE for no
+	 *                           limit
+	 * @return stream of matching entries in the order they are found
+	 * @see NameMatcher
+	 * @see DirectoryListFilterType
+	 */
+	public static Stream<DirectoryEntry> findEntriesMatching(Path root, DirectoryListFilterType listFilterType,
+			boolean excludeHiddenFiles, NameMatcher nameMatcher, int maxDepth) {
+		if (maxDepth < 0) {
+			throw new IllegalArgumentException("maxDepth cannot be negative");
+		}
+		return DirectoryTreeScanner.scan(root, listFilterType, excludeHiddenFiles, nameMatcher, maxDepth);
+	}
+
+	/**
+	 * Search the tree under root and build choices from the matches, the options
+	 * are the path relative to root (e.g. app1/logs/server.log) so entries with the
+	 * same name in different directories can be told apart, they are sorted by
+	 * that relative path.
+	 * 
+	 * @param root               directory to start searching from
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param excludeHiddenFiles if true hidden entries are not returned and hidden
+	 *                           directories are not searched
+	 * @param regexp             if provided only entries whose name matches it are
+	 *                           returned, for example files ending in .log
+	 * @param maxDepth           how many levels below root to search, 1 is just
+	 *                           the contents of root
+	 * @param maxResults         stop the search once this many matches have been
+	 *                           found
+	 * @param nameAndType        if true then the type will be in the option as
+	 *                           well (e.g. logs/tim.txt(File))
+	 * @param addAbandon         If true then the abandon option will be added at
+	 *                           the end of the list and made the default
+	 * @return the ChoiceDescriptionData object which is ready to be used.
+	 * @see DirectoryListFilterType
+	 */
+	public static ChoiceDescriptionData<DirectoryEntry> buildChoiceDescriptionDataFromSearch(Path root,
+			DirectoryListFilterType listFilterType, boolean excludeHiddenFiles, String regexp, int maxDepth,
+			int maxResults, boolean nameAndType, boolean addAbandon) {
+		List<DirectoryEntry> entries;
+		try (Stream<DirectoryEntry> found = findEntries(root, listFilterType, excludeHiddenFiles, regexp,
+				maxDepth)) {
+			entries = found.limit(maxResults).toList();
+		}
+		Comparator<String> relativePathOrder = DirectoryEntry.isCaseInsensitiveSort() ? String.CASE_INSENSITIVE_ORDER
+				: Comparator.naturalOrder();
+		List<ChoiceDescription<DirectoryEntry>> entriesChoices = entries.stream().map(entry -> {
+			String relativePath = root.relativize(entry.getPath()).toString();
+			return new ChoiceDescription<DirectoryEntry>(
+					nameAndType ? relativePath + "(" + entry.getType().getTypeName() + ")" : relativePath, entry);
+		}).sorted((first, second) -> relativePathOrder.compare(first.getOption(), second.getOption())).toList();
+		ChoiceDescriptionData<DirectoryEntry> cdd = new ChoiceDescriptionData<>(entriesChoices);
+		if (addAbandon) {
+			cdd.addAbandonOption("Cancel", false, true);
+		} else {
+			cdd.completeAndLock();
+		}
+		return cdd;
+	}
+
+	/**
+	 * List several directories as if they were one, for example per day partitions
+	 * spread over different mounts. The directories are listed in parallel, and as
+	 * each listing is already in the requested order they are merged rather than
+	 * sorted again. Use DirectoryEntry.getRoot to find out which directory an entry
+	 * came from, entries that are in the same place in the order are returned in
+	 * the order of their roots.
+	 * 
+	 * The listings come from the directory listing cache if there is a current one
+	 * (see setDirectoryListingCacheSize)
+	 * 
+	 * @param roots              the directories to list, duplicates are ignored
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true hidden entries are removed from the list
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @return stream of the matching entries from all of the roots ordered as
+	 *         requested
+	 * @see DirectoryEntry#getRoot()
+	 * @see DirectoryListFilterType
+	 * @see DirectoryListOrderType
+	 */
+	public static Stream<DirectoryEntry> streamMergedDirectoryEntries(List<Path> roots,
+			DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, boolean matchFilesOnly) {
+		return MergedDirectoryListing.list(roots, listFilterType, listOrderType, excludeHiddenFiles, nameMatcher,
+				matchFilesOnly);
+	}
+
+	/**
+	 * Build choices from the merged listing of several directories (see
+	 * streamMergedDirectoryEntries), the options include the root each entry came
+	 * from (e.g. 2024-06-01/server.log) so entries with the same name can be told
+	 * apart. This is usually the last part of the root's path, if two roots end in
+	 * the same name then the whole root path is used.
+	 * 
+	 * @param roots              the directories to list, duplicates are ignored
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true hidden entries are removed from the list
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @param nameAndType        if true then the type will be in the option as
+	 *                           well (e.g. 2024-06-01/tim.txt(File))
+	 * @param addAbandon         If true then the abandon option will be added at
+	 *                           the end of the list and made the default
+	 * @return the ChoiceDescriptionData object which is ready to be used.
+	 * @see DirectoryListFilterType
+	 * @see DirectoryListOrderType
+	 */
+	public static ChoiceDescriptionData<DirectoryEntry> buildChoiceDescriptionDataFromDirectories(List<Path> roots,
+			DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, boolean matchFilesOnly, boolean nameAndType, boolean addAbandon) {
+		Map<Path, String> rootNames = getRootDisplayNames(roots);
+		List<ChoiceDescription<DirectoryEntry>> entriesChoices;
+		try (Stream<DirectoryEntry> entries = streamMergedDirectoryEntries(roots, listFilterType, listOrderType,
+				excludeHiddenFiles, nameMatcher, matchFilesOnly)) {
+			entriesChoices = entries.map(entry -> {
+				String option = rootNames.get(entry.getRoot()) + File.separator
+						+ (nameAndType ? entry.getNameType() : entry.getName());
+				return new ChoiceDescription<DirectoryEntry>(option, entry);
+			}).toList();
+		}
+		ChoiceDescriptionData<DirectoryEntry> cdd = new ChoiceDescriptionData<>(entriesChoices);
+		if (addAbandon) {
+			cdd.addAbandonOption("Cancel", false, true);
+		} else {
+			cdd.completeAndLock();
+		}
+		return cdd;
+	}
+
+	/**
+	 * Ask the user to chose an entry from the merged listing of several
+	 * directories, the cancel option is added. See
+	 * buildChoiceDescriptionDataFromDirectories for details.
+	 * 
+	 * @param prompt             the prompt to use when asking for input
+	 * @param roots              the directories to list, duplicates are ignored
+	 * @param listFilterType     what entries to offer (sub dirs, files or both)
+	 * @param listOrderType      how the entries should be ordered
+	 * @param excludeHiddenFiles if true hidden entries are not offered
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @param nameAndType        if true then the type will be in the option as
+	 *                           well
+	 * @return the selected entry, or null if the cancel option was chosen
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 */
+	public static DirectoryEntry choseFromDirectories(String prompt, List<Path> roots,
+			DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, boolean matchFilesOnly, boolean nameAndType) throws IOException {
+		return getParamChoice(prompt, buildChoiceDescriptionDataFromDirectories(roots, listFilterType, listOrderType,
+				excludeHiddenFiles, nameMatcher, matchFilesOnly, nameAndType, true));
+	}
+
+	/**
+	 * the short name for each root, the last part of the path unless that is shared
+	 * with another root
+	 */
+	private static Map<Path, String> getRootDisplayNames(List<Path> roots) {
+		Map<String, Long> nameCounts = roots.stream().distinct()
+				.collect(Collectors.groupingBy(TextIOUtils::getShortRootName, Collectors.counting()));
+		Map<Path, String> rootNames = new HashMap<>();
+		for (Path root : roots) {
+			String shortName = getShortRootName(root);
+			rootNames.put(root, nameCounts.get(shortName) == 1 ? shortName : root.toString());
+		}
+		return rootNames;
+	}
+
+	private static String getShortRootName(Path root) {
+		Path fileName = root.getFileName();
+		// the file system root (e.g. / or C:\) doesn't have a file name
+		return fileName == null ? root.toString() : fileName.toString();
+	}
+
+	/**
+	 * on windows the hidden flag comes back from the same call as the basic
+	 * attributes, on posix systems Files.isHidden just looks at the name so doesn't
+	 * need to touch the file system (linux also offers a dos view, but that is
+	 * extended attributes and not what people mean by hidden there)
+	 */
+	static boolean isUsingDosAttributes(Path dir) {
+		Set<String> attributeViews = dir.getFileSystem().supportedFileAttributeViews();
+		return attributeViews.contains("dos") && !attributeViews.contains("posix");
+	}
+
+	/**
+	 * read the attributes for a path found when listing a directory
+	 * 
+	 * @return the attributes or null if the path is hidden and they are being
+	 *         excluded, or it can't be read
+	 */
+	static BasicFileAttributes readListingAttributes(Path p, boolean excludeHiddenFiles, boolean dosAttributes) {
+		try {
+			if (dosAttributes) {
+				DosFileAttributes dosFileAttributes = Files.readAttributes(p, DosFileAttributes.class);
+				if (excludeHiddenFiles && dosFileAttributes.isHidden()) {
+					return null;
+				}
+				return dosFileAttributes;
+			}
+			if (excludeHiddenFiles && Files.isHidden(p)) {
+				// we're excluding them and they are hidden
+				return null;
+			}
+			return Files.readAttributes(p, BasicFileAttributes.class);
+		} catch (IOException e) {
+			// the entry has gone away or is a broken link, Files.isDirectory and
+			// Files.isRegularFile would both have said no so skip it
+			return null;
+		}
+	}
+
+	/**
+	 * build the entry using the attributes read while listing, so the size and
+	 * times don't need another trip to the file system
+	 */
+	static DirectoryEntry buildDirectoryEntry(String name, Type type, Path p, BasicFileAttributes attributes,
+			Path root) {
+		return new DirectoryEntry(name, type, p, attributes.size(), toMillis(attributes.lastModifiedTime()),
+				toMillis(attributes.creationTime()), isHidden(p, attributes), root);
+	}
+
+	/**
+	 * the sizes and times on entries from a cached listing are from when the
+	 * directory was listed, writing to a file doesn't change its directory so they
+	 * may be out of date by the time the entry is chosen, this re-reads them for an
+	 * entry that is about to be handed back
+	 * 
+	 * @return the entry with the current attributes, or the entry as it is if they
+	 *         aren't known (e.g. for . and ..) or can't be read
+	 */
+	static DirectoryEntry refreshAttributes(DirectoryEntry entry) {
+		Path p = entry.getPath();
+		if ((p == null) || (entry.getSize() == DirectoryEntry.UNKNOWN)) {
+			return entry;
+		}
+		BasicFileAttributes attributes = readListingAttributes(p, false, isUsingDosAttributes(p));
+		if (attributes == null) {
+			return entry;
+		}
+		return buildDirectoryEntry(entry.getName(), entry.getType(), p, attributes, entry.getRoot());
+	}
+
+	/**
+	 * build the entry for something directly in dir, this doesn't keep p (it's
+	 * rebuilt from dir and the name when asked for) which saves a lot of space in
+	 * big listings
+	 */
+	private static DirectoryEntry buildListedDirectoryEntry(String name, Type type, Path dir, Path p,
+			BasicFileAttributes attributes) {
+		return DirectoryEntry.inDirectory(name, type, dir, attributes.size(), toMillis(attributes.lastModifiedTime()),
+				toMillis(attributes.creationTime()), isHidden(p, attributes));
+	}
+
+	private static boolean isHidden(Path p, BasicFileAttributes attributes) {
+		boolean hidden;
+		if (attributes instanceof DosFileAttributes) {
+			hidden = ((DosFileAttributes) attributes).isHidden();
+		} else {
+			try {
+				// on posix this is just a check of the name
+				hidden = Files.isHidden(p);
+			} catch (IOException e) {
+				hidden = false;
+			}
+		}
+		return hidden;
+	}
+
+	/**
+	 * not all file systems have all the times, for example zip entries often have
+	 * no creation time, and return null for it
+	 */
+	private static long toMillis(FileTime time) {
+		return time == null ? DirectoryEntry.UNKNOWN : time.toMillis();
+	}
+
+	/**
+	 * build the entry for a path found when listing a directory
+	 * 
+	 * @return the entry or null if it is excluded by the controls
+	 */
+	private static DirectoryEntry readDirectoryEntry(Path dir, Path p, DirectoryListFilterType listFilterType,
+			boolean excludeHiddenFiles, boolean dosAttributes, NameMatcher nameMatcher, boolean matchFilesOnly) {
+		String name = p.getFileName().toString();
+		boolean nameMatches = (nameMatcher == null) || nameMatcher.matches(name);
+		// if the name doesn't match and that means it's out whatever type it is then
+		// there is no need to go to the file system for the attributes
+		if (!nameMatches && (!matchFilesOnly || !listFilterType.isIncludeDirectories())) {
+			return null;
+		}
+		BasicFileAttributes attributes = readListingAttributes(p, excludeHiddenFiles, dosAttributes);
+		if (attributes == null) {
+			return null;
+		}
+		// is is a directory ?
+		if (attributes.isDirectory()) {
+			// are we looking for a match and if so are we checking directory entries with
+			// it ? if not just add it
+			if (listFilterType.isIncludeDirectories() && (nameMatches || matchFilesOnly)) {
+				return buildListedDirectoryEntry(name, DirectoryEntry.Type.DIRECTORY, dir, p, attributes);
+			}
+			return null;
+		}
+		if (attributes.isRegularFile()) {
+			// are we looking for a match ? if not just add it
+			if (listFilterType.isIncludeFiles() && nameMatches) {
+				return buildListedDirectoryEntry(name, DirectoryEntry.Type.FILE, dir, p, attributes);
+			}
+			return null;
+		}
+		// not a directory or file, no logic to handle it needed
+		return null;
+	}
+
+	/**
+	 * From the given directory list the directory entries as strings subject to the
+	 * controls
+	 * 
+	 * @param dir                 directory to list
+	 * @param listFilterType      what entries to return (sub dirs, files or both)
+	 * @param listOrderType       how the resulting entries should be ordered
+	 * @param excludeHiddenFiles  if true then entries with as determined as hidden
+	 *                            by the OS (e.g. starting with . in Unix / Linux /
+	 *                            MacOS, hidden flag for windows) are removed from
+	 *                            the list
+	 * @param regexp              if provided is used to only select matching
+	 *                            entries, for example files ending in .java
+	 * @param regexpFilesOnly     does the regexp apply to both directories and
+	 *                            files or just files
+	 * @param nameAndType         if true then the name and type will be in the
+	 *                            result (e.g. tim.txt (File)), if false only the
+	 *                            name (e.g. tim.txt)
+	 * @param addAbandon          If true then the abandon option will be added at
+	 *                            the end of the list and made the default
+	 * @param addCurrentDirectory If true then an entry will be made for the current
+	 *                            directory (".")
+	 * @param addParentDirectory  If true then an entry will be made for the parent
+	 *                            directory ("..")
+	 * @return the ChoiceDescriptionData object which is ready to be used.
+	 * @see DirectoryListFilterType
+	 * @see DirectoryListOrderType
+	 */
+	public static ChoiceDescriptionData<DirectoryEntry> buildChoiceDescriptionDataFromDirectory(String dir,
+			DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			String regexp, boolean regexpFilesOnly, boolean nameAndType, boolean addAbandon,
+			boolean addCurrentDirectory, boolean addParentDirectory) {
+		return buildChoiceDescriptionDataFromDirectory(Path.of(dir), listFilterType, listOrderType, excludeHiddenFiles,
+				regexp, regexpFilesOnly, nameAndType, addAbandon, addCurrentDirectory, addParentDirectory);
+	}
+
+	/**
+	 * String to be used as the name for the entry for the current directory
+	 */
+	public static String currentDirectoryName = ".";
+
+	/**
+	 * getter for currentDirectoryName
+	 * 
+	 * @return the value of currentDirectoryName
+	 */
+	public String getCurrentDirectoryName() {
+		return currentDirectoryName;
+	}
+
+	/**
+	 * setter for currentDirectoryName
+	 * 
+	 * Be very careful using this to ensure you don;t use a valid entry name
+	 * 
+	 * @param newCurrentDirectoryName the new value for cparentDirectoryName
+	 */
+	public void setCurrentDirectoryName(String newCurrentDirectoryName) {
+		currentDirectoryName = newCurrentDirectoryName;
+	}
+
+	/**
+	 * String to be used as the name for the entry for the current directories
+	 * parent
+	 */
+	public static String parentDirectoryName = "..";
+
+	/**
+	 * getter for parentDirectoryName
+	 * 
+	 * @return the value of parentDirectoryName
+	 */
+	public String getParentDirectoryName() {
+		return parentDirectoryName;
+	}
+
+	/**
+	 * setter for parentDirectoryName
+	 * 
+	 * Be very careful using this to ensure you dont use a valid entry name
 	 * 
 	 * @param newParentDirectoryName the new value for parentDirectoryName
 	 */
-	public void setParentDirectoryName(String newParentDirectoryName) {
-		parentDirectoryName = newParentDirectoryName;
+	public void setParentDirectoryName(String newParentDirectoryName) {
+		parentDirectoryName = newParentDirectoryName;
+	}
+
+	/**
+	 * The directory choosers keep a cache of the directories they have recently
+	 * listed so navigating back and forth doesn't need to go back to the disk. This
+	 * sets how many listings will be held (each combination of directory and
+	 * listing settings counts as one), setting it to zero disables the cache.
+	 * 
+	 * Directories on the default file system are watched for changes and their
+	 * listings dropped as soon as something changes, for other file systems the
+	 * modification time of the directory is checked before the cached listing is
+	 * used.
+	 * 
+	 * @param maxListings the maximum number of listings to hold, must be &gt;= 0
+	 */
+	public static void setDirectoryListingCacheSize(int maxListings) {
+		DirectoryListingCache.getInstance().setMaxListings(maxListings);
+	}
+
+	/**
+	 * gets the maximum number of directory listings the choosers will cache
+	 * 
+	 * @return the maximum number of listings that will be held
+	 */
+	public static int getDirectoryListingCacheSize() {
+		return DirectoryListingCache.getInstance().getMaxListings();
+	}
+
+	/**
+	 * As well as the number of listings the directory listing cache is limited by
+	 * the total number of entries in them (a listing of a directory with a million
+	 * entries takes a lot more memory than one with three). This sets that limit,
+	 * a listing with more entries than this is never cached
+	 * 
+	 * @param maxEntries the maximum number of entries to hold over all of the
+	 *                   cached listings, must be &gt;= 0
+	 */
+	public static void setDirectoryListingCacheMaxEntries(int maxEntries) {
+		DirectoryListingCache.getInstance().setMaxEntries(maxEntries);
+	}
+
+	/**
+	 * gets the maximum number of entries the directory listing cache will hold
+	 * over all of the listings
+	 * 
+	 * @return the maximum number of entries
+	 */
+	public static int getDirectoryListingCacheMaxEntries() {
+		return DirectoryListingCache.getInstance().getMaxEntries();
+	}
+
+	/**
+	 * throw away any directory listings the choosers have cached, for example if
+	 * you know a non watchable file system has changed in a way the modification
+	 * time won't show
+	 */
+	public static void clearDirectoryListingCache() {
+		DirectoryListingCache.getInstance().clear();
+	}
+
+	// the markers used in the choices to move between pages, these are compared
+	// by identity so they can't be confused with real entries
+	private static final DirectoryEntry PREVIOUS_PAGE_ENTRY = new DirectoryEntry("<Previous page>", Type.DIRECTORY,
+			null);
+	private static final DirectoryEntry NEXT_PAGE_ENTRY = new DirectoryEntry("<Next page>", Type.DIRECTORY, null);
+	private static final DirectoryEntry SEARCH_AGAIN_ENTRY = new DirectoryEntry("<Search again>", Type.DIRECTORY,
+			null);
+	private static int directoryChooserPageSize = 0;
+
+	/**
+	 * By default the directory choosers show every entry in the directory, which
+	 * for directories with huge numbers of entries means a long wait and a lot of
+	 * memory before anything is displayed. Setting a page size means only that many
+	 * entries are shown at a time (with options to move to the next / previous
+	 * page) and only the entries needed for the page are held while the directory
+	 * is scanned. Paged listings are not held in the directory listing cache.
+	 * 
+	 * @param pageSize the number of entries on each page, 0 (the default) to show
+	 *                 the whole directory at once
+	 */
+	public static void setDirectoryChooserPageSize(int pageSize) {
+		if (pageSize < 0) {
+			throw new IllegalArgumentException("The directory chooser page size cannot be negative");
+		}
+		directoryChooserPageSize = pageSize;
+	}
+
+	/**
+	 * gets the number of entries the directory choosers show on each page
+	 * 
+	 * @return the page size, 0 if the whole directory is shown at once
+	 */
+	public static int getDirectoryChooserPageSize() {
+		return directoryChooserPageSize;
+	}
+
+	private static DirectorySummaryType directoryChooserSummaryType = DirectorySummaryType.NONE;
+
+	/**
+	 * Have the directory choosers show a summary of what is in each sub directory,
+	 * e.g. logs(Dir) [12 entries, 3.4 MB]. The summaries are worked out in the
+	 * background and the choosers only wait a short time for them (see
+	 * setDirectorySummaryWaitMillis) so a slow or huge sub directory never holds up
+	 * the menu, any that aren't ready are shown the next time the menu is.
+	 * 
+	 * @param summaryType what to show, DirectorySummaryType.NONE (the default) for
+	 *                    nothing
+	 * @see DirectorySummaryType
+	 */
+	public static void setDirectoryChooserSummaryType(DirectorySummaryType summaryType) {
+		if (summaryType == null) {
+			throw new IllegalArgumentException("The directory chooser summary type cannot be null");
+		}
+		directoryChooserSummaryType = summaryType;
+	}
+
+	/**
+	 * gets what the directory choosers show about each sub directory
+	 * 
+	 * @return the summary type
+	 */
+	public static DirectorySummaryType getDirectoryChooserSummaryType() {
+		return directoryChooserSummaryType;
+	}
+
+	/**
+	 * sets how many sub directories can be summarised in the background at the same
+	 * time, the default is 2
+	 * 
+	 * @param maxConcurrentSummaries the number of background threads, must be &gt;
+	 *                               0
+	 */
+	public static void setDirectorySummaryMaxConcurrent(int maxConcurrentSummaries) {
+		DirectorySummaries.getInstance().setMaxConcurrentSummaries(maxConcurrentSummaries);
+	}
+
+	/**
+	 * gets how many sub directories can be summarised at the same time
+	 * 
+	 * @return the number of background threads
+	 */
+	public static int getDirectorySummaryMaxConcurrent() {
+		return DirectorySummaries.getInstance().getMaxConcurrentSummaries();
+	}
+
+	/**
+	 * sets how long the directory choosers will wait for the sub directory
+	 * summaries before showing the menu anyway, the default is 100ms which is
+	 * enough for most local directories to be shown with their summaries
+	 * 
+	 * @param waitMillis the longest wait in milliseconds, 0 to never wait
+	 */
+	public static void setDirectorySummaryWaitMillis(long waitMillis) {
+		DirectorySummaries.getInstance().setWaitMillis(waitMillis);
+	}
+
+	/**
+	 * gets how long the directory choosers will wait for the sub directory
+	 * summaries
+	 * 
+	 * @return the longest wait in milliseconds
+	 */
+	public static long getDirectorySummaryWaitMillis() {
+		return DirectorySummaries.getInstance().getWaitMillis();
+	}
+
+	/**
+	 * While the directory choosers are waiting for the user to chose they list the
+	 * sub directories being displayed in the background, so if one is chosen its
+	 * listing is already in the directory listing cache. This sets how much of that
+	 * is done, setting either limit to zero disables the prefetching.
+	 * 
+	 * @param maxConcurrentPrefetches how many directories can be listed in the
+	 *                                background at the same time, must be &gt;= 0
+	 * @param maxPrefetchedEntries    the maximum number of entries that will be
+	 *                                prefetched while waiting for each choice, must
+	 *                                be &gt;= 0
+	 */
+	public static void setDirectoryPrefetchLimits(int maxConcurrentPrefetches, int maxPrefetchedEntries) {
+		DirectoryPrefetcher.getInstance().setLimits(maxConcurrentPrefetches, maxPrefetchedEntries);
+	}
+
+	/**
+	 * gets the number of directories that can be listed in the background at the
+	 * same time
+	 * 
+	 * @return the max concurrent prefetches, 0 if prefetching is disabled
+	 */
+	public static int getDirectoryPrefetchMaxConcurrent() {
+		return DirectoryPrefetcher.getInstance().getMaxConcurrentPrefetches();
+	}
+
+	/**
+	 * gets the maximum number of entries that will be prefetched while waiting for
+	 * each choice
+	 * 
+	 * @return the max prefetched entries, 0 if prefetching is disabled
+	 */
+	public static int getDirectoryPrefetchMaxEntries() {
+		return DirectoryPrefetcher.getInstance().getMaxPrefetchedEntries();
+	}
+
+	/**
+	 * Start building the things the prompts need in the background, call this at
+	 * startup so the user doesn't have to wait the first time they get a time zone
+	 * prompt, an enum menu or a directory chooser. Each target is built on its own
+	 * (daemon) thread so they all happen at the same time, and a prompt that needs
+	 * a time zone structure or directory listing that is still being built waits
+	 * for that rather than doing it again.
+	 * 
+	 * Warming up is only ever a speed up, if something can't be built (e.g. a
+	 * directory that doesn't exist) the prompt that uses it will report the problem
+	 * in the usual way
+	 * 
+	 * @param targets what to build
+	 * @return completes when everything has been built, if anything failed it
+	 *         completes exceptionally with the first problem
+	 * @see WarmUpTargets
+	 */
+	public static CompletableFuture<Void> warmUp(WarmUpTargets targets) {
+		return CompletableFuture.allOf(targets.getTasks().stream()
+				.map(task -> CompletableFuture.runAsync(task, WarmUpExecutorHolder.EXECUTOR))
+				.toArray(CompletableFuture[]::new));
+	}
+
+	// only started if warmUp is used, the threads go away when they have been idle
+	// for a while
+	private static final class WarmUpExecutorHolder {
+		private static final ExecutorService EXECUTOR = Executors
+				.newCachedThreadPool(new DaemonThreadFactory("TextIOUtils-warm-up"));
 	}
 
 	/**
 	 * From the given directory list the directory entries as strings subject to the
 	 * controls
 	 * 
+	 * The directory listing comes from the directory listing cache if there is a
+	 * current one (see setDirectoryListingCacheSize)
+	 * 
 	 * @param dir                 directory to list
 	 * @param listFilterType      what entries to return (sub dirs, files or both)
 	 * @param listOrderType       how the resulting entries should be ordered
@@ -3173,13 +4339,153 @@ public class TextIOUtils {
 			DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
 			String regexp, boolean regexpFilesOnly, boolean nameAndType, boolean addAbandon,
 			boolean addCurrentDirectory, boolean addParentDirectory) {
+		return buildChoiceDescriptionDataFromDirectoryMatching(dir, listFilterType, listOrderType, excludeHiddenFiles,
+				NameMatcher.regexp(regexp), regexpFilesOnly, nameAndType, addAbandon, addCurrentDirectory,
+				addParentDirectory);
+	}
+
+	/**
+	 * From the given directory build the choices for the entries subject to the
+	 * controls, this works the same as the regexp version but the entries are
+	 * selected using the nameMatcher
+	 * 
+	 * @param dir                 directory to list
+	 * @param listFilterType      what entries to return (sub dirs, files or both)
+	 * @param listOrderType       how the resulting entries should be ordered
+	 * @param excludeHiddenFiles  if true hidden entries are removed from the list
+	 * @param nameMatcher         if provided is used to only select matching
+	 *                            entries
+	 * @param matchFilesOnly      does the nameMatcher apply to both directories and
+	 *                            files or just files
+	 * @param nameAndType         if true then the name and type will be in the
+	 *                            result (e.g. tim.txt (File)), if false only the
+	 *                            name (e.g. tim.txt)
+	 * @param addAbandon          If true then the abandon option will be added at
+	 *                            the end of the list and made the default
+	 * @param addCurrentDirectory If true then an entry will be made for the current
+	 *                            directory (".") at the top of the list
+	 * @param addParentDirectory  If true then an entry will be made for the parent
+	 *                            directory ("..") at the top of the list
+	 * @return the ChoiceDescriptionData object which is ready to be used.
+	 * @see NameMatcher
+	 * @see DirectoryListFilterType
+	 * @see DirectoryListOrderType
+	 */
+	public static ChoiceDescriptionData<DirectoryEntry> buildChoiceDescriptionDataFromDirectoryMatching(Path dir,
+			DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, boolean matchFilesOnly, boolean nameAndType, boolean addAbandon,
+			boolean addCurrentDirectory, boolean addParentDirectory) {
+		return buildChoiceDescriptionDataFromDirectoryMatching(dir, listFilterType, listOrderType, excludeHiddenFiles,
+				nameMatcher, matchFilesOnly, nameAndType, addAbandon, addCurrentDirectory, addParentDirectory,
+				DirectorySummaryType.NONE);
+	}
+
+	/**
+	 * From the given directory build the choices for the entries subject to the
+	 * controls, with a summary of what is in each sub directory (e.g. logs(Dir) [12
+	 * entries, 3.4 MB]) so users can see if a directory is empty or huge before
+	 * going into it.
+	 * 
+	 * The summaries are worked out in the background (see
+	 * setDirectorySummaryMaxConcurrent) so building the choices is never held up by
+	 * them, each one is added to the display text of its choice once it's ready,
+	 * so if the choices are displayed before that the summary will appear the next
+	 * time they are displayed.
+	 * 
+	 * @param dir                 directory to list
+	 * @param listFilterType      what entries to return (sub dirs, files or both)
+	 * @param listOrderType       how the resulting entries should be ordered
+	 * @param excludeHiddenFiles  if true hidden entries are removed from the list
+	 *                            and not counted in the summaries
+	 * @param nameMatcher         if provided is used to only select matching
+	 *                            entries
+	 * @param matchFilesOnly      does the nameMatcher apply to both directories and
+	 *                            files or just files
+	 * @param nameAndType         if true then the name and type will be in the
+	 *                            result (e.g. tim.txt (File)), if false only the
+	 *                            name (e.g. tim.txt)
+	 * @param addAbandon          If true then the abandon option will be added at
+	 *                            the end of the list and made the default
+	 * @param addCurrentDirectory If true then an entry will be made for the current
+	 *                            directory (".") at the top of the list
+	 * @param addParentDirectory  If true then an entry will be made for the parent
+	 *                            directory ("..") at the top of the list
+	 * @param summaryType         what to show about the contents of the sub
+	 *                            directories
+	 * @return the ChoiceDescriptionData object which is ready to be used.
+	 * @see DirectorySummaryType
+	 * @see NameMatcher
+	 * @see DirectoryListFilterType
+	 * @see DirectoryListOrderType
+	 */
+	public static ChoiceDescriptionData<DirectoryEntry> buildChoiceDescriptionDataFromDirectoryMatching(Path dir,
+			DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, boolean matchFilesOnly, boolean nameAndType, boolean addAbandon,
+			boolean addCurrentDirectory, boolean addParentDirectory, DirectorySummaryType summaryType) {
+		return buildChoiceDescriptionDataFromCachedListing(dir, listFilterType, listOrderType, excludeHiddenFiles,
+				nameMatcher, matchFilesOnly, nameAndType, addAbandon ? "Cancel" : null, addCurrentDirectory,
+				addParentDirectory, summaryType);
+	}
+
+	/**
+	 * as buildChoiceDescriptionDataFromDirectoryMatching, but the text for the
+	 * abandon option is provided (null for no abandon option) so this can be used
+	 * for multi choice as well
+	 */
+	private static ChoiceDescriptionData<DirectoryEntry> buildChoiceDescriptionDataFromCachedListing(Path dir,
+			DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, boolean matchFilesOnly, boolean nameAndType, String abandonText,
+			boolean addCurrentDirectory, boolean addParentDirectory, DirectorySummaryType summaryType) {
 		// make sure we have a directory to scan
 		if (!Files.isDirectory(dir)) {
 			throw new IllegalArgumentException(
 					"Provided dir param " + dir.toString() + " is not a directory, cannot scan it");
 		}
-		List<DirectoryEntry> entries = listDirectoryEntries(dir, listFilterType, listOrderType, excludeHiddenFiles,
-				regexp, regexpFilesOnly);
+		// the choosers come back to the same directories a lot, so use the cache
+		List<DirectoryEntry> entries = DirectoryListingCache.getInstance().getListing(dir, listFilterType,
+				listOrderType, excludeHiddenFiles, nameMatcher, matchFilesOnly);
+		return buildChoiceDescriptionDataFromEntries(dir, entries, nameAndType, abandonText, addCurrentDirectory,
+				addParentDirectory, false, false, summaryType, excludeHiddenFiles);
+	}
+
+	/**
+	 * Build the choices for one page of the directory, if there is a page before
+	 * or after this one then options for moving to them are included. This uses
+	 * the bounded listing so the whole directory is never held in memory, the page
+	 * is the entries after pageAfter (the last entry on the previous page, null for
+	 * the first page) so only this page's entries are kept while scanning.
+	 */
+	private static ChoiceDescriptionData<DirectoryEntry> buildChoiceDescriptionDataFromDirectoryPage(Path dir,
+			DirectoryListFilterType listFilterType, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, boolean matchFilesOnly, boolean nameAndType, String abandonText,
+			boolean addCurrentDirectory, boolean addParentDirectory, int page, DirectoryEntry pageAfter,
+			int pageSize, DirectorySummaryType summaryType) {
+		if (!Files.isDirectory(dir)) {
+			throw new IllegalArgumentException(
+					"Provided dir param " + dir.toString() + " is not a directory, cannot scan it");
+		}
+		// ask for one more than the page holds, if we get it there is a next page
+		List<DirectoryEntry> entries = listDirectoryEntriesAfter(dir, listFilterType, listOrderType,
+				excludeHiddenFiles, nameMatcher, matchFilesOnly, pageAfter, pageSize + 1);
+		boolean hasNextPage = entries.size() > pageSize;
+		if (hasNextPage) {
+			entries.remove(pageSize);
+		}
+		return buildChoiceDescriptionDataFromEntries(dir, entries, nameAndType, abandonText, addCurrentDirectory,
+				addParentDirectory, page > 0, hasNextPage, summaryType, excludeHiddenFiles);
+	}
+
+	private static ChoiceDescriptionData<DirectoryEntry> buildChoiceDescriptionDataFromEntries(Path dir,
+			List<DirectoryEntry> entries, boolean nameAndType, String abandonText, boolean addCurrentDirectory,
+			boolean addParentDirectory, boolean addPreviousPage, boolean addNextPage, DirectorySummaryType summaryType,
+			boolean excludeHiddenFiles) {
+		// the page moves go either side of the actual entries
+		if (addPreviousPage) {
+			entries.add(0, PREVIOUS_PAGE_ENTRY);
+		}
+		if (addNextPage) {
+			entries.add(NEXT_PAGE_ENTRY);
+		}
 		// if we are adding the parent directory insert it before the current so if both
 		// are selected the order will be current, parent, entries
 		if (addParentDirectory) {
@@ -3195,16 +4501,22 @@ public class TextIOUtils {
 			entries.add(0, new DirectoryEntry(currentDirectoryName, Type.DIRECTORY, dir));
 		}
 
-		List<ChoiceDescription<DirectoryEntry>> entriesChoices = entries.stream()
-				.map(entry -> new ChoiceDescription<DirectoryEntry>(nameAndType ? entry.getNameType() : entry.getName(),
-						entry))
-				.toList();
+		List<ChoiceDescription<DirectoryEntry>> entriesChoices = entries.stream().map(entry -> {
+			String option = (nameAndType && !isPageEntry(entry)) ? entry.getNameType() : entry.getName();
+			// no point summarising . or .. (the parent would mean sizing the whole tree)
+			if ((summaryType != DirectorySummaryType.NONE) && (entry.getType() == Type.DIRECTORY)
+					&& !isPageEntry(entry) && !entry.getName().equals(currentDirectoryName)
+					&& !entry.getName().equals(parentDirectoryName)) {
+				return new DirectoryChoiceDescription(option, entry, summaryType, excludeHiddenFiles);
+			}
+			return new ChoiceDescription<DirectoryEntry>(option, entry);
+		}).toList();
 		// set it up
 		ChoiceDescriptionData<DirectoryEntry> cdd = new ChoiceDescriptionData<>(entriesChoices);
-		if (addAbandon) {
+		if (abandonText != null) {
 			// this will also force it to complete itself, co no need to call that
 			// separately
-			cdd.addAbandonOption("Cancel", false, true);
+			cdd.addAbandonOption(abandonText, false, true);
 		} else {
 			// complete it and lock it down
 			cdd.completeAndLock();
@@ -3582,44 +4894,395 @@ public class TextIOUtils {
 	public static DirectoryEntry choseFromDirectory(String prompt, Path dir, DirectorySelectionMode selectionMode,
 			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, String regexp, boolean regexpFilesOnly,
 			boolean nameAndType, boolean addAbandon) throws IOException {
-		// if what we are given is a file, then build a entry for that and return it
-		// this would seem to be the correct behavior, and will also help if doing
-		// recursive processing
-		if (Files.isRegularFile(dir)) {
-			return new DirectoryEntry(dir.getFileName().toString(), DirectoryEntry.Type.FILE, dir);
+		return choseFromDirectoryMatching(prompt, dir, selectionMode, listOrderType, excludeHiddenFiles,
+				NameMatcher.regexp(regexp), regexpFilesOnly, nameAndType, addAbandon);
+	}
+
+	/**
+	 * From the given directory let the user chose an entry, this works the same as
+	 * the regexp version but the entries shown are selected using the nameMatcher,
+	 * for example NameMatcher.extensions("jpg", "jpeg", "png") for picking an image
+	 * 
+	 * @param prompt             the prompt to use when asking for input, if null or
+	 *                           zero length then the selectionMode prompt is used.
+	 * @param dir                directory to list
+	 * @param selectionMode      what choices to allow
+	 * @param listOrderType      how the resulting entries should be ordered
+	 * @param excludeHiddenFiles if true hidden entries are not shown
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @param nameAndType        if true then the name and type will be in the
+	 *                           result (e.g. tim.txt (File)), if false only the
+	 *                           name (e.g. tim.txt)
+	 * @param addAbandon         If true then the abandon option will be added at
+	 *                           the end of the list and made the default
+	 * @return the DirectoryEntry selected or null if the abandon choice was taken
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input.
+	 * 
+	 * @see NameMatcher
+	 * @see DirectoryEntry
+	 * @see DirectorySelectionMode
+	 * @see DirectoryListOrderType
+	 */
+	public static DirectoryEntry choseFromDirectoryMatching(String prompt, Path dir,
+			DirectorySelectionMode selectionMode, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, boolean matchFilesOnly, boolean nameAndType,
+			boolean addAbandon) throws IOException {
+		// the navigator loops rather than recursing, and keeps the menus for the
+		// directories it has been through so going back up is instant
+		return new DirectoryNavigator(dir, selectionMode, listOrderType, excludeHiddenFiles, nameMatcher,
+				matchFilesOnly, nameAndType, addAbandon).choose(prompt);
+	}
+
+	/**
+	 * Let the user choose several entries at once, starting from the given
+	 * directory. Hidden entries are not shown, entries are listed directories
+	 * first and the type is shown.
+	 * 
+	 * See the full version of this method for details
+	 * 
+	 * @param prompt        the prompt to use when asking for input, if null or zero
+	 *                      length then the selectionMode prompt is used.
+	 * @param dir           directory to start in
+	 * @param selectionMode what choices to allow
+	 * @return the selected entries in the order they were selected, empty if
+	 *         nothing was selected
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input.
+	 * @see DirectorySelectionMode
+	 */
+	public static List<DirectoryEntry> choseMultipleFromDirectory(String prompt, Path dir,
+			DirectorySelectionMode selectionMode) throws IOException {
+		return choseMultipleFromDirectoryMatching(prompt, dir, selectionMode, DirectoryListOrderType.DIRECTORIES_FIRST,
+				true, null, true, true);
+	}
+
+	/**
+	 * Let the user choose several entries at once, for example a set of log files
+	 * to archive, rather than having to run the chooser once for each of them.
+	 * 
+	 * What can be chosen follows the selectionMode in the same way as
+	 * choseFromDirectory. Entering the number of a directory the user can navigate
+	 * into opens it, any other single number selects (or unselects) that entry. A
+	 * range or list such as 3-25 or 1,4,7-9 selects everything it covers that can
+	 * be chosen (if they were all already selected they are unselected instead).
+	 * Selections are kept when moving between directories, so entries can be chosen
+	 * from several directories. Choosing the finished option ends the selection.
+	 * 
+	 * @param prompt             the prompt to use when asking for input, if null or
+	 *                           zero length then the selectionMode prompt is used.
+	 * @param dir                directory to start in
+	 * @param selectionMode      what choices to allow
+	 * @param listOrderType      how the entries should be ordered
+	 * @param excludeHiddenFiles if true then entries with as determined as hidden
+	 *                           by the OS (e.g. starting with . in Unix / Linux /
+	 *                           MacOS, hidden flag for windows) are not shown
+	 * @param regexp             if provided is used to only select matching
+	 *                           entries, for example files ending in .java
+	 * @param regexpFilesOnly    does the regexp apply to both directories and files
+	 *                           or just files
+	 * @param nameAndType        if true then the name and type will be displayed
+	 *                           (e.g. tim.txt (File)), if false only the name (e.g.
+	 *                           tim.txt)
+	 * @return the selected entries in the order they were selected, empty if
+	 *         nothing was selected
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input.
+	 * @see DirectoryNavigator#chooseMultiple(String)
+	 * @see DirectorySelectionMode
+	 */
+	public static List<DirectoryEntry> choseMultipleFromDirectory(String prompt, Path dir,
+			DirectorySelectionMode selectionMode, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			String regexp, boolean regexpFilesOnly, boolean nameAndType) throws IOException {
+		return choseMultipleFromDirectoryMatching(prompt, dir, selectionMode, listOrderType, excludeHiddenFiles,
+				NameMatcher.regexp(regexp), regexpFilesOnly, nameAndType);
+	}
+
+	/**
+	 * Let the user choose several entries at once, this works the same as the
+	 * regexp version but the entries shown are selected using the nameMatcher
+	 * 
+	 * @param prompt             the prompt to use when asking for input, if null or
+	 *                           zero length then the selectionMode prompt is used.
+	 * @param dir                directory to start in
+	 * @param selectionMode      what choices to allow
+	 * @param listOrderType      how the entries should be ordered
+	 * @param excludeHiddenFiles if true hidden entries are not shown
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @param nameAndType        if true then the name and type will be displayed
+	 *                           (e.g. tim.txt (File)), if false only the name (e.g.
+	 *                           tim.txt)
+	 * @return the selected entries in the order they were selected, empty if
+	 *         nothing was selected
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input.
+	 * @see NameMatcher
+	 * @see DirectorySelectionMode
+	 */
+	public static List<DirectoryEntry> choseMultipleFromDirectoryMatching(String prompt, Path dir,
+			DirectorySelectionMode selectionMode, DirectoryListOrderType listOrderType, boolean excludeHiddenFiles,
+			NameMatcher nameMatcher, boolean matchFilesOnly, boolean nameAndType) throws IOException {
+		return new DirectoryNavigator(dir, selectionMode, listOrderType, excludeHiddenFiles, nameMatcher,
+				matchFilesOnly, nameAndType, false).chooseMultiple(prompt);
+	}
+
+	/**
+	 * Let the user chose a file from inside an archive (e.g. a zip or jar file)
+	 * without having to extract it first. Directories inside the archive can be
+	 * navigated as normal and the cancel option is added.
+	 * 
+	 * See the full version of this method for details
+	 * 
+	 * @param prompt      the prompt to use when asking for input, if null or zero
+	 *                    length then the default prompt is used.
+	 * @param archive     the archive file to look inside
+	 * @param nameMatcher if provided only files it matches are shown
+	 * @return the selected file inside the archive, or null if the cancel option
+	 *         was chosen
+	 * @throws IOException if the archive can't be opened or there is a problem
+	 *                     reading the input
+	 */
+	public static DirectoryEntry choseFromArchive(String prompt, Path archive, NameMatcher nameMatcher)
+			throws IOException {
+		return choseFromArchive(prompt, archive, DirectorySelectionMode.SELECT_DIRECTORY_AS_NAVIGATION_OR_FILE_AS_LEAF,
+				DirectoryListOrderType.DIRECTORIES_FIRST, nameMatcher, true, true, true);
+	}
+
+	/**
+	 * Let the user chose from the contents of an archive (e.g. a zip or jar file,
+	 * or anything else there is a FileSystemProvider installed for) without having
+	 * to extract it first.
+	 * 
+	 * The archive is opened as a file system and kept open, so its directory is
+	 * only read once and browsing it again is quick. The path of the returned
+	 * entry is inside the archive and can be read directly, e.g. with
+	 * Files.newInputStream or Files.copy, only the bit of the archive that holds
+	 * that entry is read when you do. The path stays usable until closeArchive or
+	 * closeAllArchives is called.
+	 * 
+	 * @param prompt          the prompt to use when asking for input, if null or
+	 *                        zero length then the selectionMode prompt is used.
+	 * @param archive         the archive file to look inside
+	 * @param selectionMode   what choices to allow
+	 * @param listOrderType   how the entries should be ordered
+	 * @param nameMatcher     if provided is used to only select matching entries
+	 * @param matchFilesOnly  does the nameMatcher apply to both directories and
+	 *                        files or just files
+	 * @param nameAndType     if true then the name and type will be displayed
+	 *                        (e.g. tim.txt (File)), if false only the name (e.g.
+	 *                        tim.txt)
+	 * @param addAbandon      If true then the abandon option will be added at the
+	 *                        end of the list and made the default
+	 * @return the DirectoryEntry selected or null if the abandon choice was taken
+	 * @throws IOException if the archive can't be opened or there is a problem
+	 *                     reading the input
+	 * @see #getArchiveRoot(Path)
+	 * @see DirectorySelectionMode
+	 */
+	public static DirectoryEntry choseFromArchive(String prompt, Path archive, DirectorySelectionMode selectionMode,
+			DirectoryListOrderType listOrderType, NameMatcher nameMatcher, boolean matchFilesOnly,
+			boolean nameAndType, boolean addAbandon) throws IOException {
+		// archives don't really have hidden entries, so don't bother checking
+		return choseFromDirectoryMatching(prompt, getArchiveRoot(archive), selectionMode, listOrderType, false,
+				nameMatcher, matchFilesOnly, nameAndType, addAbandon);
+	}
+
+	/**
+	 * Get the root directory inside an archive (e.g. a zip or jar file), this can
+	 * be passed to any of the list or chooser methods that take a Path to work
+	 * inside the archive without extracting it. The archive is kept open (and
+	 * reused by later calls) until closeArchive or closeAllArchives is called, if
+	 * the archive file changes it is opened again.
+	 * 
+	 * @param archive the archive file
+	 * @return the root directory inside the archive
+	 * @throws IOException if the archive can't be read or isn't a type that can be
+	 *                     opened as a file system
+	 */
+	public static Path getArchiveRoot(Path archive) throws IOException {
+		return ArchiveFileSystems.getInstance().getRoot(archive);
+	}
+
+	/**
+	 * Close an archive opened by getArchiveRoot or choseFromArchive, paths inside
+	 * it can't be used after this
+	 * 
+	 * @param archive the archive file
+	 * @return true if the archive was open
+	 */
+	public static boolean closeArchive(Path archive) {
+		return ArchiveFileSystems.getInstance().close(archive);
+	}
+
+	/**
+	 * Close all of the archives opened by getArchiveRoot or choseFromArchive
+	 */
+	public static void closeAllArchives() {
+		ArchiveFileSystems.getInstance().closeAll();
+	}
+
+	/**
+	 * build the choices for a directory as needed by the selection mode, if paging
+	 * is enabled this is just the requested page, which starts after pageAfter
+	 * (null for the first page). The abandonText is used for the abandon / multi
+	 * choice complete option, null if there isn't one
+	 */
+	static ChoiceDescriptionData<DirectoryEntry> buildDirectoryChoices(Path dir, DirectorySelectionMode selectionMode,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly, boolean nameAndType, String abandonText, int page, DirectoryEntry pageAfter) {
+		int pageSize = directoryChooserPageSize;
+		if (pageSize == 0) {
+			return buildChoiceDescriptionDataFromCachedListing(dir, selectionMode.getDirectoryListFilterType(),
+					listOrderType, excludeHiddenFiles, nameMatcher, matchFilesOnly, nameAndType, abandonText,
+					selectionMode.isCurrentDirectoryIncludedAsOption(),
+					selectionMode.isParentDirectoryIncludedAsOption(), directoryChooserSummaryType);
 		}
-		ChoiceDescriptionData<DirectoryEntry> cdd = buildChoiceDescriptionDataFromDirectory(dir,
-				selectionMode.getDirectoryListFilterType(), listOrderType, excludeHiddenFiles, regexp, regexpFilesOnly,
-				nameAndType, addAbandon, selectionMode.isCurrentDirectoryIncludedAsOption(),
-				selectionMode.isParentDirectoryIncludedAsOption());
-		DirectoryEntry directoryEntry = getParamChoice(
-				(((prompt == null || (prompt.length() == 0))) ? selectionMode.getDefaultPrompt() : prompt) + " ("
-						+ dir.toString() + ")",
-				cdd);
-
-		if (directoryEntry == null) {
-			// they chose the abandon, pass that back
+		return buildChoiceDescriptionDataFromDirectoryPage(dir, selectionMode.getDirectoryListFilterType(),
+				listOrderType, excludeHiddenFiles, nameMatcher, matchFilesOnly, nameAndType, abandonText,
+				selectionMode.isCurrentDirectoryIncludedAsOption(), selectionMode.isParentDirectoryIncludedAsOption(),
+				page, pageAfter, pageSize, directoryChooserSummaryType);
+	}
+
+	/**
+	 * Search the tree under root and ask the user to pick one of the matches, so for
+	 * example "the log file matching server.*\.log anywhere under /var/app" can
+	 * be chosen without having to navigate down level by level. Hidden entries are
+	 * ignored, the cancel option is added and the relative path is shown with the
+	 * entry type
+	 * 
+	 * @param prompt         the prompt to use when asking for input
+	 * @param root           directory to start searching from
+	 * @param listFilterType what entries to return (sub dirs, files or both)
+	 * @param regexp         if provided only entries whose name matches it are
+	 *                       returned
+	 * @param maxDepth       how many levels below root to search, 1 is just the
+	 *                       contents of root
+	 * @param maxResults     the maximum number of matches to offer
+	 * @return the DirectoryEntry selected or null if the abandon choice was taken
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input.
+	 * @see DirectoryEntry
+	 */
+	public static DirectoryEntry choseFromSearch(String prompt, Path root, DirectoryListFilterType listFilterType,
+			String regexp, int maxDepth, int maxResults) throws IOException {
+		return choseFromSearch(prompt, root, listFilterType, true, regexp, maxDepth, maxResults, true, true);
+	}
+
+	/**
+	 * Search the tree under root and ask the user to pick one of the matches
+	 * 
+	 * @param prompt             the prompt to use when asking for input
+	 * @param root               directory to start searching from
+	 * @param listFilterType     what entries to return (sub dirs, files or both)
+	 * @param excludeHiddenFiles if true hidden entries are not returned and hidden
+	 *                           directories are not searched
+	 * @param regexp             if provided only entries whose name matches it are
+	 *                           returned
+	 * @param maxDepth           how many levels below root to search, 1 is just
+	 *                           the contents of root
+	 * @param maxResults         the maximum number of matches to offer
+	 * @param nameAndType        if true then the type will be in the option as
+	 *                           well (e.g. logs/tim.txt(File))
+	 * @param addAbandon         If true then the abandon option will be added at
+	 *                           the end of the list and made the default
+	 * @return the DirectoryEntry selected or null if the abandon choice was taken
+	 *         (or there are no matches and no abandon option)
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input.
+	 * @see DirectoryEntry
+	 */
+	public static DirectoryEntry choseFromSearch(String prompt, Path root, DirectoryListFilterType listFilterType,
+			boolean excludeHiddenFiles, String regexp, int maxDepth, int maxResults, boolean nameAndType,
+			boolean addAbandon) throws IOException {
+		ChoiceDescriptionData<DirectoryEntry> cdd = buildChoiceDescriptionDataFromSearch(root, listFilterType,
+				excludeHiddenFiles, regexp, maxDepth, maxResults, nameAndType, addAbandon);
+		if (cdd.length() == 0) {
 			return null;
 		}
-		// if we are limiting to only the current directory then return it, as the build
-		// choice description will have only built entries for the allowed types we
-		// don't need to figure out if we're returning a directory when they have chosen
-		// a file or anything like that
-		if (!selectionMode.isNavigableMode()) {
-			return directoryEntry;
+		return getParamChoice(prompt + " (" + root.toString() + ")", cdd);
+	}
+
+	/**
+	 * Choose a file or directory from anywhere under root by typing part of its
+	 * name, rather than navigating down level by level. The names come from a
+	 * FileNameIndex kept in indexFile, so after the first time (when the tree is
+	 * scanned to build the index) this is quick even for trees with millions of
+	 * entries. The user enters a fragment and is offered the best matches, if
+	 * none of them are right they can search again.
+	 * 
+	 * @param prompt         the prompt to use when asking for the fragment
+	 * @param root           the directory to choose from
+	 * @param indexFile      where the index for root is kept
+	 * @param listFilterType what entries can be chosen (sub dirs, files or both)
+	 * @param maxResults     the maximum number of matches to offer
+	 * @param refreshIndex   if true the index is brought up to date (only changed
+	 *                       directories are re-listed) before it is used, if false
+	 *                       the index is used as it is
+	 * @return the DirectoryEntry selected or null if the user cancelled
+	 * @throws IOException if there is a problem with the index or setting up the
+	 *                     reader on the input or reading the input.
+	 * @see FileNameIndex
+	 * @see DirectoryEntry
+	 */
+	public static DirectoryEntry choseFromDirectoryIndex(String prompt, Path root, Path indexFile,
+			DirectoryListFilterType listFilterType, int maxResults, boolean refreshIndex) throws IOException {
+		FileNameIndex index = FileNameIndex.open(root, indexFile);
+		if (refreshIndex) {
+			index.refresh();
+		}
+		while (true) {
+			String fragment = getString(prompt + " (" + root.toString()
+					+ ") enter part of the name to search for, or just return to cancel", null, true);
+			if (fragment.length() == 0) {
+				return null;
+			}
+			List<DirectoryEntry> matches = index.find(fragment, listFilterType, maxResults);
+			if (matches.isEmpty()) {
+				System.out.println("Nothing matches " + fragment);
+				continue;
+			}
+			List<ChoiceDescription<DirectoryEntry>> matchesChoices = new ArrayList<>(matches.size() + 1);
+			for (DirectoryEntry match : matches) {
+				matchesChoices.add(new ChoiceDescription<DirectoryEntry>(
+						index.getRoot().relativize(match.getPath()) + "(" + match.getType().getTypeName() + ")",
+						match));
+			}
+			matchesChoices
+					.add(new ChoiceDescription<DirectoryEntry>(SEARCH_AGAIN_ENTRY.getName(), SEARCH_AGAIN_ENTRY));
+			ChoiceDescriptionData<DirectoryEntry> cdd = new ChoiceDescriptionData<>(matchesChoices);
+			cdd.addAbandonOption("Cancel", false, true);
+			DirectoryEntry directoryEntry = getParamChoice("Matches for " + fragment, cdd);
+			if (directoryEntry != SEARCH_AGAIN_ENTRY) {
+				return directoryEntry;
+			}
 		}
-		// if what has been chosen is a directory AND it's the current directory AND we
-		// are allowing directories to be selected as a leaf return it
-		if ((directoryEntry.getType() == Type.DIRECTORY) && (directoryEntry.getName().equals(currentDirectoryName))
-				&& selectionMode.isDirectoryAllowedAsLeaf()) {
-			return directoryEntry;
+	}
+
+	static boolean isPageEntry(DirectoryEntry entry) {
+		return (entry == NEXT_PAGE_ENTRY) || (entry == PREVIOUS_PAGE_ENTRY);
+	}
+
+	static boolean isNextPageEntry(DirectoryEntry entry) {
+		return entry == NEXT_PAGE_ENTRY;
+	}
+
+	static List<Path> getNavigableDirectories(ChoiceDescriptionData<DirectoryEntry> cdd) {
+		List<Path> dirs = new ArrayList<>();
+		for (int i = 0; i < cdd.length(); i++) {
+			DirectoryEntry entry = cdd.getParam(i);
+			// the current directory is already listed, and the abandon has no entry
+			if ((entry != null) && (entry.getType() == Type.DIRECTORY) && !isPageEntry(entry)
+					&& !entry.getName().equals(currentDirectoryName)) {
+				dirs.add(entry.getPath());
+			}
 		}
-		// they are allowed to navigate to a sub directory. recurse, if it's a file it
-		// will just be returned, if it's a directory it will either be opened or
-		// selected depending on the selection mode (see the handling of that earlier in
-		// this code)
-		return choseFromDirectory(prompt, directoryEntry.getPath(), selectionMode, listOrderType, excludeHiddenFiles,
-				regexp, regexpFilesOnly, nameAndType, addAbandon);
+		return dirs;
 	}
 
 	/**
@@ -3836,24 +5499,106 @@ public class TextIOUtils {
 	 */
 	public static ZonedDateTime getISOZonedDateTime(String prompt, boolean askForTimezone, boolean askForTimezoneName,
 			boolean defaultToCurrentTimezone, LocalDateTime mindtg, LocalDateTime maxdtg) throws IOException {
+		TimeZoneInputMode timeZoneInputMode = askForTimezoneName ? TimeZoneInputMode.NAME : TimeZoneInputMode.OFFSET;
+		return getISOZonedDateTime(prompt, askForTimezone, timeZoneInputMode, defaultToCurrentTimezone, mindtg, maxdtg);
+	}
+
+	/**
+	 * Asks the user to enter a data and time (in the local or whatever TZ they
+	 * enter) in the format YYYY-MM-DDTHH:mm:SS, this is the same as the version
+	 * taking askForTimezoneName, but lets you chose how the time zone is asked for
+	 * 
+	 * The date and time can be entered on one line, e.g. 2026-10-16T14:30:05, and
+	 * if asking for the timezone the offset and / or zone can follow it, e.g.
+	 * 2026-10-16T14:30+01:00[Europe/London], in which case the timezone isn't
+	 * asked for separately. If only part of the date is entered the rest is asked
+	 * for a step at a time.
+	 * 
+	 * If timeZoneInputMode is OFFSET_GROUPS the zones are grouped by the offset
+	 * they have at the entered date and time (taken in the local time zone), the
+	 * user picks the offset then the zone.
+	 * 
+	 * @param prompt                   the prompt to use when asking for input
+	 * @param askForTimezone           if true the user will ba asked for a timezone
+	 * @param timeZoneInputMode        how the time zone is asked for
+	 * @param defaultToCurrentTimezone if true the timezone will default to the
+	 *                                 current if they user just presses return
+	 * @param mindtg                   the entered info must be &gt;= this
+	 * @param maxdtg                   the entered info must be &lt;= this
+	 * @return the entered date time and tz
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 * @see TimeZoneInputMode
+	 */
+	public static ZonedDateTime getISOZonedDateTime(String prompt, boolean askForTimezone,
+			TimeZoneInputMode timeZoneInputMode, boolean defaultToCurrentTimezone, LocalDateTime mindtg,
+			LocalDateTime maxdtg) throws IOException {
 		if (mindtg.isAfter(maxdtg)) {
 			throw new IOException("Zoned DTG mindtg " + mindtg.format(DateTimeFormatter.ISO_DATE_TIME)
 					+ " cannot be before maxdtg " + maxdtg.format(DateTimeFormatter.ISO_DATE_TIME));
 		}
-		LocalDate date = getISOLocalDate(prompt, mindtg.toLocalDate(), maxdtg.toLocalDate());
-		// if the date chosen was the min date, then need to limit the time to the min
-		// dtg element, otherwise it can be midnight for the min
-		LocalTime minTime = mindtg.toLocalDate().isEqual(date) ? mindtg.toLocalTime() : LocalTime.MIN;
-		// likewise if the data chosen was the max date then limit toe max time to
-		// whaetever is in it
-		LocalTime maxTime = maxdtg.toLocalDate().isEqual(date) ? maxdtg.toLocalTime() : LocalTime.MAX;
-		LocalTime time = getISOLocalTime(prompt, minTime, maxTime);
-		LocalDateTime dtg = LocalDateTime.of(date, time);
+		LocalDate mindate = mindtg.toLocalDate();
+		LocalDate maxdate = maxdtg.toLocalDate();
+		LocalDateTime defaultdtg = clamp(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), mindtg, maxdtg);
+		ISODateTimeParser parser = new ISODateTimeParser();
+		LocalDateTime dtg = null;
+		while (dtg == null) {
+			// try for it all in one go, but if only part of it is entered ask for the
+			// rest
+			String entered = getString("Please enter the date and time for " + prompt + " as YYYY-MM-DDTHH:MM:SS"
+					+ (askForTimezone ? " optionally followed by the offset and / or zone e.g. +01:00[Europe/London]"
+							: "")
+					+ ", or just the date (or part of it) to be asked for the rest",
+					defaultdtg.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+			if (!parser.parseDateTime(entered)) {
+				doOutput("Sorry, " + entered + " isn't a date and time, " + parser.getError());
+				continue;
+			}
+			if (parser.isZoneEntered() && !askForTimezone) {
+				doOutput("Sorry, the time zone can't be entered here, please enter just the date and time");
+				continue;
+			}
+			if (parser.isTimeComplete()) {
+				LocalDateTime enteredDtg = parser.toLocalDateTime();
+				if (enteredDtg.isBefore(mindtg) || enteredDtg.isAfter(maxdtg)) {
+					doOutput("Sorry, " + enteredDtg.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " isn't between "
+							+ mindtg.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " and "
+							+ maxdtg.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+					continue;
+				}
+				if (parser.isZoneEntered()) {
+					try {
+						return parser.toZonedDateTime(enteredDtg);
+					} catch (DateTimeException e) {
+						doOutput("Sorry, " + e.getMessage());
+						continue;
+					}
+				}
+				dtg = enteredDtg;
+			} else {
+				LocalDate date = getISOLocalDateRest(prompt, mindate, maxdate, defaultdtg.toLocalDate(), parser);
+				if (date == null) {
+					continue;
+				}
+				// if the date chosen was the min date, then need to limit the time to the min
+				// dtg element, otherwise it can be midnight for the min
+				LocalTime minTime = mindate.isEqual(date) ? mindtg.toLocalTime() : LocalTime.MIN;
+				// likewise if the data chosen was the max date then limit toe max time to
+				// whaetever is in it
+				LocalTime maxTime = maxdate.isEqual(date) ? maxdtg.toLocalTime() : LocalTime.MAX;
+				LocalTime time = getISOLocalTime(prompt, minTime, maxTime);
+				dtg = LocalDateTime.of(date, time);
+			}
+		}
 		if (askForTimezone) {
-			if (askForTimezoneName) {
+			if (timeZoneInputMode == TimeZoneInputMode.NAME) {
 				ZoneId zoneId = getTimeZoneByName(prompt, defaultToCurrentTimezone);
 				ZonedDateTime zdt = ZonedDateTime.of(dtg, zoneId);
 				return zdt;
+			} else if (timeZoneInputMode == TimeZoneInputMode.OFFSET_GROUPS) {
+				ZoneId zoneId = getTimeZoneByOffsetGroup(prompt, dtg.atZone(ZoneId.systemDefault()).toInstant(),
+						defaultToCurrentTimezone);
+				return ZonedDateTime.of(dtg, zoneId);
 			} else {
 				ZoneOffset tz = getISOOffsetTimeZoneOffset(prompt, defaultToCurrentTimezone);
 				ZonedDateTime zdt = ZonedDateTime.of(dtg, tz.normalized());
@@ -3925,6 +5670,217 @@ public class TextIOUtils {
 		return zdt;
 	}
 
+	/**
+	 * Reads a list of date times from the file, one per line, into an array of
+	 * time since the epoch. This is meant for big lists (millions of lines) so the
+	 * values are worked out directly and no date time objects are made for them.
+	 * 
+	 * Each line is an ISO date time as accepted by getISOZonedDateTime, e.g.
+	 * 2026-10-16T14:30:05.123, 2026-10-16T14:30Z or
+	 * 2026-10-16T14:30+01:00[Europe/London], or just a date for the start of that
+	 * day. Lines without an offset or zone are taken to be in the zone provided.
+	 * Blank lines are ignored, lines that can't be used (including those outside
+	 * min / max) are skipped and reported by line number in the result.
+	 * 
+	 * @param file the file to read
+	 * @param zone the zone for lines that don't have an offset or zone
+	 * @param unit the units for the values, e.g. MILLISECONDS or NANOSECONDS, must
+	 *             be SECONDS or smaller
+	 * @param min  if not null the times must be at or after this
+	 * @param max  if not null the times must be at or before this
+	 * @return the timestamps and any problems
+	 * @throws IOException if there is a problem reading the file
+	 */
+	public static EpochTimestamps readEpochTimestamps(Path file, ZoneId zone, TimeUnit unit, Instant min,
+			Instant max) throws IOException {
+		EpochTimestampReader reader = new EpochTimestampReader(zone, unit, min, max);
+		try (BufferedReader fileReader = Files.newBufferedReader(file)) {
+			return reader.read(fileReader, false);
+		}
+	}
+
+	/**
+	 * Asks the user to enter (or more likely paste or pipe in) a list of date
+	 * times, one per line, ending with a blank line or the end of the input. These
+	 * are read in the same way as readEpochTimestamps, any lines that couldn't be
+	 * used are reported once the list has been read.
+	 * 
+	 * @param prompt the prompt to use when asking for input
+	 * @param zone   the zone for lines that don't have an offset or zone
+	 * @param unit   the units for the values, e.g. MILLISECONDS or NANOSECONDS,
+	 *               must be SECONDS or smaller
+	 * @param min    if not null the times must be at or after this
+	 * @param max    if not null the times must be at or before this
+	 * @return the timestamps and any problems
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 */
+	public static EpochTimestamps getEpochTimestamps(String prompt, ZoneId zone, TimeUnit unit, Instant min,
+			Instant max) throws IOException {
+		EpochTimestampReader reader = new EpochTimestampReader(zone, unit, min, max);
+		setupInput();
+		doOutput(prompt + " (one ISO date time per line, e.g. 2026-10-16T14:30:05, times without an offset or zone "
+				+ "are in " + zone.getId() + ", finish with a blank line)");
+		EpochTimestamps timestamps = reader.read(br, true);
+		if (timestamps.getErrorCount() > 0) {
+			timestamps.getErrors().forEach(TextIOUtils::doOutput);
+			doOutput(timestamps.getErrorCount() + " lines were skipped, " + timestamps.size() + " timestamps read");
+		}
+		return timestamps;
+	}
+
+	/**
+	 * Asks the user for a range of dates, see getDateRange(String, LocalDate,
+	 * LocalDate), any dates are allowed
+	 * 
+	 * @param prompt the prompt to use when asking for input
+	 * @return the entered range
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 */
+	public static DateRange getDateRange(String prompt) throws IOException {
+		return getDateRange(prompt, LocalDate.MIN, LocalDate.MAX);
+	}
+
+	/**
+	 * Asks the user for a range of dates (both ends are included). This can be
+	 * entered on one line as start..end, e.g. 2026-10-01..2026-10-16, and either
+	 * end can be today or relative to today e.g. -7d..today, the units are d
+	 * (days), w (weeks), mo (months) and y (years). If they just press return the
+	 * start and then the end are asked for separately.
+	 * 
+	 * Both ends must be within the min and max dates and the end can't be before
+	 * the start, if it is only the one line needs to be entered again
+	 * 
+	 * @param prompt  the prompt to use when asking for input
+	 * @param mindate the start must be &gt;= this
+	 * @param maxdate the end must be &lt;= this
+	 * @return the entered range
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 */
+	public static DateRange getDateRange(String prompt, LocalDate mindate, LocalDate maxdate) throws IOException {
+		if (maxdate.isBefore(mindate)) {
+			throw new IOException("Provided maximum date " + maxdate.format(DateTimeFormatter.ISO_DATE)
+					+ " is before the minimum date " + mindate.format(DateTimeFormatter.ISO_DATE));
+		}
+		ISODateTimeParser parser = new ISODateTimeParser();
+		while (true) {
+			String entered = getString("Please enter the date range for " + prompt + " as start" + RANGE_SEPARATOR
+					+ "end, e.g. 2026-10-01" + RANGE_SEPARATOR + "2026-10-16 or -7d" + RANGE_SEPARATOR
+					+ "today (d, w, mo and y can be used), or press return to enter the start and end separately",
+					(String) null, true);
+			if (entered.isBlank()) {
+				LocalDate start = getISOLocalDate("the start of " + prompt, mindate, maxdate);
+				LocalDate end = getISOLocalDate("the end of " + prompt, start, maxdate);
+				return new DateRange(start, end);
+			}
+			int separator = entered.indexOf(RANGE_SEPARATOR);
+			if (separator < 0) {
+				doOutput("Sorry, the start and end must be separated by " + RANGE_SEPARATOR);
+				continue;
+			}
+			try {
+				// both ends are relative to the same today
+				LocalDate today = LocalDate.now();
+				LocalDate start = RelativeDateTimeParser.parseDate(entered.substring(0, separator), today, parser);
+				LocalDate end = RelativeDateTimeParser.parseDate(
+						entered.substring(separator + RANGE_SEPARATOR.length()), today, parser);
+				if (start.isBefore(mindate) || end.isAfter(maxdate)) {
+					doOutput("Sorry, the range must be within " + mindate.format(DateTimeFormatter.ISO_LOCAL_DATE)
+							+ " and " + maxdate.format(DateTimeFormatter.ISO_LOCAL_DATE));
+				} else if (end.isBefore(start)) {
+					doOutput("Sorry, the end " + end + " is before the start " + start);
+				} else {
+					return new DateRange(start, end);
+				}
+			} catch (IllegalArgumentException | DateTimeException e) {
+				doOutput("Sorry, " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Asks the user for a range of date times in the zone, see
+	 * getDateTimeRange(String, ZoneId, LocalDateTime, LocalDateTime), any date
+	 * times are allowed
+	 * 
+	 * @param prompt the prompt to use when asking for input
+	 * @param zoneId the zone for date times that don't have an offset or zone
+	 * @return the entered range
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 */
+	public static DateTimeRange getDateTimeRange(String prompt, ZoneId zoneId) throws IOException {
+		return getDateTimeRange(prompt, zoneId, LocalDateTime.MIN, LocalDateTime.MAX);
+	}
+
+	/**
+	 * Asks the user for a range of date times (both ends are included). This can
+	 * be entered on one line as start..end where each end is an ISO date time
+	 * (optionally with an offset and / or zone) e.g.
+	 * 2026-10-01T09:00..2026-10-16T17:30, a date on its own means the start of the
+	 * day for the start or the end of the day for the end. Either end can be now,
+	 * today, or relative to now e.g. -24h..now, the units are s, m (minutes), h, d,
+	 * w, mo (months) and y. If they just press return the start and then the end
+	 * are asked for separately.
+	 * 
+	 * Both ends must be within the min and max (in the zone) and the end can't be
+	 * before the start, if it is only the one line needs to be entered again
+	 * 
+	 * @param prompt the prompt to use when asking for input
+	 * @param zoneId the zone for date times that don't have an offset or zone
+	 * @param mindtg the start must be &gt;= this
+	 * @param maxdtg the end must be &lt;= this
+	 * @return the entered range
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 */
+	public static DateTimeRange getDateTimeRange(String prompt, ZoneId zoneId, LocalDateTime mindtg,
+			LocalDateTime maxdtg) throws IOException {
+		if (mindtg.isAfter(maxdtg)) {
+			throw new IOException("DTG range mindtg " + mindtg.format(DateTimeFormatter.ISO_DATE_TIME)
+					+ " cannot be after maxdtg " + maxdtg.format(DateTimeFormatter.ISO_DATE_TIME));
+		}
+		ISODateTimeParser parser = new ISODateTimeParser();
+		while (true) {
+			String entered = getString("Please enter the date time range for " + prompt + " as start" + RANGE_SEPARATOR
+					+ "end, e.g. 2026-10-01T09:00" + RANGE_SEPARATOR + "2026-10-16T17:30 or -24h" + RANGE_SEPARATOR
+					+ "now (s, m, h, d, w, mo and y can be used), or press return to enter the start and end "
+					+ "separately", (String) null, true);
+			if (entered.isBlank()) {
+				ZonedDateTime start = getISOZonedDateTimeTimeZone("the start of " + prompt, zoneId, mindtg, maxdtg);
+				ZonedDateTime end = getISOZonedDateTimeTimeZone("the end of " + prompt, zoneId,
+						start.toLocalDateTime(), maxdtg);
+				return new DateTimeRange(start, end);
+			}
+			int separator = entered.indexOf(RANGE_SEPARATOR);
+			if (separator < 0) {
+				doOutput("Sorry, the start and end must be separated by " + RANGE_SEPARATOR);
+				continue;
+			}
+			try {
+				// both ends are relative to the same now
+				ZonedDateTime now = ZonedDateTime.now(zoneId).truncatedTo(ChronoUnit.SECONDS);
+				ZonedDateTime start = RelativeDateTimeParser.parseDateTime(entered.substring(0, separator), now,
+						false, parser);
+				ZonedDateTime end = RelativeDateTimeParser.parseDateTime(
+						entered.substring(separator + RANGE_SEPARATOR.length()), now, true, parser);
+				if (start.withZoneSameInstant(zoneId).toLocalDateTime().isBefore(mindtg)
+						|| end.withZoneSameInstant(zoneId).toLocalDateTime().isAfter(maxdtg)) {
+					doOutput("Sorry, the range must be within " + mindtg.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+							+ " and " + maxdtg.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " in " + zoneId);
+				} else if (end.isBefore(start)) {
+					doOutput("Sorry, the end " + end + " is before the start " + start);
+				} else {
+					return new DateTimeRange(start, end);
+				}
+			} catch (IllegalArgumentException | DateTimeException e) {
+				doOutput("Sorry, " + e.getMessage());
+			}
+		}
+	}
+
 	/**
 	 * prompts for an offset from GMT in terms of hours an mins, the resulting
 	 * string will be 01:00 (in the case of british summer time which is 1 hours
@@ -4031,9 +5987,55 @@ public class TextIOUtils {
 	 * @throws IOException if there is a problem setting up the reader on the input
 	 *                     or reading the input
 	 */
-	private static Map<String, Set<String>> tzRegions;
-	private static Set<String> tzTopLevel;
-	private final static String TZ_SEPARATOR = "/";
+	final static String TZ_SEPARATOR = "/";
+	final static String RANGE_SEPARATOR = "..";
+	private static int timeZoneSearchMaxResults = 20;
+
+	/**
+	 * when the time zone entered in getTimeZoneByName isn't a known zone or region
+	 * it's searched for and the user offered a short list of the best matches, this
+	 * sets how long that list can be
+	 * 
+	 * @param timeZoneSearchMaxResults the most matches to offer, must be at least
+	 *                                 1
+	 */
+	public static void setTimeZoneSearchMaxResults(int timeZoneSearchMaxResults) {
+		if (timeZoneSearchMaxResults < 1) {
+			throw new IllegalArgumentException("Time zone search max results must be at least 1");
+		}
+		TextIOUtils.timeZoneSearchMaxResults = timeZoneSearchMaxResults;
+	}
+
+	/**
+	 * get the most matches offered when searching for a time zone
+	 * 
+	 * @return the max results
+	 */
+	public static int getTimeZoneSearchMaxResults() {
+		return timeZoneSearchMaxResults;
+	}
+
+	/**
+	 * search for time zones, the fragment can be part of the zone id (e.g. kolkata
+	 * or buenos aires), an abbreviation or the zone name (e.g. IST or India
+	 * Standard Time) or an offset from UTC which is matched against the current
+	 * offset of the zones (e.g. +5:30, -8, UTC+05:30). Case is ignored.
+	 * 
+	 * The results are best match first, exact ids, then whole words or
+	 * abbreviations, then words starting with the fragment then ids just containing
+	 * it. Within each the region based ids come before the old style ones (e.g.
+	 * EST, Etc/GMT+5)
+	 * 
+	 * The search index is built the first time this is used and then shared
+	 * 
+	 * @param fragment   what to look for, text fragments must be at least 2
+	 *                   characters
+	 * @param maxResults the most zones to return
+	 * @return the matching zones, best first, empty if there are none
+	 */
+	public static List<ZoneId> findTimeZones(String fragment, int maxResults) {
+		return TimeZoneSearchIndex.getInstance().search(fragment, maxResults);
+	}
 
 	/**
 	 * 
@@ -4054,6 +6056,11 @@ public class TextIOUtils {
 	 * Asks the user to select a timezone by name, if they press return and
 	 * defaultToCurrentTimeZOne is true then the current TZ is used
 	 * 
+	 * If defaultToCurrentTimeZOne is true and what they enter isn't a known time
+	 * zone or region it's searched for (see findTimeZones) so they can enter
+	 * something like kolkata, IST or +5:30 and pick from a short list of matches,
+	 * or go to the selector if none are what they want
+	 * 
 	 * @param prompt                  the prompt to use when asking for input
 	 * @param defaulToCurrentTimeZone if true default to the current timezone if the
 	 *                                user just presses return
@@ -4062,87 +6069,128 @@ public class TextIOUtils {
 	 *                     or reading the input
 	 */
 	public static ZoneId getTimeZoneByName(String prompt, boolean defaulToCurrentTimeZone) throws IOException {
-		setupTZDataStructures();
-		var currentOptionsSet = tzTopLevel;
-		String currentTZLevel = "";
-		int levelCounter = 0;
+		// the tree and its menus are built once and shared
+		TimeZoneRegionTree tzTree = TimeZoneRegionTree.getInstance();
+		int currentNode = TimeZoneRegionTree.ROOT;
 		String currentTZ = TimeZone.getDefault().getID();
 		if (defaulToCurrentTimeZone) {
 			// ask to use the TZ with the provided as the default
 			String chosenTZ = TextIOUtils.getString(
-					"Please enter a timezone, press enter to use the default or enter something that is nto a current timezone (e.g. n) to entert the time zone selector",
+					"Please enter a timezone, part of its name, its abbreviation or offset "
+							+ "(e.g. kolkata, IST or +5:30), press enter to use the default or enter something "
+							+ "that doesn't match (e.g. n) to enter the time zone selector",
 					currentTZ);
-			boolean knownTZName = tzRegions.containsKey(chosenTZ);
-			var possibleChildren = tzRegions.get(chosenTZ);
-			if (knownTZName && (possibleChildren == null)) {
+			int chosenNode = tzTree.find(chosenTZ);
+			if ((chosenNode >= 0) && tzTree.isZone(chosenNode)) {
 				// we know of this zone and it is a leaf so has no children
 				return ZoneId.of(chosenTZ);
-			} else if (knownTZName && (possibleChildren != null)) {
+			} else if (chosenNode >= 0) {
 				// we know of this zone but it is not a leaf so has children, set things up to
 				// start selecting from there
-				currentTZLevel = chosenTZ;
-				currentOptionsSet = possibleChildren;
-				levelCounter = chosenTZ.split(TZ_SEPARATOR).length;
+				currentNode = chosenNode;
 				TextIOUtils.doOutput(chosenTZ + " is a region, starting selection from there");
 			} else {
-				TextIOUtils.doOutput("Sorry, but " + chosenTZ + " is not known, starting selection");
+				List<ZoneId> matches = findTimeZones(chosenTZ, timeZoneSearchMaxResults);
+				if (matches.isEmpty()) {
+					TextIOUtils.doOutput("Sorry, but " + chosenTZ + " is not known, starting selection");
+				} else {
+					ZoneId match = chooseTimeZoneMatch(prompt, matches);
+					if (match != null) {
+						return match;
+					}
+				}
 			}
 		}
-		while (currentOptionsSet != null) {
-			var choiceDescriptions = new LinkedList<ChoiceDescription<String>>();
-			for (String option : currentOptionsSet) {
-				var optionWithPath = levelCounter == 0 ? option : currentTZLevel + TZ_SEPARATOR + option;
-				var children = tzRegions.get(optionWithPath);
-				int childCount = children == null ? 0 : children.size();
-				var desc = childCount == 0 ? " TimeZone" : " Region with " + childCount + " entries";
-				choiceDescriptions.add(new ChoiceDescription<>(option, desc));
-			}
-			var cdd = new ChoiceDescriptionData<>(choiceDescriptions);
-			var choice = TextIOUtils.getStringChoice(prompt, cdd);
-			// String choice = cdd.getChoice(chosenOption);
-			// from the current currentOptionsSet find all of the children
-			// try to move down a level
-			currentTZLevel = levelCounter == 0 ? choice : currentTZLevel + TZ_SEPARATOR + choice;
-			// "move" down a level
-			currentOptionsSet = tzRegions.get(currentTZLevel);
-			levelCounter++;
+		while (!tzTree.isZone(currentNode)) {
+			// "move" down a level, the param of each choice is its node in the tree
+			currentNode = TextIOUtils.getParamChoice(prompt, tzTree.getMenu(currentNode));
 		}
-		return ZoneId.of(currentTZLevel);
-	}
-
-	/**
-	 * if we need the TZ stuff build it, but on demand
-	 */
-	private static void setupTZDataStructures() {
-		// if needed do lazy initialization of the TZ structures
-		if (tzRegions == null) {
-			tzRegions = new HashMap<>();
-			tzTopLevel = new TreeSet<>();
-			var ids = ZoneId.getAvailableZoneIds();
-			for (var tz : ids) {
-				var tzPathComponents = tz.split(TZ_SEPARATOR);
-				tzTopLevel.add(tzPathComponents[0]);
-				var tzPath = "";
-				for (int i = 0; i < tzPathComponents.length; i++) {
-					// build the path string up
-					tzPath = i == 0 ? tzPathComponents[i] : tzPath + TZ_SEPARATOR + tzPathComponents[i];
-					// if we've reached the end of the path then add it to the map with a null value
-					if (i == tzPathComponents.length - 1) {
-						tzRegions.put(tzPath, null);
-					} else {
-						// there is at least one more sub element (path or actuall TZ) beneath this one
-						// if there's not a set of suib elements there already for this path build and
-						// add one
-						var tzChildren = tzRegions.get(tzPath);
-						if (tzChildren == null) {
-							tzChildren = new TreeSet<>();
-							tzRegions.put(tzPath, tzChildren);
-						}
-						tzChildren.add(tzPathComponents[i + 1]);
-					}
-				}
+		return ZoneId.of(tzTree.getFullName(currentNode));
+	}
+
+	/**
+	 * Lets the user choose a leaf from any tree in the same way as
+	 * getTimeZoneByName, they can type a path (or the start of one) to go straight
+	 * to a node, or press return and drill down a level at a time. Only the parts
+	 * of the tree that are displayed are loaded.
+	 * 
+	 * This builds a new TreeChooser each time, if the same tree is going to be
+	 * used for several prompts create a TreeChooser and keep it so what has been
+	 * loaded is reused
+	 * 
+	 * @param <N>    the type of the nodes
+	 * @param prompt the prompt to use when asking for input
+	 * @param source where the nodes come from
+	 * @return the chosen leaf, or null if the user cancelled
+	 * @throws IOException if there is a problem reading the input or loading the
+	 *                     tree
+	 * @see TreeChooser
+	 * @see TreeChoiceSource
+	 */
+	public static <N> N chooseFromTree(String prompt, TreeChoiceSource<N> source) throws IOException {
+		return new TreeChooser<>(source).choose(prompt);
+	}
+
+	/**
+	 * Asks the user to select a timezone by first choosing the offset from UTC
+	 * (e.g. UTC-07:00) and then choosing from the zones that have that offset.
+	 * The offsets are the ones the zones have at the given instant, so for
+	 * example in the northern summer Europe/London is in the UTC+01:00 group
+	 * 
+	 * The grouping is worked out once and reused until some zone changes its offset
+	 * (e.g. daylight saving starts or ends) so repeated prompts are quick
+	 * 
+	 * @param prompt                   the prompt to use when asking for input
+	 * @param instant                  when the offsets apply, if null now is used
+	 * @param defaultToCurrentTimeZone if true the offset of the current time zone,
+	 *                                 and then the current time zone, are the
+	 *                                 defaults
+	 * @return the chosen zone
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 */
+	public static ZoneId getTimeZoneByOffsetGroup(String prompt, Instant instant, boolean defaultToCurrentTimeZone)
+			throws IOException {
+		Instant at = instant == null ? Instant.now() : instant;
+		TimeZoneOffsetGroups.Grouping grouping = TimeZoneOffsetGroups.getInstance().getGrouping(at);
+		ZoneId currentZone = ZoneId.systemDefault();
+		ZoneOffset currentOffset = currentZone.getRules().getOffset(at);
+		while (true) {
+			// the menus are shared, so defaults go on a copy
+			ChoiceDescriptionData<ZoneOffset> offsetMenu = grouping.getOffsetMenu();
+			if (defaultToCurrentTimeZone) {
+				offsetMenu = offsetMenu.clone();
+				offsetMenu.setDefaultByParam(currentOffset);
 			}
+			ZoneOffset offset = getParamChoice(prompt + " (offset from UTC)", offsetMenu);
+			ChoiceDescriptionData<ZoneId> zoneMenu = grouping.getZoneMenu(offset);
+			if (defaultToCurrentTimeZone && offset.equals(currentOffset)) {
+				zoneMenu = zoneMenu.clone();
+				zoneMenu.setDefaultByParam(currentZone);
+			}
+			ZoneId zoneId = getParamChoice(prompt + " (zones at " + TimeZoneOffsetGroups.describe(offset) + ")",
+					zoneMenu);
+			// null means they want to go back to the offsets
+			if (zoneId != null) {
+				return zoneId;
+			}
+		}
+	}
+
+	/**
+	 * offer the matches, the best is the default
+	 * 
+	 * @return the chosen zone or null if they want the selector instead
+	 */
+	private static ZoneId chooseTimeZoneMatch(String prompt, List<ZoneId> matches) throws IOException {
+		TimeZoneSearchIndex index = TimeZoneSearchIndex.getInstance();
+		ChoiceDescriptionData<ZoneId> cdd = new ChoiceDescriptionData<>();
+		for (ZoneId match : matches) {
+			cdd.addChoiceDescription(new ChoiceDescription<>(index.describe(match), match));
 		}
+		cdd.addAbandonOption("None of these, use the time zone selector", false, false);
+		cdd.setDefaultByIndex(0);
+		return getParamChoice(prompt, cdd);
 	}
 
 	/**
@@ -4196,6 +6244,9 @@ public class TextIOUtils {
 	 * Prompts the user to enter a time in 24 hours format, the current local time
 	 * is used as the default the time must be within the mintime and max time
 	 * 
+	 * The whole time can be entered on one line as HH:MM:SS (or HH:MM), if just the
+	 * hour is entered the rest is asked for a step at a time
+	 * 
 	 * The return string is of the format HH:MM:SS
 	 * 
 	 * @param prompt the prompt to use when asking for input
@@ -4211,16 +6262,47 @@ public class TextIOUtils {
 			throw new IOException("Mintime " + mintime.format(DateTimeFormatter.ISO_TIME) + " can't be after maxtime "
 					+ maxtime.format(DateTimeFormatter.ISO_TIME));
 		}
-		int minhour = mintime.getHour();
-		int maxhour = maxtime.getHour();
-		int defaulthour = LocalTime.now().getHour();
-		if (defaulthour < minhour) {
-			defaulthour = minhour;
+		LocalTime lt = clamp(LocalTime.now().truncatedTo(ChronoUnit.SECONDS), mintime, maxtime);
+		ISODateTimeParser parser = new ISODateTimeParser();
+		while (true) {
+			String entered = getString("Please enter the time for " + prompt
+					+ " as HH:MM:SS or HH:MM, or just the hour to be asked for the rest",
+					lt.format(DateTimeFormatter.ISO_LOCAL_TIME));
+			if (!parser.parseTime(entered)) {
+				doOutput("Sorry, " + entered + " isn't a time, " + parser.getError());
+				continue;
+			}
+			LocalTime time = getISOLocalTimeRest(prompt, mintime, maxtime, parser);
+			if (time != null) {
+				return time;
+			}
+		}
+	}
+
+	/**
+	 * the time has been parsed, if it's complete check it's in range, if not ask
+	 * for the rest of it
+	 * 
+	 * @return the time or null if what was entered is out of range (this has been
+	 *         reported)
+	 */
+	private static LocalTime getISOLocalTimeRest(String prompt, LocalTime mintime, LocalTime maxtime,
+			ISODateTimeParser parser) throws IOException {
+		if (parser.isTimeComplete()) {
+			LocalTime time = parser.toLocalTime();
+			if (time.isBefore(mintime) || time.isAfter(maxtime)) {
+				doOutput("Sorry, " + time.format(DateTimeFormatter.ISO_LOCAL_TIME) + " isn't between "
+						+ mintime.format(DateTimeFormatter.ISO_LOCAL_TIME) + " and "
+						+ maxtime.format(DateTimeFormatter.ISO_LOCAL_TIME));
+				return null;
+			}
+			return time;
 		}
-		if (defaulthour > maxhour) {
-			defaulthour = maxhour;
+		int hour = parser.getHour();
+		if ((hour < mintime.getHour()) || (hour > maxtime.getHour())) {
+			doOutput("Sorry, the hour must be between " + mintime.getHour() + " and " + maxtime.getHour());
+			return null;
 		}
-		int hour = getInt("Please enter hours for " + prompt, NumberInputOption.RANGE, minhour, maxhour, defaulthour);
 
 		int minmin = mintime.getHour() == hour ? mintime.getMinute() : 0;
 		int maxmin = maxtime.getHour() == hour ? maxtime.getMinute() : 59;
@@ -4306,6 +6388,9 @@ public class TextIOUtils {
 	 * Prompts the user to enter a date , which the current local date is used as
 	 * the default.
 	 * 
+	 * The whole date can be entered on one line as YYYY-MM-DD, if just the year (or
+	 * the year and month) is entered the rest is asked for a step at a time
+	 * 
 	 * The day of the month will be restricted to the actual number of days in that
 	 * month in that year (so for Seb 28 normally, but 28 in leap years
 	 * 
@@ -4323,15 +6408,47 @@ public class TextIOUtils {
 			throw new IOException("Provided maximum date " + maxdate.format(DateTimeFormatter.ISO_DATE)
 					+ " is before the minimum date " + mindate.format(DateTimeFormatter.ISO_DATE));
 		}
-		LocalDate ld = LocalDate.now();
-		if (ld.isBefore(mindate)) {
-			ld = mindate;
+		LocalDate ld = clamp(LocalDate.now(), mindate, maxdate);
+		ISODateTimeParser parser = new ISODateTimeParser();
+		while (true) {
+			String entered = getString("Please enter the date for " + prompt
+					+ " as YYYY-MM-DD, or just the year (or year-month) to be asked for the rest",
+					ld.format(DateTimeFormatter.ISO_LOCAL_DATE));
+			if (!parser.parseDate(entered)) {
+				doOutput("Sorry, " + entered + " isn't a date, " + parser.getError());
+				continue;
+			}
+			LocalDate date = getISOLocalDateRest(prompt, mindate, maxdate, ld, parser);
+			if (date != null) {
+				return date;
+			}
+		}
+	}
+
+	/**
+	 * the date has been parsed, if it's complete check it's in range, if not ask
+	 * for the rest of it
+	 * 
+	 * @return the date or null if what was entered is out of range (this has been
+	 *         reported)
+	 */
+	private static LocalDate getISOLocalDateRest(String prompt, LocalDate mindate, LocalDate maxdate, LocalDate ld,
+			ISODateTimeParser parser) throws IOException {
+		if (parser.isDateComplete()) {
+			LocalDate date = parser.toLocalDate();
+			if (date.isBefore(mindate) || date.isAfter(maxdate)) {
+				doOutput("Sorry, " + date.format(DateTimeFormatter.ISO_LOCAL_DATE) + " isn't between "
+						+ mindate.format(DateTimeFormatter.ISO_LOCAL_DATE) + " and "
+						+ maxdate.format(DateTimeFormatter.ISO_LOCAL_DATE));
+				return null;
+			}
+			return date;
 		}
-		if (ld.isAfter(maxdate)) {
-			ld = maxdate;
+		int year = parser.getYear();
+		if ((year < mindate.getYear()) || (year > maxdate.getYear())) {
+			doOutput("Sorry, the year must be between " + mindate.getYear() + " and " + maxdate.getYear());
+			return null;
 		}
-		int year = getInt("Please enter year for " + prompt, NumberInputOption.RANGE, mindate.getYear(),
-				maxdate.getYear(), ld.getYear());
 		// given the year what are the options for months - it might be we have a
 		// restricted number if the year is at the begining or end of the range
 		int minmonth = mindate.getYear() == year ? mindate.getMonthValue() : 1;
@@ -4343,8 +6460,14 @@ public class TextIOUtils {
 		if (defaultmonth > maxmonth) {
 			defaultmonth = maxmonth;
 		}
-		int month = getInt("Please enter month in " + year + " for " + prompt, NumberInputOption.RANGE, minmonth,
-				maxmonth, defaultmonth);
+		int month = parser.getMonth();
+		if (month == ISODateTimeParser.NOT_ENTERED) {
+			month = getInt("Please enter month in " + year + " for " + prompt, NumberInputOption.RANGE, minmonth,
+					maxmonth, defaultmonth);
+		} else if ((month < minmonth) || (month > maxmonth)) {
+			doOutput("Sorry, the month in " + year + " must be between " + minmonth + " and " + maxmonth);
+			return null;
+		}
 
 		// work out the day of the month, whihs can vary betwene 28 & 31 depending on
 		// the month (and possibly leap year) and also
@@ -4366,23 +6489,29 @@ public class TextIOUtils {
 		return LocalDate.of(year, month, day);
 	}
 
+	/**
+	 * limit the value to the range
+	 */
+	private static <T extends Comparable<? super T>> T clamp(T value, T min, T max) {
+		if (value.compareTo(min) < 0) {
+			return min;
+		}
+		if (value.compareTo(max) > 0) {
+			return max;
+		}
+		return value;
+	}
+
 	/**
 	 * Converts a number to a minimum of two digits in the resulting string
 	 * 
 	 * @param number the number to convert
 	 * @return the String representation at a minimum of 2 characters (i.e with
 	 *         leading zero if required)
+	 * @see PaddedNumberFormatter
 	 */
 	public static String toTwoDigit(int number) {
-		if (number <= -10) {
-			return "" + number;
-		} else if (number < 0) {
-			return "-0" + (number * -1);
-		} else if (number < 10) {
-			return "0" + number;
-		} else {
-			return "" + number;
-		}
+		return PaddedNumberFormatter.toPadded(number, 2, 10, '0');
 	}
 
 	/**
@@ -4391,27 +6520,10 @@ public class TextIOUtils {
 	 * @param number the number to convert
 	 * @return the String representation at a minimum of 4 characters (i.e with
 	 *         leading zeros if required)
+	 * @see PaddedNumberFormatter
 	 */
 	public static String toFourDigit(int number) {
-		if (number <= -1000) {
-			return "" + number;
-		} else if (number <= -100) {
-			return "-0" + (number * -1);
-		} else if (number <= -10) {
-			return "-00" + (number * -1);
-		} else if (number < 0) {
-			return "-000" + (number * -1);
-		} else if (number == 0) {
-			return "0000";
-		} else if (number < 10) {
-			return "000" + number;
-		} else if (number < 100) {
-			return "00" + number;
-		} else if (number < 1000) {
-			return "0" + number;
-		} else {
-			return "" + number;
-		}
+		return PaddedNumberFormatter.toPadded(number, 4, 10, '0');
 	}
 
 	/**
@@ -4441,28 +6553,22 @@ public class TextIOUtils {
 	 *                     false no default is created
 	 * @return the generated ChoiceDescriptionData
 	 */
-	@SuppressWarnings("unchecked")
 	public static <T extends Enum<T>> ChoiceDescriptionData<Enum<T>> buildChoiceDescriptionDataFromSampleEnumValue(
 			Enum<T> enumconstant, boolean setAsDefault) {
-		ChoiceDescriptionData<Enum<T>> cdd = buildChoiceDescriptionDataFromEnumClass(
-				(Class<? extends Enum<T>>) enumconstant.getClass());
+		// getDeclaringClass, not getClass, as a constant with a body has its own class
+		ChoiceDescriptionData<Enum<T>> cdd = EnumMenu.of(enumconstant.getDeclaringClass()).newMenu();
 		if (setAsDefault) {
-			ChoiceDescription<Enum<T>> defaultChoice = cdd.locateChoiceDescriptionByParam(enumconstant);
-			if (defaultChoice == null) {
-				// this should not be possible as we build it using all of the enum values but
-				// defensive programming and all that
-				System.err.println("Major programming problem, cannot locate the CDD with param " + enumconstant
-						+ " unable to set it as default");
-			} else {
-				cdd.setDefaultByChoiceDescription(defaultChoice);
-			}
+			// the menu is in ordinal order so there's no need to search for it
+			cdd.setDefaultByIndex(enumconstant.ordinal());
 		}
 		return cdd;
 	}
 
 	/**
 	 * Given the enum class build a ChoiceDescriptionData representing all of the
-	 * constants in the enum
+	 * constants in the enum. The constants and their option text are only worked
+	 * out the first time an enum is used, after that this just builds the choices
+	 * from the cached values.
 	 * 
 	 * @param <T>       The class of the enum
 	 * @param enumclass The class of the enum
@@ -4470,7 +6576,7 @@ public class TextIOUtils {
 	 */
 	public static <T extends Enum<T>> ChoiceDescriptionData<Enum<T>> buildChoiceDescriptionDataFromEnumClass(
 			Class<? extends Enum<T>> enumclass) {
-		return buildChoiceDescriptionDataFromEnumValues(enumclass.getEnumConstants());
+		return EnumMenu.of(enumclass).newMenu();
 	}
 
 	/**
@@ -4491,10 +6597,86 @@ public class TextIOUtils {
 		return cdd;
 	}
 
+	/**
+	 * Let the user choose one of the constants of the enum, in the order they are
+	 * declared. The menu for each enum is built once and then shared, so this is
+	 * the quickest way of asking for an enum value repeatedly (for example in a
+	 * configuration wizard)
+	 * 
+	 * @param <T>          the enum
+	 * @param prompt       the prompt to use when asking for input
+	 * @param enumClass    the class of the enum
+	 * @param defaultValue if not null this is the default choice
+	 * @return the chosen constant
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 */
+	public static <T extends Enum<T>> T getEnumChoice(String prompt, Class<T> enumClass, T defaultValue)
+			throws IOException {
+		EnumMenu<T> menu = EnumMenu.of(enumClass);
+		ChoiceDescriptionData<Enum<T>> cdd = menu.getLockedMenu();
+		if (defaultValue != null) {
+			// the shared menu is locked so set the default on a copy
+			cdd = cdd.clone();
+			cdd.setDefaultByIndex(defaultValue.ordinal());
+		}
+		return menu.get(getParamChoice(prompt, cdd).ordinal());
+	}
+
+	/**
+	 * Let the user choose any number of the constants of the enum, in the same way
+	 * as makeMultiChoiceParamSelection, the result is an EnumSet so checking if a
+	 * constant was chosen is quick. If the user selects nothing the set is empty.
+	 * 
+	 * @param <T>                the enum
+	 * @param prompt             the prompt to use when asking for input
+	 * @param enumClass          the class of the enum
+	 * @param initiallySelected  if not null these constants are already selected
+	 *                           when the choices are displayed
+	 * @param multiChoiceEndText the text for the option that finishes the
+	 *                           selection, if null
+	 *                           ChoiceDescriptionData.MULTI_CHOICE_FINISHED_TEXT is
+	 *                           used
+	 * @return the chosen constants
+	 * @throws IOException if there is a problem setting up the reader on the input
+	 *                     or reading the input
+	 */
+	public static <T extends Enum<T>> EnumSet<T> getEnumSetChoice(String prompt, Class<T> enumClass,
+			Set<T> initiallySelected, String multiChoiceEndText) throws IOException {
+		EnumMenu<T> menu = EnumMenu.of(enumClass);
+		// the selections are held in the choice descriptions, so this needs its own
+		ChoiceDescriptionData<Enum<T>> cdd = menu.newMenu();
+		if (initiallySelected != null) {
+			for (T constant : initiallySelected) {
+				cdd.getChoiceDescription(constant.ordinal()).markSelected();
+			}
+		}
+		cdd.addMultiChoiceCompleteOption(
+				multiChoiceEndText == null ? ChoiceDescriptionData.MULTI_CHOICE_FINISHED_TEXT : multiChoiceEndText);
+		runMultiChoiceSelection(prompt, cdd);
+		// one bit per ordinal, then turn the bits into constants
+		long[] selectedOrdinals = new long[(menu.size() + 63) / 64];
+		for (int i = 0; i < cdd.length(); i++) {
+			ChoiceDescription<Enum<T>> cd = cdd.getChoiceDescription(i);
+			if (cd.isSelected() && !cdd.isMultiChoiceComplete(i)) {
+				int ordinal = cd.getParam().ordinal();
+				selectedOrdinals[ordinal >>> 6] |= 1L << ordinal;
+			}
+		}
+		EnumSet<T> selected = EnumSet.noneOf(enumClass);
+		for (int word = 0; word < selectedOrdinals.length; word++) {
+			for (long bits = selectedOrdinals[word]; bits != 0; bits &= bits - 1) {
+				selected.add(menu.get((word << 6) + Long.numberOfTrailingZeros(bits)));
+			}
+		}
+		return selected;
+	}
+
 	/**
 	 * Allow the user to make a choice zero or times until they chose the multi
 	 * choice complete option. For each choice toggle the selected state for the
-	 * choice (if it's selectable).
+	 * choice (if it's selectable). A range or list of choices (e.g. 3-25 or
+	 * 1,4,7-9) selects them all, or unselects them if they were all selected.
 	 * 
 	 * The choice description data MUST have had a addMultiChoiceComplete call made
 	 * against it so the code knows what option indicates the user is finished, if
@@ -4523,7 +6705,8 @@ public class TextIOUtils {
 	/**
 	 * Allow the user to make a choice zero or times until they chose the multi
 	 * choice complete option. For each choice toggle the selected state for the
-	 * choice (if it's selectable).
+	 * choice (if it's selectable). A range or list of choices (e.g. 3-25 or
+	 * 1,4,7-9) selects them all, or unselects them if they were all selected.
 	 * 
 	 * The choice description data MUST have had a addMultiChoiceComplete call made
 	 * against it so the code knows what option indicates the user is finished, if
@@ -4552,6 +6735,21 @@ public class TextIOUtils {
 	 */
 	public static <P> List<ChoiceDescription<P>> makeMultiChoiceChoiceDescriptionSelection(String prompt,
 			ChoiceDescriptionData<P> choiceDescriptionData, boolean clearSelection) throws IOException {
+		runMultiChoiceSelection(prompt, choiceDescriptionData);
+		// now get the selected items, this will reset the selection status
+		if (clearSelection) {
+			return choiceDescriptionData.getMultiChoiceSelectedChoiceDescriptionsAndClearSelections();
+		} else {
+			return choiceDescriptionData.getMultiChoiceSelectedChoiceDescriptions();
+		}
+	}
+
+	/**
+	 * toggle the selections until the user chooses the multi choice complete
+	 * option, the selections are left in the choice descriptions
+	 */
+	private static <P> void runMultiChoiceSelection(String prompt, ChoiceDescriptionData<P> choiceDescriptionData)
+			throws IOException {
 		if (choiceDescriptionData == null) {
 			throw new IllegalArgumentException("ChoiceDescriptionData cannot be null");
 		}
@@ -4563,25 +6761,26 @@ public class TextIOUtils {
 							+ choiceDescriptionData.toString());
 		}
 		while (true) {
-			int choice = getIntChoice(prompt, choiceDescriptionData);
+			List<int[]> ranges = getIntChoiceRanges(prompt, choiceDescriptionData);
+			int choice = getSingleChoice(ranges);
+			if (choice < 0) {
+				// a range or list, select (or unselect) them all
+				selectChoiceRanges(choiceDescriptionData, ranges);
+				continue;
+			}
 			if (choiceDescriptionData.isMultiChoiceComplete(choice)) {
 				break;
 			}
 			ChoiceDescription<P> cd = choiceDescriptionData.getChoiceDescription(choice);
 			cd.toggleSelected();
 		}
-		// now get the selected items, this will reset the selection status
-		if (clearSelection) {
-			return choiceDescriptionData.getMultiChoiceSelectedChoiceDescriptionsAndClearSelections();
-		} else {
-			return choiceDescriptionData.getMultiChoiceSelectedChoiceDescriptions();
-		}
 	}
 
 	/**
 	 * Allow the user to make a choice zero or times until they chose the multi
 	 * choice complete option. For each choice toggle the selected state for the
-	 * choice (if it's selectable).
+	 * choice (if it's selectable). A range or list of choices (e.g. 3-25 or
+	 * 1,4,7-9) selects them all, or unselects them if they were all selected.
 	 * 
 	 * The choice description data MUST have had a addMultiChoiceComplete call made
 	 * against it so the code knows what option indicates the user is finished, if
@@ -4609,7 +6808,8 @@ public class TextIOUtils {
 	/**
 	 * Allow the user to make a choice zero or times until they chose the multi
 	 * choice complete option. For each choice toggle the selected state for the
-	 * choice (if it's selectable).
+	 * choice (if it's selectable). A range or list of choices (e.g. 3-25 or
+	 * 1,4,7-9) selects them all, or unselects them if they were all selected.
 	 * 
 	 * The choice description data MUST have had a addMultiChoiceComplete call made
 	 * against it so the code knows what option indicates the user is finished, if
@@ -4644,7 +6844,8 @@ public class TextIOUtils {
 	/**
 	 * Allow the user to make a choice zero or times until they chose the multi
 	 * choice complete option. For each choice toggle the selected state for the
-	 * choice (if it's selectable).
+	 * choice (if it's selectable). A range or list of choices (e.g. 3-25 or
+	 * 1,4,7-9) selects them all, or unselects them if they were all selected.
 	 * 
 	 * The choice description data MUST have had a addMultiChoiceComplete call made
 	 * against it so the code knows what option indicates the user is finished, if
@@ -4672,7 +6873,8 @@ public class TextIOUtils {
 	/**
 	 * Allow the user to make a choice zero or times until they chose the multi
 	 * choice complete option. For each choice toggle the selected state for the
-	 * choice (if it's selectable).
+	 * choice (if it's selectable). A range or list of choices (e.g. 3-25 or
+	 * 1,4,7-9) selects them all, or unselects them if they were all selected.
 	 * 
 	 * The choice description data MUST have had a addMultiChoiceComplete call made
 	 * against it so the code knows what option indicates the user is finished, if
@@ -4707,7 +6909,8 @@ public class TextIOUtils {
 	/**
 	 * Allow the user to make a choice zero or times until they chose the multi
 	 * choice complete option. For each choice toggle the selected state for the
-	 * choice (if it's selectable).
+	 * choice (if it's selectable). A range or list of choices (e.g. 3-25 or
+	 * 1,4,7-9) selects them all, or unselects them if they were all selected.
 	 * 
 	 * The choice description data MUST have had a addMultiChoiceComplete call made
 	 * against it so the code knows what option indicates the user is finished, if
@@ -4735,7 +6938,8 @@ public class TextIOUtils {
 	/**
 	 * Allow the user to make a choice zero or times until they chose the multi
 	 * choice complete option. For each choice toggle the selected state for the
-	 * choice (if it's selectable).
+	 * choice (if it's selectable). A range or list of choices (e.g. 3-25 or
+	 * 1,4,7-9) selects them all, or unselects them if they were all selected.
 	 * 
 	 * The choice description data MUST have had a addMultiChoiceComplete call made
 	 * against it so the code knows what option indicates the user is finished, if
@@ -4770,7 +6974,8 @@ public class TextIOUtils {
 	/**
 	 * Allow the user to make a choice zero or times until they chose the multi
 	 * choice complete option. For each choice toggle the selected state for the
-	 * choice (if it's selectable).
+	 * choice (if it's selectable). A range or list of choices (e.g. 3-25 or
+	 * 1,4,7-9) selects them all, or unselects them if they were all selected.
 	 * 
 	 * The choice description data MUST have had a addMultiChoiceComplete call made
 	 * against it so the code knows what option indicates the user is finished, if
@@ -4801,7 +7006,8 @@ public class TextIOUtils {
 	 * 
 	 * Allow the user to make a choice zero or times until they chose the multi
 	 * choice complete option. For each choice toggle the selected state for the
-	 * choice (if it's selectable).
+	 * choice (if it's selectable). A range or list of choices (e.g. 3-25 or
+	 * 1,4,7-9) selects them all, or unselects them if they were all selected.
 	 * 
 	 * The choice description data MUST have had a addMultiChoiceComplete call made
 	 * against it so the code knows what option indicates the user is finished, if
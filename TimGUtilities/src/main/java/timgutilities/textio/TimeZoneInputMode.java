@@ -0,0 +1,62 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+/**
+ * How the ISO zoned date time methods ask for the time zone
+ * 
+ * @see TextIOUtils#getISOZonedDateTime(String, boolean, TimeZoneInputMode,
+ *      boolean, java.time.LocalDateTime, java.time.LocalDateTime)
+ */
+public enum TimeZoneInputMode {
+	/**
+	 * by name, e.g. Europe/London, either entered (or searched for) or chosen by
+	 * walking the regions
+	 */
+	NAME,
+	/**
+	 * as an offset from GMT in hours and minutes, the result is a fixed offset not
+	 * a named zone so it has no daylight saving rules
+	 */
+	OFFSET,
+	/**
+	 * by choosing the offset from UTC the zone has at the time being entered (e.g.
+	 * UTC-07:00) and then the zone from those with that offset, useful if you know
+	 * the offset you are on but not the name of the zone
+	 */
+	OFFSET_GROUPS
+}
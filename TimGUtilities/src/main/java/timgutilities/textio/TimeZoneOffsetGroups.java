@@ -0,0 +1,215 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Groups the time zones by the offset they have at an instant, for choosing a
+ * zone by its offset.
+ * 
+ * The rules for every zone are loaded once and kept. Working out a grouping
+ * also works out the period it's good for (from the latest daylight saving (or
+ * other) transition of any zone before the instant up to the earliest after
+ * it), so the grouping (and its menus) is only redone when asked for an instant
+ * outside that, which in practice is a few times a year.
+ */
+final class TimeZoneOffsetGroups {
+	// how many zones to show as examples in the offset menu
+	private static final int EXAMPLE_ZONES = 3;
+
+	private static final class Holder {
+		private static final TimeZoneOffsetGroups INSTANCE = new TimeZoneOffsetGroups();
+	}
+
+	// region based ids first, then in id order
+	private final ZoneId[] zones;
+	private final ZoneRules[] rules;
+	// replaced (never changed) when an instant outside it is asked for
+	private volatile Grouping grouping;
+
+	private TimeZoneOffsetGroups() {
+		List<String> ids = new ArrayList<>(ZoneId.getAvailableZoneIds());
+		ids.sort((first, second) -> {
+			boolean firstPreferred = TimeZoneSearchIndex.isRegionBased(first);
+			if (firstPreferred != TimeZoneSearchIndex.isRegionBased(second)) {
+				return firstPreferred ? -1 : 1;
+			}
+			return first.compareTo(second);
+		});
+		zones = new ZoneId[ids.size()];
+		rules = new ZoneRules[ids.size()];
+		for (int i = 0; i < zones.length; i++) {
+			zones[i] = ZoneId.of(ids.get(i));
+			rules[i] = zones[i].getRules();
+		}
+	}
+
+	/**
+	 * get the groups, loading the zone rules if this is the first time it's been
+	 * asked for
+	 * 
+	 * @return the groups
+	 */
+	static TimeZoneOffsetGroups getInstance() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * get the grouping of the zones at the instant, this reuses the last grouping
+	 * if no zone has changed its offset between then and now
+	 * 
+	 * @param instant when to work out the offsets for
+	 * @return the grouping, this is shared so don't change its menus
+	 */
+	Grouping getGrouping(Instant instant) {
+		Grouping current = grouping;
+		if ((current == null) || !current.isValidAt(instant)) {
+			// a thread that gets here while another one is building the grouping (e.g. the
+			// warm up) waits for it rather than doing the work again
+			synchronized (this) {
+				current = grouping;
+				if ((current == null) || !current.isValidAt(instant)) {
+					current = new Grouping(instant);
+					grouping = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * the zones grouped by offset, and the locked menus for choosing them
+	 */
+	final class Grouping {
+		// the grouping is right for instants from validFrom (inclusive) to validUntil
+		// (exclusive)
+		private final Instant validFrom;
+		private final Instant validUntil;
+		private final ChoiceDescriptionData<ZoneOffset> offsetMenu;
+		private final Map<ZoneOffset, ChoiceDescriptionData<ZoneId>> zoneMenus;
+
+		private Grouping(Instant instant) {
+			Instant from = Instant.MIN;
+			Instant until = Instant.MAX;
+			Map<ZoneOffset, List<ZoneId>> groups = new TreeMap<>(Collections.reverseOrder());
+			for (int i = 0; i < zones.length; i++) {
+				ZoneRules zoneRules = rules[i];
+				groups.computeIfAbsent(zoneRules.getOffset(instant), offset -> new ArrayList<>()).add(zones[i]);
+				if (zoneRules.isFixedOffset()) {
+					continue;
+				}
+				// the offset found applies from the transition (if there is one) at or before
+				// the instant until the next one
+				ZoneOffsetTransition previous = zoneRules.previousTransition(instant.plusNanos(1));
+				if ((previous != null) && previous.getInstant().isAfter(from)) {
+					from = previous.getInstant();
+				}
+				ZoneOffsetTransition next = zoneRules.nextTransition(instant);
+				if ((next != null) && next.getInstant().isBefore(until)) {
+					until = next.getInstant();
+				}
+			}
+			validFrom = from;
+			validUntil = until;
+			offsetMenu = new ChoiceDescriptionData<>();
+			zoneMenus = new HashMap<>();
+			// ZoneOffset orders biggest offset first, so reversing gives UTC-12 through
+			// UTC+14
+			for (Map.Entry<ZoneOffset, List<ZoneId>> group : groups.entrySet()) {
+				List<ZoneId> groupZones = group.getValue();
+				StringBuilder option = new StringBuilder(describe(group.getKey())).append(" (")
+						.append(groupZones.size()).append(groupZones.size() == 1 ? " zone" : " zones");
+				for (int i = 0; (i < groupZones.size()) && (i < EXAMPLE_ZONES); i++) {
+					option.append(i == 0 ? " e.g. " : ", ").append(groupZones.get(i).getId());
+				}
+				offsetMenu.addChoiceDescription(new ChoiceDescription<>(option.append(")").toString(), group.getKey()));
+				ChoiceDescriptionData<ZoneId> zoneMenu = new ChoiceDescriptionData<>();
+				for (ZoneId zone : groupZones) {
+					zoneMenu.addChoiceDescription(new ChoiceDescription<>(zone.getId(), zone));
+				}
+				zoneMenu.addAbandonOption("Back to the offsets", false, false);
+				zoneMenu.completeAndLock();
+				zoneMenus.put(group.getKey(), zoneMenu);
+			}
+			offsetMenu.completeAndLock();
+		}
+
+		private boolean isValidAt(Instant instant) {
+			return !instant.isBefore(validFrom) && instant.isBefore(validUntil);
+		}
+
+		/**
+		 * get the menu of offsets, the params are the offsets. This is shared so
+		 * clone it before setting a default
+		 * 
+		 * @return the menu
+		 */
+		ChoiceDescriptionData<ZoneOffset> getOffsetMenu() {
+			return offsetMenu;
+		}
+
+		/**
+		 * get the menu of the zones with the offset, the params are the zones and
+		 * there is a back option (which gives a null param). This is shared so clone
+		 * it before setting a default
+		 * 
+		 * @param offset the offset
+		 * @return the menu or null if no zones have that offset
+		 */
+		ChoiceDescriptionData<ZoneId> getZoneMenu(ZoneOffset offset) {
+			return zoneMenus.get(offset);
+		}
+	}
+
+	/**
+	 * e.g. UTC-07:00, UTC for zero
+	 */
+	static String describe(ZoneOffset offset) {
+		return "UTC" + (offset.getTotalSeconds() == 0 ? "" : offset.getId());
+	}
+}
@@ -0,0 +1,222 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The time zone ids arranged as a tree of regions (e.g. America then
+ * America/Argentina then America/Argentina/Cordoba) for the time zone name
+ * chooser.
+ * 
+ * The tree is built once, the first time it's needed, and never changes after
+ * that, so it's safe to share between threads with no locking. The nodes are
+ * held in arrays indexed by node number, the children of a node are next to each
+ * other and in name order. Each region also has its menu built up front and
+ * locked, so asking for a time zone doesn't have to build anything, it's just
+ * the display.
+ */
+final class TimeZoneRegionTree {
+	/**
+	 * the node number of the (unnamed) top of the tree
+	 */
+	static final int ROOT = 0;
+
+	// the class is only loaded (and so the tree built) the first time the instance
+	// is asked for, and the JVM makes sure that happens once and the result is
+	// seen by all threads
+	private static final class Holder {
+		private static final TimeZoneRegionTree INSTANCE = new TimeZoneRegionTree(ZoneId.getAvailableZoneIds());
+	}
+
+	// the last part of the name, e.g. Cordoba
+	private final String[] names;
+	// the full name, e.g. America/Argentina/Cordoba
+	private final String[] fullNames;
+	private final int[] firstChild;
+	private final int[] childCount;
+	// null for time zones, the locked menu of the children for regions
+	private final List<ChoiceDescriptionData<Integer>> menus;
+	// full names in order and their node numbers so names can be looked up
+	private final String[] sortedFullNames;
+	private final int[] sortedNodes;
+
+	private TimeZoneRegionTree(Iterable<String> zoneIds) {
+		// build a simple tree first, then lay it out in the arrays
+		BuildNode top = new BuildNode("", "");
+		int nodeCount = 1;
+		for (String zoneId : zoneIds) {
+			BuildNode node = top;
+			int start = 0;
+			while (start <= zoneId.length()) {
+				int end = zoneId.indexOf(TextIOUtils.TZ_SEPARATOR, start);
+				if (end < 0) {
+					end = zoneId.length();
+				}
+				String name = zoneId.substring(start, end);
+				BuildNode child = node.children.get(name);
+				if (child == null) {
+					child = new BuildNode(name, zoneId.substring(0, end));
+					node.children.put(name, child);
+					nodeCount++;
+				}
+				node = child;
+				start = end + 1;
+			}
+		}
+		names = new String[nodeCount];
+		fullNames = new String[nodeCount];
+		firstChild = new int[nodeCount];
+		childCount = new int[nodeCount];
+		menus = new ArrayList<>(Collections.nCopies(nodeCount, null));
+		// breadth first so each nodes children get consecutive numbers
+		Deque<BuildNode> toVisit = new ArrayDeque<>();
+		toVisit.add(top);
+		int nodeNumber = 0;
+		int nextNode = 1;
+		while (!toVisit.isEmpty()) {
+			BuildNode node = toVisit.removeFirst();
+			names[nodeNumber] = node.name;
+			fullNames[nodeNumber] = node.fullName;
+			firstChild[nodeNumber] = nextNode;
+			childCount[nodeNumber] = node.children.size();
+			nextNode += node.children.size();
+			toVisit.addAll(node.children.values());
+			nodeNumber++;
+		}
+		for (int i = 0; i < nodeCount; i++) {
+			if (childCount[i] > 0) {
+				menus.set(i, buildMenu(i));
+			}
+		}
+		sortedNodes = new int[nodeCount - 1];
+		Integer[] byName = new Integer[nodeCount - 1];
+		for (int i = 1; i < nodeCount; i++) {
+			byName[i - 1] = i;
+		}
+		Arrays.sort(byName, (first, second) -> fullNames[first].compareTo(fullNames[second]));
+		sortedFullNames = new String[nodeCount - 1];
+		for (int i = 0; i < byName.length; i++) {
+			sortedNodes[i] = byName[i];
+			sortedFullNames[i] = fullNames[byName[i]];
+		}
+	}
+
+	private ChoiceDescriptionData<Integer> buildMenu(int node) {
+		ChoiceDescriptionData<Integer> menu = new ChoiceDescriptionData<>();
+		for (int child = firstChild[node]; child < firstChild[node] + childCount[node]; child++) {
+			String description = isZone(child) ? " TimeZone" : " Region with " + childCount[child] + " entries";
+			menu.addChoiceDescription(new ChoiceDescription<>(names[child], description, child));
+		}
+		menu.completeAndLock();
+		return menu;
+	}
+
+	/**
+	 * get the tree, building it if this is the first time it's been asked for
+	 * 
+	 * @return the tree
+	 */
+	static TimeZoneRegionTree getInstance() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * find a region or time zone by its full name
+	 * 
+	 * @param fullName e.g. America or America/Argentina/Cordoba
+	 * @return the node number, or -1 if there isn't one with that name
+	 */
+	int find(String fullName) {
+		if (fullName == null) {
+			return -1;
+		}
+		int position = Arrays.binarySearch(sortedFullNames, fullName);
+		return position < 0 ? -1 : sortedNodes[position];
+	}
+
+	/**
+	 * is the node an actual time zone rather than a region
+	 * 
+	 * @param node the node number
+	 * @return true if it's a time zone
+	 */
+	boolean isZone(int node) {
+		return childCount[node] == 0;
+	}
+
+	/**
+	 * get the full name of the node, for a time zone this is its zone id
+	 * 
+	 * @param node the node number
+	 * @return the full name
+	 */
+	String getFullName(int node) {
+		return fullNames[node];
+	}
+
+	/**
+	 * get the menu for a region, this is shared so it must not be changed
+	 * (including setting defaults on it), the params are the node numbers of the
+	 * choices
+	 * 
+	 * @param node the node number of the region
+	 * @return the menu, or null if the node is a time zone
+	 */
+	ChoiceDescriptionData<Integer> getMenu(int node) {
+		return menus.get(node);
+	}
+
+	private static class BuildNode {
+		private final String name;
+		private final String fullName;
+		private final Map<String, BuildNode> children = new TreeMap<>();
+
+		private BuildNode(String name, String fullName) {
+			this.name = name;
+			this.fullName = fullName;
+		}
+	}
+}
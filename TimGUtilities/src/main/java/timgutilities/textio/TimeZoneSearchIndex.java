@@ -0,0 +1,278 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lets the time zones be found from a fragment of what the user knows about
+ * them rather than having to walk the region tree, the fragment can be part of
+ * the id (e.g. kolkata or buenos aires), an abbreviation or name (e.g. IST or
+ * India Standard Time) or an offset from UTC (e.g. +5:30, -8 or UTC+05:30).
+ * 
+ * The index is built once, the first time it's needed (it has to load the rules
+ * and names of all the zones which takes a moment) and doesn't change after
+ * that, so it's shared between threads with no locking. Offsets are checked
+ * against the rules when searching so they are right even if daylight saving
+ * has started or stopped since the index was built.
+ */
+final class TimeZoneSearchIndex {
+	// the ranks of the different kinds of match, lower is better
+	private static final int EXACT_ID_MATCH = 0;
+	private static final int WHOLE_TOKEN_MATCH = 1;
+	private static final int TOKEN_START_MATCH = 2;
+	private static final int ID_CONTAINS_MATCH = 3;
+	private static final int NO_MATCH = Integer.MAX_VALUE;
+	// text fragments shorter than this match far too much to be useful
+	private static final int MIN_FRAGMENT_LENGTH = 2;
+	// e.g. +5:30 +0530 -8 UTC+05:30 gmt-3
+	private static final Pattern OFFSET_PATTERN = Pattern
+			.compile("(?:utc|gmt)?\\s*([+-])\\s*(\\d{1,2})(?::?(\\d{2}))?");
+
+	private static final class Holder {
+		private static final TimeZoneSearchIndex INSTANCE = new TimeZoneSearchIndex();
+	}
+
+	// all in id order
+	private final String[] ids;
+	private final String[] lowerCaseIds;
+	private final ZoneRules[] rules;
+	// the old style ids (e.g. EST, Etc/GMT+5, SystemV/PST8) are put after the
+	// region based ones when ranking
+	private final boolean[] preferred;
+	// the tokens in order and the zone (index into ids) each one came from
+	private final String[] tokens;
+	private final int[] tokenZones;
+
+	private TimeZoneSearchIndex() {
+		ids = new TreeSet<>(ZoneId.getAvailableZoneIds()).toArray(new String[0]);
+		lowerCaseIds = new String[ids.length];
+		rules = new ZoneRules[ids.length];
+		preferred = new boolean[ids.length];
+		List<Token> tokenList = new ArrayList<>();
+		for (int i = 0; i < ids.length; i++) {
+			String id = ids[i];
+			lowerCaseIds[i] = id.toLowerCase(Locale.ROOT);
+			rules[i] = ZoneId.of(id).getRules();
+			preferred[i] = isRegionBased(id);
+			// each part of the id and each word in those
+			for (String part : lowerCaseIds[i].split(TextIOUtils.TZ_SEPARATOR)) {
+				tokenList.add(new Token(part, i));
+				if (part.indexOf('_') >= 0) {
+					for (String word : part.split("_")) {
+						tokenList.add(new Token(word, i));
+					}
+				}
+			}
+			// the abbreviations and names, both with and without daylight saving
+			TimeZone timeZone = TimeZone.getTimeZone(id);
+			for (boolean daylight : new boolean[] { false, true }) {
+				String abbreviation = timeZone.getDisplayName(daylight, TimeZone.SHORT, Locale.ENGLISH);
+				// zones without an abbreviation get things like GMT+05:30, the offset search
+				// covers those
+				if (!abbreviation.startsWith("GMT") && !abbreviation.startsWith("UTC")) {
+					tokenList.add(new Token(normalise(abbreviation), i));
+				}
+				String name = timeZone.getDisplayName(daylight, TimeZone.LONG, Locale.ENGLISH);
+				tokenList.add(new Token(normalise(name), i));
+			}
+		}
+		tokenList.sort(Comparator.comparing((Token token) -> token.text).thenComparingInt(token -> token.zone));
+		tokens = new String[tokenList.size()];
+		tokenZones = new int[tokenList.size()];
+		for (int i = 0; i < tokens.length; i++) {
+			tokens[i] = tokenList.get(i).text;
+			tokenZones[i] = tokenList.get(i).zone;
+		}
+	}
+
+	/**
+	 * get the index, building it if this is the first time it's been asked for
+	 * 
+	 * @return the index
+	 */
+	static TimeZoneSearchIndex getInstance() {
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * find the zones matching the fragment, best matches first
+	 * 
+	 * @param fragment   part of a zone id, an abbreviation or name, or an offset
+	 * @param maxResults the most zones to return
+	 * @return the matching zones, empty if there are none
+	 */
+	List<ZoneId> search(String fragment, int maxResults) {
+		if (fragment == null) {
+			return List.of();
+		}
+		String query = normalise(fragment);
+		int[] ranks = new int[ids.length];
+		Arrays.fill(ranks, NO_MATCH);
+		ZoneOffset offset = parseOffset(query);
+		if (offset != null) {
+			Instant now = Instant.now();
+			for (int i = 0; i < ids.length; i++) {
+				if (rules[i].getOffset(now).equals(offset)) {
+					ranks[i] = WHOLE_TOKEN_MATCH;
+				}
+			}
+		} else if (query.length() >= MIN_FRAGMENT_LENGTH) {
+			rankTextMatches(query, ranks);
+		}
+		List<Integer> matches = new ArrayList<>();
+		for (int i = 0; i < ids.length; i++) {
+			if (ranks[i] != NO_MATCH) {
+				matches.add(i);
+			}
+		}
+		matches.sort(Comparator.comparingInt((Integer zone) -> ranks[zone])
+				.thenComparing(zone -> !preferred[zone]).thenComparingInt(zone -> ids[zone].length())
+				.thenComparingInt(zone -> zone));
+		List<ZoneId> results = new ArrayList<>(Math.min(matches.size(), maxResults));
+		for (int i = 0; (i < matches.size()) && (i < maxResults); i++) {
+			results.add(ZoneId.of(ids[matches.get(i)]));
+		}
+		return results;
+	}
+
+	private void rankTextMatches(String query, int[] ranks) {
+		// all the tokens starting with the query are together in the sorted tokens
+		int position = Arrays.binarySearch(tokens, query);
+		if (position < 0) {
+			position = -(position + 1);
+		} else {
+			// there may be several equal tokens, find the first
+			while ((position > 0) && tokens[position - 1].equals(query)) {
+				position--;
+			}
+		}
+		for (; (position < tokens.length) && tokens[position].startsWith(query); position++) {
+			int rank = tokens[position].length() == query.length() ? WHOLE_TOKEN_MATCH : TOKEN_START_MATCH;
+			int zone = tokenZones[position];
+			ranks[zone] = Math.min(ranks[zone], rank);
+		}
+		for (int i = 0; i < ids.length; i++) {
+			if (lowerCaseIds[i].equals(query)) {
+				ranks[i] = EXACT_ID_MATCH;
+			} else if ((ranks[i] == NO_MATCH) && lowerCaseIds[i].contains(query)) {
+				ranks[i] = ID_CONTAINS_MATCH;
+			}
+		}
+	}
+
+	/**
+	 * is the id region based (e.g. Europe/London) rather than one of the old style
+	 * ones (e.g. EST, Etc/GMT+5, SystemV/PST8)
+	 * 
+	 * @param id the zone id
+	 * @return true if it's region based
+	 */
+	static boolean isRegionBased(String id) {
+		return id.contains(TextIOUtils.TZ_SEPARATOR) && !id.startsWith("Etc/") && !id.startsWith("SystemV/");
+	}
+
+	/**
+	 * describe the zone for a short list, e.g. Asia/Kolkata (UTC+05:30 IST)
+	 * 
+	 * @param zoneId the zone
+	 * @return the description
+	 */
+	String describe(ZoneId zoneId) {
+		ZoneRules zoneRules = zoneId.getRules();
+		Instant now = Instant.now();
+		String abbreviation = TimeZone.getTimeZone(zoneId).getDisplayName(zoneRules.isDaylightSavings(now),
+				TimeZone.SHORT, Locale.ENGLISH);
+		String offsetText = TimeZoneOffsetGroups.describe(zoneRules.getOffset(now));
+		if (abbreviation.startsWith("GMT") || abbreviation.startsWith("UTC")) {
+			return zoneId.getId() + " (" + offsetText + ")";
+		}
+		return zoneId.getId() + " (" + offsetText + " " + abbreviation + ")";
+	}
+
+	/**
+	 * lower case, and spaces become underscores so buenos aires matches
+	 * Buenos_Aires
+	 */
+	private static String normalise(String text) {
+		return text.trim().toLowerCase(Locale.ROOT).replace(' ', '_');
+	}
+
+	/**
+	 * @return the offset, or null if the query isn't an offset (or is out of range)
+	 */
+	private static ZoneOffset parseOffset(String query) {
+		Matcher matcher = OFFSET_PATTERN.matcher(query.replace('_', ' '));
+		if (!matcher.matches()) {
+			return null;
+		}
+		int sign = matcher.group(1).equals("-") ? -1 : 1;
+		int hours = Integer.parseInt(matcher.group(2));
+		int minutes = matcher.group(3) == null ? 0 : Integer.parseInt(matcher.group(3));
+		if ((hours > 18) || (minutes > 59)) {
+			return null;
+		}
+		try {
+			return ZoneOffset.ofHoursMinutes(sign * hours, sign * minutes);
+		} catch (DateTimeException e) {
+			return null;
+		}
+	}
+
+	private static class Token {
+		private final String text;
+		private final int zone;
+
+		private Token(String text, int zone) {
+			this.text = text;
+			this.zone = zone;
+		}
+	}
+}
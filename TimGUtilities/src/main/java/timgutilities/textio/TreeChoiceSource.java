@@ -0,0 +1,112 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Provides the nodes of a tree (e.g. org units, metric namespaces or config
+ * keys) to a TreeChooser, which lets the user drill down through it level by
+ * level or type a path to jump straight to a node. The chooser only asks for
+ * the children of the nodes it actually displays, so the tree can have millions
+ * of leaves as long as any one node doesn't have too many children to list.
+ * 
+ * Nodes are used as cache keys so they must have sensible equals and hashCode
+ * methods (e.g. a String path, a record or a database id). The methods may be
+ * called from background threads, possibly at the same time.
+ * 
+ * @param <N> the type of the nodes
+ * @see TreeChooser
+ */
+public interface TreeChoiceSource<N> {
+	/**
+	 * get the top of the tree, this isn't shown to the user
+	 * 
+	 * @return the root node
+	 */
+	N getRoot();
+
+	/**
+	 * get the children of the node in the order they should be shown
+	 * 
+	 * @param node the node
+	 * @return the children, empty for a leaf
+	 * @throws IOException if they can't be loaded
+	 */
+	List<N> getChildren(N node) throws IOException;
+
+	/**
+	 * is the node a leaf (i.e. something that can be chosen) rather than a branch
+	 * 
+	 * @param node the node
+	 * @return true if it's a leaf
+	 */
+	boolean isLeaf(N node);
+
+	/**
+	 * the name of the node within its parent, this is what is shown in the choices
+	 * and what the user types as part of a path
+	 * 
+	 * @param node the node
+	 * @return the name, this must not contain the separator
+	 */
+	String getName(N node);
+
+	/**
+	 * how many children the node has, this is done in the background for the
+	 * branches being displayed. If this isn't overridden the chooser loads the
+	 * children of the branches instead (and holds on to them for when the user
+	 * goes into one), if there is a quicker way (e.g. a count query) override it
+	 * 
+	 * @param node the branch node
+	 * @return the number of children
+	 * @throws IOException if they can't be counted
+	 */
+	default long countChildren(N node) throws IOException {
+		return getChildren(node).size();
+	}
+
+	/**
+	 * what separates the names in a path typed by the user
+	 * 
+	 * @return the separator, / by default
+	 */
+	default String getSeparator() {
+		return "/";
+	}
+}
@@ -0,0 +1,410 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Lets the user choose a leaf from a tree by moving down through it a level at
+ * a time, the same way getTimeZoneByName works for the time zone regions, or by
+ * typing the path of a node (or the start of it) to go straight there. Branches
+ * are shown with how many entries they have (e.g. Europe/ [60 entries]), these
+ * are counted in the background and the menu only waits a short time for them
+ * (see setCountWaitMillis) so they just appear once they are known.
+ * 
+ * Only the children of the nodes that are displayed are loaded, they are held
+ * in a bounded cache so going back to a node doesn't mean loading it again. Big
+ * nodes are shown a page at a time. A chooser can be used for as many choices
+ * as needed, keeping one for the life of the program means the cache is
+ * reused.
+ * 
+ * @param <N> the type of the nodes
+ * @see TreeChoiceSource
+ * @see TextIOUtils#chooseFromTree(String, TreeChoiceSource)
+ */
+public class TreeChooser<N> {
+	private static final int DEFAULT_MAX_CACHED_NODES = 256;
+	private static final int DEFAULT_PAGE_SIZE = 50;
+	private static final long DEFAULT_COUNT_WAIT_MILLIS = 100;
+	// the params of the choices are the position of the node in the page, these
+	// are used for the extra options
+	private static final int UP = -1;
+	private static final int PREVIOUS_PAGE = -2;
+	private static final int NEXT_PAGE = -3;
+	// from chooseStartingWith
+	private static final int NOT_FOUND = -1;
+	private static final int NONE_WANTED = -2;
+
+	private final TreeChoiceSource<N> source;
+	private final TreeNodeCache<N> cache;
+	// the top is the node currently being displayed
+	private final Deque<TreeFrame<N>> frames = new ArrayDeque<>();
+	private int pageSize = DEFAULT_PAGE_SIZE;
+	private long countWaitMillis = DEFAULT_COUNT_WAIT_MILLIS;
+
+	/**
+	 * Create the chooser with the default cache size
+	 * 
+	 * @param source where the nodes come from
+	 */
+	public TreeChooser(TreeChoiceSource<N> source) {
+		this(source, DEFAULT_MAX_CACHED_NODES);
+	}
+
+	/**
+	 * Create the chooser
+	 * 
+	 * @param source         where the nodes come from
+	 * @param maxCachedNodes how many nodes the children are held for, the least
+	 *                       recently used are dropped
+	 */
+	public TreeChooser(TreeChoiceSource<N> source, int maxCachedNodes) {
+		if (source == null) {
+			throw new IllegalArgumentException("The tree choice source cannot be null");
+		}
+		this.source = source;
+		this.cache = new TreeNodeCache<>(source, maxCachedNodes);
+	}
+
+	/**
+	 * set how many children are shown at a time
+	 * 
+	 * @param pageSize the number of children on each page, must be at least 1
+	 */
+	public void setPageSize(int pageSize) {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("The tree chooser page size must be at least 1");
+		}
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * gets how many children are shown at a time
+	 * 
+	 * @return the page size
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * set how long the menu waits for the branch counts before being shown anyway
+	 * 
+	 * @param countWaitMillis the longest wait in milliseconds, 0 to never wait
+	 */
+	public void setCountWaitMillis(long countWaitMillis) {
+		if (countWaitMillis < 0) {
+			throw new IllegalArgumentException("The tree count wait cannot be negative");
+		}
+		this.countWaitMillis = countWaitMillis;
+	}
+
+	/**
+	 * gets how long the menu waits for the branch counts
+	 * 
+	 * @return the longest wait in milliseconds
+	 */
+	public long getCountWaitMillis() {
+		return countWaitMillis;
+	}
+
+	/**
+	 * throw away the cached children and counts, use this if the tree has changed
+	 */
+	public void clearCache() {
+		cache.clear();
+	}
+
+	/**
+	 * Ask the user for a path (or the start of one) and then let them choose from
+	 * wherever that got to, see choose(String, boolean)
+	 * 
+	 * @param prompt the prompt to use when asking for input
+	 * @return the chosen leaf, or null if they cancelled
+	 * @throws IOException if there is a problem reading the input or loading the
+	 *                     tree
+	 */
+	public N choose(String prompt) throws IOException {
+		return choose(prompt, true);
+	}
+
+	/**
+	 * Let the user choose a leaf. If askForPath is true they can first type a path
+	 * of names separated by the source separator (e.g. emea/uk/sales). If that's a
+	 * leaf it's returned straight away, if it's a branch the choosing starts there.
+	 * The last name can be the start of a name (ignoring case), if more than one
+	 * name starts with it they get to pick which. Pressing return starts at the
+	 * top.
+	 * 
+	 * @param prompt     the prompt to use when asking for input
+	 * @param askForPath if true ask for a path first
+	 * @return the chosen leaf, or null if they cancelled
+	 * @throws IOException if there is a problem reading the input or loading the
+	 *                     tree
+	 */
+	public N choose(String prompt, boolean askForPath) throws IOException {
+		frames.clear();
+		frames.push(new TreeFrame<>(source.getRoot(), "", 0));
+		if (askForPath) {
+			String path = TextIOUtils.getString(prompt + " - enter a path (e.g. a" + source.getSeparator()
+					+ "b), or the start of one, or press return to choose from the top", null, true);
+			N leaf = moveToPath(prompt, path.trim());
+			if (leaf != null) {
+				return leaf;
+			}
+		}
+		while (true) {
+			TreeFrame<N> frame = frames.peek();
+			List<N> children = cache.getChildren(frame.node);
+			int first = frame.page * pageSize;
+			List<N> pageNodes = children.subList(Math.min(first, children.size()),
+					Math.min(first + pageSize, children.size()));
+			List<N> branches = new ArrayList<>();
+			for (N node : pageNodes) {
+				if (!source.isLeaf(node)) {
+					branches.add(node);
+					cache.requestCount(node);
+				}
+			}
+			Integer choice;
+			try {
+				cache.awaitCounts(branches, countWaitMillis);
+				choice = TextIOUtils.getParamChoice(getFramePrompt(prompt, frame),
+						buildChoices(frame, pageNodes, first + pageNodes.size() < children.size()));
+			} finally {
+				cache.cancelPendingCounts(branches);
+			}
+			if (choice == null) {
+				return null;
+			}
+			if (choice == UP) {
+				frames.pop();
+			} else if ((choice == PREVIOUS_PAGE) || (choice == NEXT_PAGE)) {
+				frame.page += choice == NEXT_PAGE ? 1 : -1;
+			} else {
+				N node = pageNodes.get(choice);
+				frame.selected = first + choice;
+				if (source.isLeaf(node)) {
+					return node;
+				}
+				frames.push(new TreeFrame<>(node, getChildPath(frame, node), 0));
+			}
+		}
+	}
+
+	private ChoiceDescriptionData<Integer> buildChoices(TreeFrame<N> frame, List<N> pageNodes, boolean morePages) {
+		ChoiceDescriptionData<Integer> cdd = new ChoiceDescriptionData<>();
+		if (frames.size() > 1) {
+			cdd.addChoiceDescription(new ChoiceDescription<>("<Up a level>", UP));
+		}
+		if (frame.page > 0) {
+			cdd.addChoiceDescription(new ChoiceDescription<>("<Previous page>", PREVIOUS_PAGE));
+		}
+		for (int i = 0; i < pageNodes.size(); i++) {
+			N node = pageNodes.get(i);
+			ChoiceDescription<Integer> cd = new ChoiceDescription<>(getOptionText(node), i);
+			cdd.addChoiceDescription(cd);
+			// coming back up the tree the one we went down is the default
+			if (frame.page * pageSize + i == frame.selected) {
+				cdd.setDefaultByChoiceDescription(cd);
+			}
+		}
+		if (morePages) {
+			cdd.addChoiceDescription(new ChoiceDescription<>("<Next page>", NEXT_PAGE));
+		}
+		cdd.addAbandonOption("Cancel");
+		return cdd;
+	}
+
+	private String getOptionText(N node) {
+		String name = source.getName(node);
+		if (source.isLeaf(node)) {
+			return name;
+		}
+		long count = cache.requestCount(node);
+		if (count == TreeNodeCache.UNKNOWN) {
+			return name + source.getSeparator();
+		}
+		return name + source.getSeparator() + " [" + count + (count == 1 ? " entry]" : " entries]");
+	}
+
+	private String getFramePrompt(String prompt, TreeFrame<N> frame) {
+		return prompt + " (" + (frame.path.isEmpty() ? "top" : frame.path)
+				+ (frame.page == 0 ? "" : ", page " + (frame.page + 1)) + ")";
+	}
+
+	private String getChildPath(TreeFrame<N> frame, N child) {
+		return frame.path.isEmpty() ? source.getName(child)
+				: frame.path + source.getSeparator() + source.getName(child);
+	}
+
+	/**
+	 * go down the tree following the path, each level passed through is pushed so
+	 * the user can go back up from where it ends
+	 * 
+	 * @return the leaf if the path leads to one, otherwise null and the top frame
+	 *         is where the choosing should start
+	 */
+	private N moveToPath(String prompt, String path) throws IOException {
+		String separator = source.getSeparator();
+		List<String> names = new ArrayList<>();
+		for (String name : path.split(Pattern.quote(separator))) {
+			if (!name.isEmpty()) {
+				names.add(name);
+			}
+		}
+		for (int i = 0; i < names.size(); i++) {
+			TreeFrame<N> frame = frames.peek();
+			String name = names.get(i);
+			List<N> children = cache.getChildren(frame.node);
+			int position = findChild(children, name);
+			if ((position < 0) && (i == names.size() - 1)) {
+				position = chooseStartingWith(prompt, frame, children, name);
+			}
+			if (position == NONE_WANTED) {
+				return null;
+			}
+			if (position < 0) {
+				TextIOUtils.doOutput("Sorry, but " + name + " is not in "
+						+ (frame.path.isEmpty() ? "the top level" : frame.path) + ", starting selection from there");
+				return null;
+			}
+			N node = children.get(position);
+			frame.selected = position;
+			frame.page = position / pageSize;
+			if (source.isLeaf(node)) {
+				if (i < names.size() - 1) {
+					TextIOUtils.doOutput("Sorry, but " + getChildPath(frame, node)
+							+ " doesn't have any entries, starting selection from "
+							+ (frame.path.isEmpty() ? "the top level" : frame.path));
+					return null;
+				}
+				return node;
+			}
+			frames.push(new TreeFrame<>(node, getChildPath(frame, node), 0));
+		}
+		if (!names.isEmpty()) {
+			TextIOUtils.doOutput(frames.peek().path + " has entries, starting selection from there");
+		}
+		return null;
+	}
+
+	/**
+	 * the exact name, or if there isn't one the name ignoring case
+	 */
+	private int findChild(List<N> children, String name) {
+		int ignoringCase = -1;
+		for (int i = 0; i < children.size(); i++) {
+			String childName = source.getName(children.get(i));
+			if (childName.equals(name)) {
+				return i;
+			}
+			if ((ignoringCase < 0) && childName.equalsIgnoreCase(name)) {
+				ignoringCase = i;
+			}
+		}
+		return ignoringCase;
+	}
+
+	/**
+	 * if only one child starts with the text that's it, if there are more let the
+	 * user pick (up to a page of them)
+	 * 
+	 * @return the position of the child, NOT_FOUND if none match or NONE_WANTED
+	 *         if the user didn't want any of them
+	 */
+	private int chooseStartingWith(String prompt, TreeFrame<N> frame, List<N> children, String start)
+			throws IOException {
+		String lowerCaseStart = start.toLowerCase(Locale.ROOT);
+		List<Integer> matches = new ArrayList<>();
+		for (int i = 0; (i < children.size()) && (matches.size() <= pageSize); i++) {
+			if (source.getName(children.get(i)).toLowerCase(Locale.ROOT).startsWith(lowerCaseStart)) {
+				matches.add(i);
+			}
+		}
+		if (matches.size() <= 1) {
+			return matches.isEmpty() ? NOT_FOUND : matches.get(0);
+		}
+		boolean tooMany = matches.size() > pageSize;
+		List<Integer> shown = matches.subList(0, Math.min(matches.size(), pageSize));
+		List<N> branches = new ArrayList<>();
+		for (Integer position : shown) {
+			N node = children.get(position);
+			if (!source.isLeaf(node)) {
+				branches.add(node);
+				cache.requestCount(node);
+			}
+		}
+		Integer choice;
+		try {
+			cache.awaitCounts(branches, countWaitMillis);
+			ChoiceDescriptionData<Integer> cdd = new ChoiceDescriptionData<>();
+			for (Integer position : shown) {
+				cdd.addChoiceDescription(new ChoiceDescription<>(getOptionText(children.get(position)), position));
+			}
+			cdd.setDefaultByIndex(0);
+			cdd.addAbandonOption("None of these, choose from "
+					+ (frame.path.isEmpty() ? "the top level" : frame.path), false, false);
+			choice = TextIOUtils.getParamChoice(prompt + " (starting with " + start
+					+ (tooMany ? ", the first " + pageSize + " shown" : "") + ")", cdd);
+		} finally {
+			cache.cancelPendingCounts(branches);
+		}
+		return choice == null ? NONE_WANTED : choice;
+	}
+
+	private static final class TreeFrame<N> {
+		private final N node;
+		// the names from the top down to here
+		private final String path;
+		private int page;
+		// the position of the child that was chosen, -1 for none
+		private int selected = -1;
+
+		private TreeFrame(N node, String path, int page) {
+			this.node = node;
+			this.path = path;
+			this.page = page;
+		}
+	}
+}
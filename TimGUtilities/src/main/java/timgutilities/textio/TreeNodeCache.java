@@ -0,0 +1,286 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Holds the children of the recently displayed nodes of a TreeChoiceSource and
+ * the counts of their children, both are bounded LRUs so the memory used
+ * doesn't depend on the size of the tree. If two threads want the children of
+ * the same node at the same time the second waits for the first rather than
+ * loading them again.
+ * 
+ * The counts are worked out on a small shared pool of background threads, in
+ * the same way as the directory summaries, so a slow count never holds up the
+ * menu.
+ */
+final class TreeNodeCache<N> {
+	static final long UNKNOWN = -1;
+	private static final int MAX_CONCURRENT_COUNTS = 2;
+	private static final long IDLE_THREAD_TIMEOUT_SECONDS = 30;
+	// a count is just a number so plenty can be kept
+	private static final int COUNTS_PER_CACHED_NODE = 16;
+	private static final ThreadPoolExecutor COUNT_EXECUTOR;
+	static {
+		COUNT_EXECUTOR = new ThreadPoolExecutor(MAX_CONCURRENT_COUNTS, MAX_CONCURRENT_COUNTS,
+				IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				new DaemonThreadFactory("TextIOUtils-tree-count"));
+		COUNT_EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	private final TreeChoiceSource<N> source;
+	// if the source has its own (presumably quicker) way of counting, otherwise
+	// the count loads the children here so they are held ready for when the user
+	// goes into the branch
+	private final boolean sourceCounts;
+	private final int maxNodes;
+	// access ordered so the eldest entry is always the least recently used
+	private final LinkedHashMap<N, List<N>> children = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<N, Long> counts = new LinkedHashMap<>(16, 0.75f, true);
+	// loads and counts that are currently being done
+	private final Map<N, FutureTask<List<N>>> loading = new HashMap<>();
+	private final Map<N, FutureTask<Void>> counting = new HashMap<>();
+
+	/**
+	 * @param source   where the nodes come from
+	 * @param maxNodes how many nodes to hold the children of
+	 */
+	TreeNodeCache(TreeChoiceSource<N> source, int maxNodes) {
+		if (maxNodes < 1) {
+			throw new IllegalArgumentException("The tree cache must be able to hold at least one node");
+		}
+		this.source = source;
+		this.sourceCounts = isCountChildrenOverridden(source);
+		this.maxNodes = maxNodes;
+	}
+
+	private static boolean isCountChildrenOverridden(TreeChoiceSource<?> source) {
+		try {
+			return source.getClass().getMethod("countChildren", Object.class)
+					.getDeclaringClass() != TreeChoiceSource.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	TreeChoiceSource<N> getSource() {
+		return source;
+	}
+
+	/**
+	 * get the children of the node, loading them if they aren't held
+	 * 
+	 * @param node the node
+	 * @return the children, this is shared so must not be changed
+	 * @throws IOException if the source can't load them
+	 */
+	List<N> getChildren(N node) throws IOException {
+		FutureTask<List<N>> loader;
+		boolean loadHere = false;
+		synchronized (this) {
+			List<N> cached = children.get(node);
+			if (cached != null) {
+				return cached;
+			}
+			loader = loading.get(node);
+			if (loader == null) {
+				// stored before it's removed from loading so no one else starts loading it
+				loader = new FutureTask<>(() -> store(node, List.copyOf(source.getChildren(node))));
+				loading.put(node, loader);
+				loadHere = true;
+			}
+		}
+		if (loadHere) {
+			try {
+				loader.run();
+			} finally {
+				synchronized (this) {
+					loading.remove(node);
+				}
+			}
+		}
+		try {
+			return loader.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while loading the children of " + source.getName(node), e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IOException("Problem loading the children of " + source.getName(node), e.getCause());
+		}
+	}
+
+	private synchronized List<N> store(N node, List<N> loaded) {
+		children.put(node, loaded);
+		counts.put(node, (long) loaded.size());
+		trim();
+		return loaded;
+	}
+
+	private void trim() {
+		while (children.size() > maxNodes) {
+			N eldest = children.keySet().iterator().next();
+			children.remove(eldest);
+		}
+		while (counts.size() > maxNodes * COUNTS_PER_CACHED_NODE) {
+			N eldest = counts.keySet().iterator().next();
+			counts.remove(eldest);
+		}
+	}
+
+	/**
+	 * get the number of children of the branch, if it's not known it's worked out
+	 * in the background, this never waits for it
+	 * 
+	 * @param node the branch
+	 * @return the count or UNKNOWN
+	 */
+	synchronized long requestCount(N node) {
+		Long count = counts.get(node);
+		if (count != null) {
+			return count;
+		}
+		if (!counting.containsKey(node)) {
+			// executed rather than submitted so it's the task itself that's queued, that
+			// way cancelPendingCounts can tell if it has started or not
+			FutureTask<Void> countTask = new FutureTask<>(() -> count(node), null);
+			counting.put(node, countTask);
+			COUNT_EXECUTOR.execute(countTask);
+		}
+		return UNKNOWN;
+	}
+
+	private void count(N node) {
+		try {
+			if (!sourceCounts) {
+				// this stores the count as well
+				getChildren(node);
+				return;
+			}
+			long count = source.countChildren(node);
+			synchronized (this) {
+				counts.put(node, count);
+				trim();
+			}
+		} catch (IOException | UncheckedIOException e) {
+			// nothing to show for this one
+		} finally {
+			synchronized (this) {
+				counting.remove(node);
+			}
+		}
+	}
+
+	/**
+	 * wait (up to waitMillis in total) for any of the counts for the nodes that are
+	 * being worked out
+	 * 
+	 * @param nodes      the nodes
+	 * @param waitMillis the longest wait
+	 */
+	void awaitCounts(List<N> nodes, long waitMillis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+		for (N node : nodes) {
+			Future<?> pending;
+			synchronized (this) {
+				pending = counting.get(node);
+			}
+			if (pending == null) {
+				continue;
+			}
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				return;
+			}
+			try {
+				pending.get(remaining, TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException | CancellationException e) {
+				// nothing to show for this one, carry on with the others
+			}
+		}
+	}
+
+	/**
+	 * cancel the counts for the nodes that haven't been started, the ones that are
+	 * running are left to finish so they are there next time
+	 * 
+	 * @param nodes the nodes
+	 */
+	synchronized void cancelPendingCounts(List<N> nodes) {
+		for (N node : nodes) {
+			FutureTask<Void> pending = counting.get(node);
+			// this only succeeds if it's still queued, a count that is running stays in
+			// counting until it's done so it's not started again
+			if ((pending != null) && COUNT_EXECUTOR.remove(pending)) {
+				pending.cancel(false);
+				counting.remove(node);
+			}
+		}
+	}
+
+	/**
+	 * throw away everything that is held, e.g. if the tree has changed
+	 */
+	synchronized void clear() {
+		children.clear();
+		counts.clear();
+	}
+}
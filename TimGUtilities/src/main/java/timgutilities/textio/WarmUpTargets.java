@@ -0,0 +1,164 @@
+/*Copyright (c) 2026 Tim Graves.
+
+The Universal Permissive License (UPL), Version 1.0
+
+Subject to the condition set forth below, permission is hereby granted to any
+person obtaining a copy of this software, associated documentation and/or data
+(collectively the "Software"), free of charge and under any and all copyright
+rights in the Software, and any and all patent rights owned or freely
+licensable by each licensor hereunder covering either (i) the unmodified
+Software as contributed to or provided by such licensor, or (ii) the Larger
+Works (as defined below), to deal in both
+
+(a) the Software, and
+(b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+one is included with the Software (each a "Larger Work" to which the Software
+is contributed by such licensors),
+
+without restriction, including without limitation the rights to copy, create
+derivative works of, display, perform, and distribute the Software and make,
+use, sell, offer for sale, import, export, have made, and have sold the
+Software and the Larger Work(s), and to sublicense the foregoing rights on
+either these or other terms.
+
+This license is subject to the following condition:
+The above copyright notice and either this complete permission notice or at
+a minimum a reference to the UPL must be included in all copies or
+substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+package timgutilities.textio;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Says what TextIOUtils.warmUp should build in the background, for example
+ * 
+ * <pre>
+ * TextIOUtils.warmUp(new WarmUpTargets().addTimeZones().addEnumClass(Colour.class)
+ * 		.addDirectories(Path.of("/data")).addNameMatchers("glob:*.csv"));
+ * </pre>
+ * 
+ * Everything that's warmed up is the same shared structure the prompts use, so
+ * a prompt that needs a time zone structure or a directory listing that's still
+ * being built waits for it rather than building it again. Directories are
+ * listed with the same settings as the chooser that will display them,
+ * otherwise the listing won't be the one the chooser looks for.
+ * 
+ * @see TextIOUtils#warmUp(WarmUpTargets)
+ */
+public final class WarmUpTargets {
+	private final List<Runnable> tasks = new ArrayList<>();
+
+	/**
+	 * build the time zone structures used by getTimeZoneByName,
+	 * getTimeZoneByOffsetGroup and findTimeZones
+	 * 
+	 * @return this
+	 */
+	public WarmUpTargets addTimeZones() {
+		// these are all separate structures so can be built at the same time
+		tasks.add(TimeZoneRegionTree::getInstance);
+		tasks.add(TimeZoneSearchIndex::getInstance);
+		tasks.add(() -> TimeZoneOffsetGroups.getInstance().getGrouping(Instant.now()));
+		return this;
+	}
+
+	/**
+	 * build the menu for the enum, this is the option text of each constant and the
+	 * locked menu that getEnumChoice, getEnumSetChoice and the
+	 * buildChoiceDescriptionDataFrom...Enum... methods all start from, so the
+	 * first prompt for the enum doesn't have to do the reflection and toString
+	 * calls
+	 * 
+	 * @param enumClass the class of the enum
+	 * @return this
+	 */
+	public WarmUpTargets addEnumClass(Class<? extends Enum<?>> enumClass) {
+		tasks.add(() -> EnumMenu.warmUp(enumClass));
+		return this;
+	}
+
+	/**
+	 * build the menus for the enums
+	 * 
+	 * @param enumClasses the classes of the enums
+	 * @return this
+	 */
+	public WarmUpTargets addEnumClasses(Collection<Class<? extends Enum<?>>> enumClasses) {
+		enumClasses.forEach(this::addEnumClass);
+		return this;
+	}
+
+	/**
+	 * list the directories with the settings used by choseFileToOpen, the
+	 * listings go in the directory listing cache
+	 * 
+	 * @param dirs the directories to list
+	 * @return this
+	 */
+	public WarmUpTargets addDirectories(Path... dirs) {
+		for (Path dir : dirs) {
+			addDirectory(dir, DirectorySelectionMode.SELECT_DIRECTORY_AS_NAVIGATION_OR_FILE_AS_LEAF,
+					DirectoryListOrderType.DIRECTORIES_FIRST, true, null, true);
+		}
+		return this;
+	}
+
+	/**
+	 * list the directory with the same settings that will be passed to
+	 * choseFromDirectory, the listing goes in the directory listing cache
+	 * 
+	 * @param dir                directory to list
+	 * @param selectionMode      the selection mode the chooser will use
+	 * @param listOrderType      how the entries will be ordered
+	 * @param excludeHiddenFiles if true hidden entries are not listed
+	 * @param nameMatcher        if provided is used to only select matching
+	 *                           entries
+	 * @param matchFilesOnly     does the nameMatcher apply to both directories and
+	 *                           files or just files
+	 * @return this
+	 */
+	public WarmUpTargets addDirectory(Path dir, DirectorySelectionMode selectionMode,
+			DirectoryListOrderType listOrderType, boolean excludeHiddenFiles, NameMatcher nameMatcher,
+			boolean matchFilesOnly) {
+		tasks.add(() -> DirectoryListingCache.getInstance().preload(dir, selectionMode.getDirectoryListFilterType(),
+				listOrderType, excludeHiddenFiles, nameMatcher, matchFilesOnly, null));
+		return this;
+	}
+
+	/**
+	 * compile the matchers and put them in the matcher cache
+	 * 
+	 * @param syntaxAndPatterns the matchers in the form used by NameMatcher.parse,
+	 *                          e.g. glob:*.java or regex:^tim.*
+	 * @return this
+	 * @see NameMatcher#parse(String)
+	 */
+	public WarmUpTargets addNameMatchers(String... syntaxAndPatterns) {
+		for (String syntaxAndPattern : syntaxAndPatterns) {
+			tasks.add(() -> NameMatcher.parse(syntaxAndPattern));
+		}
+		return this;
+	}
+
+	/**
+	 * the work to do, one task per structure so they can run at the same time
+	 * 
+	 * @return the tasks
+	 */
+	List<Runnable> getTasks() {
+		return List.copyOf(tasks);
+	}
+}